@@ -8,6 +8,7 @@ plugins {
     id("io.spring.dependency-management") version "1.1.7"
     id("gg.jte.gradle") version "3.1.16"
     id("com.diffplug.spotless") version "8.0.0"
+    id("me.champeau.jmh") version "0.7.3"
 }
 
 group = "fr.redstom"
@@ -40,14 +41,36 @@ dependencies {
     implementation("org.flywaydb:flyway-core")
     implementation("org.flywaydb:flyway-database-postgresql")
     implementation("org.springframework.boot:spring-boot-starter-actuator")
+    implementation("org.springframework.boot:spring-boot-starter-cache")
+    implementation("com.github.ben-manes.caffeine:caffeine")
+    implementation("org.postgresql:postgresql")
     compileOnly("org.projectlombok:lombok")
     developmentOnly("org.springframework.boot:spring-boot-devtools")
-    runtimeOnly("org.postgresql:postgresql")
     annotationProcessor("org.projectlombok:lombok")
     testImplementation("org.springframework.boot:spring-boot-starter-test")
+    testImplementation("org.springframework.security:spring-security-test")
+    testImplementation("io.zonky.test:embedded-database-spring-test:2.6.0")
+    testImplementation("io.zonky.test:embedded-postgres:2.1.0")
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 }
 
+jmh {
+    jmhVersion = "1.37"
+    profilers = listOf("gc")
+    resultFormat = "JSON"
+    fork = 1
+    warmupIterations = 2
+    warmup = "1s"
+    iterations = 3
+    timeOnIteration = "2s"
+
+    // Matrice réduite par défaut (24 cas) ; -PjmhFull lance les 144 combinaisons de @Param
+    if (!project.hasProperty("jmhFull")) {
+        benchmarkParameters.put("students", objects.listProperty<String>().value(listOf("200", "1000")))
+        benchmarkParameters.put("slots", objects.listProperty<String>().value(listOf("40")))
+    }
+}
+
 jte {
     generate()
     binaryStaticContent = true
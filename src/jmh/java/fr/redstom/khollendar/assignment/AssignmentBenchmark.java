@@ -0,0 +1,146 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.assignment;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Mesure du moteur d'affectation sur des promotions synthétiques. Lancer avec {@code ./gradlew jmh}
+ * ; le profileur gc est activé dans {@code build.gradle.kts} pour suivre le taux d'allocation, et la
+ * qualité d'une affectation de chaque cas est affichée en fin d'essai.
+ *
+ * <p>Par défaut, {@code build.gradle.kts} restreint la matrice à 200 et 1000 étudiants sur 40
+ * créneaux ; {@code ./gradlew jmh -PjmhFull} lance toutes les combinaisons, dont les plus gros cas
+ * des modes exacts prennent plusieurs secondes par affectation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class AssignmentBenchmark {
+
+    /** Profils de préférences et d'indisponibilités des promotions générées */
+    public enum Profile {
+        /** Quelques créneaux classés (20 %), rares indisponibilités (5 %) */
+        SPARSE(0.20, 0.05, false),
+
+        /** Tous les créneaux disponibles classés, rares indisponibilités (5 %) */
+        DENSE(1.00, 0.05, false),
+
+        /** La moitié des créneaux classés, la moitié des créneaux indisponibles */
+        CONSTRAINED(0.50, 0.50, false),
+
+        /** Tous les étudiants classent les créneaux dans le même ordre : contention maximale */
+        CORRELATED(0.50, 0.05, true);
+
+        private final double rankedRatio;
+        private final double unavailableRatio;
+        private final boolean sharedOrder;
+
+        Profile(double rankedRatio, double unavailableRatio, boolean sharedOrder) {
+            this.rankedRatio = rankedRatio;
+            this.unavailableRatio = unavailableRatio;
+            this.sharedOrder = sharedOrder;
+        }
+    }
+
+    @Param({"50", "200", "1000", "5000"})
+    public int students;
+
+    @Param({"10", "40", "120"})
+    public int slots;
+
+    @Param({"SPARSE", "DENSE", "CONSTRAINED", "CORRELATED"})
+    public Profile profile;
+
+    @Param({"MAX_MIN_FAIRNESS", "MIN_COST", "LEXIMIN"})
+    public AssignmentMode mode;
+
+    private AssignmentProblem problem;
+    private long seed;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        SplittableRandom random = new SplittableRandom(students * 31L + slots);
+        AssignmentProblem.Builder builder = AssignmentProblem.builder(
+                        LongStream.rangeClosed(1, students).toArray(),
+                        LongStream.rangeClosed(1, slots).toArray())
+                .capacity((int) Math.ceil((double) students / slots));
+
+        int[] order = new int[slots];
+        for (int slot = 0; slot < slots; slot++) {
+            order[slot] = slot;
+        }
+
+        for (int user = 0; user < students; user++) {
+            if (!profile.sharedOrder) {
+                for (int i = slots - 1; i > 0; i--) {
+                    int j = random.nextInt(i + 1);
+                    int tmp = order[i];
+                    order[i] = order[j];
+                    order[j] = tmp;
+                }
+            }
+
+            int rank = 1;
+            boolean available = false;
+            for (int slot : order) {
+                // Au moins un créneau reste disponible, sinon le problème n'a pas de solution
+                if (random.nextDouble() < profile.unavailableRatio && (available || slot != order[slots - 1])) {
+                    builder.unavailable(user, slot);
+                    continue;
+                }
+
+                available = true;
+                if (random.nextDouble() < profile.rankedRatio) {
+                    builder.preference(user, slot, rank++);
+                }
+            }
+        }
+
+        problem = builder.build();
+    }
+
+    /**
+     * Affiche la qualité d'une affectation du cas mesuré, calculée une fois en fin d'essai pour ne
+     * pas peser sur la mesure
+     */
+    @TearDown(Level.Trial)
+    public void reportQuality() {
+        AssignmentScore score = AssignmentScore.of(mode.strategy().solve(problem, new SplittableRandom(0)));
+        System.out.printf(
+                "%nQualité (%s, %d étudiants, %d créneaux, %s) : rang moyen %.2f, pire rang %d,"
+                        + " premiers choix %.1f %%, dépassements %d%n",
+                mode,
+                students,
+                slots,
+                profile,
+                (double) score.rankSum() / score.userCount(),
+                score.worstCost(),
+                score.firstChoiceRate(),
+                score.overflow());
+    }
+
+    @Benchmark
+    public AssignmentResult solve() {
+        return mode.strategy().solve(problem, new SplittableRandom(seed++));
+    }
+}
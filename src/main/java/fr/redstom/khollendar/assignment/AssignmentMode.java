@@ -0,0 +1,49 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.assignment;
+
+import lombok.Getter;
+
+/** Énumération des algorithmes d'affectation disponibles */
+@Getter
+public enum AssignmentMode {
+    /** Tours successifs par rang de préférence, égalités départagées par tirage aléatoire */
+    MAX_MIN_FAIRNESS("Max-min fairness (rapide)", new MaxMinFairnessStrategy(), false),
+
+    /** Flot de coût minimal : somme des rangs obtenus minimale */
+    MIN_COST("Coût minimal (optimal)", new MinCostFlowStrategy(), true),
+
+    /** Leximin : pire rang minimal, puis moins d'étudiants à ce rang, et ainsi de suite */
+    LEXIMIN("Leximin (équité maximale)", new LeximinStrategy(), true);
+
+    private final String label;
+    private final AssignmentStrategy strategy;
+
+    /**
+     * Indique si l'algorithme est exact pour son objectif : une recherche locale sur la somme des
+     * rangs ne pourrait que l'égaler, ou dégrader l'équité d'un résultat leximin
+     */
+    private final boolean exact;
+
+    AssignmentMode(String label, AssignmentStrategy strategy, boolean exact) {
+        this.label = label;
+        this.strategy = strategy;
+        this.exact = exact;
+    }
+}
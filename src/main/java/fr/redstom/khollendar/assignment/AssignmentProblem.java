@@ -0,0 +1,240 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.assignment;
+
+import java.util.Arrays;
+
+/**
+ * Problème d'affectation compilé sous forme de tableaux denses. Les étudiants et les créneaux sont
+ * désignés par leur index (de 0 à n-1) : les algorithmes travaillent uniquement sur des primitives
+ * et ne manipulent jamais les entités JPA.
+ */
+public final class AssignmentProblem {
+
+    private final long[] userIds;
+    private final long[] slotIds;
+    private final int[] capacities;
+
+    /** Matrice étudiants × créneaux des rangs de préférence (0 = créneau non classé) */
+    private final int[] ranks;
+
+    /** Pour chaque étudiant, les index des créneaux classés, du premier au dernier choix */
+    private final int[][] choices;
+
+    /** Bitset étudiants × créneaux des indisponibilités */
+    private final long[] unavailable;
+
+    private final int maxChoiceCount;
+    private final int maxRank;
+
+    private AssignmentProblem(
+            long[] userIds, long[] slotIds, int[] capacities, int[] ranks, int[][] choices, long[] unavailable) {
+        this.userIds = userIds;
+        this.slotIds = slotIds;
+        this.capacities = capacities;
+        this.ranks = ranks;
+        this.choices = choices;
+        this.unavailable = unavailable;
+        this.maxChoiceCount = Arrays.stream(choices)
+                .mapToInt(userChoices -> userChoices.length)
+                .max()
+                .orElse(0);
+        this.maxRank = Arrays.stream(ranks).max().orElse(0);
+    }
+
+    /**
+     * Crée un constructeur de problème pour les étudiants et créneaux donnés
+     *
+     * @param userIds Les identifiants des étudiants, dans l'ordre de leurs index
+     * @param slotIds Les identifiants des créneaux, dans l'ordre de leurs index
+     */
+    public static Builder builder(long[] userIds, long[] slotIds) {
+        return new Builder(userIds, slotIds);
+    }
+
+    public int userCount() {
+        return userIds.length;
+    }
+
+    public int slotCount() {
+        return slotIds.length;
+    }
+
+    public long userId(int user) {
+        return userIds[user];
+    }
+
+    public long slotId(int slot) {
+        return slotIds[slot];
+    }
+
+    public int capacity(int slot) {
+        return capacities[slot];
+    }
+
+    /**
+     * Retourne le rang de préférence du créneau pour l'étudiant (1 = premier choix), ou 0 si le
+     * créneau n'a pas été classé
+     */
+    public int rank(int user, int slot) {
+        return ranks[user * slotIds.length + slot];
+    }
+
+    /**
+     * Coût de l'affectation d'un étudiant à un créneau : le rang de préférence obtenu, ou le plus
+     * grand rang du problème plus un si le créneau n'a pas été classé
+     */
+    public int cost(int user, int slot) {
+        int rank = rank(user, slot);
+        return rank > 0 ? rank : maxRank + 1;
+    }
+
+    /** Indique si l'étudiant a marqué le créneau comme indisponible */
+    public boolean isUnavailable(int user, int slot) {
+        int bit = user * slotIds.length + slot;
+        return (unavailable[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    /** Nombre de créneaux classés (hors indisponibilités) par l'étudiant */
+    public int choiceCount(int user) {
+        return choices[user].length;
+    }
+
+    /**
+     * Retourne le créneau correspondant au n-ième choix de l'étudiant
+     *
+     * @param user L'index de l'étudiant
+     * @param n Le numéro du choix, à partir de 0
+     * @return L'index du créneau
+     */
+    public int choice(int user, int n) {
+        return choices[user][n];
+    }
+
+    /** Plus grand nombre de créneaux classés par un même étudiant */
+    public int maxChoiceCount() {
+        return maxChoiceCount;
+    }
+
+    /** Plus grand rang de préférence du problème */
+    public int maxRank() {
+        return maxRank;
+    }
+
+    /**
+     * Recherche un étudiant ayant marqué tous les créneaux comme indisponibles
+     *
+     * @return L'index du premier étudiant impossible à affecter, ou -1 si tous peuvent l'être
+     */
+    public int firstUnassignableUser() {
+        for (int user = 0; user < userIds.length; user++) {
+            boolean assignable = false;
+            for (int slot = 0; slot < slotIds.length && !assignable; slot++) {
+                assignable = !isUnavailable(user, slot);
+            }
+            if (!assignable) {
+                return user;
+            }
+        }
+        return -1;
+    }
+
+    /** Constructeur incrémental d'un {@link AssignmentProblem} */
+    public static final class Builder {
+
+        private final long[] userIds;
+        private final long[] slotIds;
+        private final int[] capacities;
+        private final int[] ranks;
+        private final long[] unavailable;
+
+        private Builder(long[] userIds, long[] slotIds) {
+            this.userIds = userIds.clone();
+            this.slotIds = slotIds.clone();
+            this.capacities = new int[slotIds.length];
+            this.ranks = new int[userIds.length * slotIds.length];
+            this.unavailable = new long[(ranks.length + 63) >>> 6];
+        }
+
+        /** Applique la même capacité à tous les créneaux */
+        public Builder capacity(int capacity) {
+            Arrays.fill(capacities, capacity);
+            return this;
+        }
+
+        /** Définit la capacité d'un créneau */
+        public Builder capacity(int slot, int capacity) {
+            capacities[slot] = capacity;
+            return this;
+        }
+
+        /**
+         * Enregistre une préférence positive
+         *
+         * @param user L'index de l'étudiant
+         * @param slot L'index du créneau
+         * @param rank Le rang de préférence, strictement positif
+         */
+        public Builder preference(int user, int slot, int rank) {
+            if (rank <= 0) {
+                throw new IllegalArgumentException("Le rang de préférence doit être strictement positif : " + rank);
+            }
+            ranks[user * slotIds.length + slot] = rank;
+            return this;
+        }
+
+        /** Marque un créneau comme indisponible pour un étudiant */
+        public Builder unavailable(int user, int slot) {
+            int bit = user * slotIds.length + slot;
+            unavailable[bit >>> 6] |= 1L << bit;
+            return this;
+        }
+
+        public AssignmentProblem build() {
+            int slotCount = slotIds.length;
+            int[][] choices = new int[userIds.length][];
+            long[] keys = new long[slotCount];
+
+            for (int user = 0; user < userIds.length; user++) {
+                int count = 0;
+                for (int slot = 0; slot < slotCount; slot++) {
+                    int bit = user * slotCount + slot;
+                    boolean isUnavailable = (unavailable[bit >>> 6] & (1L << bit)) != 0;
+
+                    if (isUnavailable) {
+                        // Une indisponibilité l'emporte toujours sur un éventuel classement
+                        ranks[bit] = 0;
+                    } else if (ranks[bit] > 0) {
+                        keys[count++] = ((long) ranks[bit] << 32) | slot;
+                    }
+                }
+
+                Arrays.sort(keys, 0, count);
+                int[] userChoices = new int[count];
+                for (int i = 0; i < count; i++) {
+                    userChoices[i] = (int) keys[i];
+                }
+                choices[user] = userChoices;
+            }
+
+            return new AssignmentProblem(
+                    userIds, slotIds, capacities.clone(), ranks.clone(), choices, unavailable.clone());
+        }
+    }
+}
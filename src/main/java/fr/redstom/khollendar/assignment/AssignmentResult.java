@@ -0,0 +1,83 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.assignment;
+
+/**
+ * Résultat d'une résolution : pour chaque étudiant (par index), l'index du créneau qui lui a été
+ * attribué.
+ */
+public final class AssignmentResult {
+
+    private final AssignmentProblem problem;
+    private final int[] slotByUser;
+    private final int[] rankHistogram;
+
+    AssignmentResult(AssignmentProblem problem, int[] slotByUser) {
+        this.problem = problem;
+        this.slotByUser = slotByUser;
+
+        this.rankHistogram = new int[problem.maxRank() + 1];
+        for (int user = 0; user < slotByUser.length; user++) {
+            rankHistogram[problem.rank(user, slotByUser[user])]++;
+        }
+    }
+
+    public AssignmentProblem problem() {
+        return problem;
+    }
+
+    /** Retourne l'index du créneau attribué à l'étudiant */
+    public int slotOf(int user) {
+        return slotByUser[user];
+    }
+
+    /**
+     * Retourne le rang de préférence obtenu par l'étudiant
+     *
+     * @return Le rang obtenu (1 = premier choix), ou 0 si le créneau attribué n'était pas classé
+     */
+    public int obtainedRank(int user) {
+        return problem.rank(user, slotByUser[user]);
+    }
+
+    /**
+     * Histogramme des rangs obtenus : l'index 0 compte les étudiants placés sur un créneau non
+     * classé, l'index r ceux qui ont obtenu leur r-ième choix
+     */
+    public int[] rankHistogram() {
+        return rankHistogram.clone();
+    }
+
+    /**
+     * Retourne le pire rang obtenu
+     *
+     * @return Le plus grand rang obtenu, ou 0 si au moins un étudiant est sur un créneau non classé
+     */
+    public int worstRank() {
+        if (rankHistogram[0] > 0) {
+            return 0;
+        }
+        for (int rank = rankHistogram.length - 1; rank > 0; rank--) {
+            if (rankHistogram[rank] > 0) {
+                return rank;
+            }
+        }
+        return 0;
+    }
+}
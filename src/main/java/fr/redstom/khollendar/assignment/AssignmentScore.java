@@ -0,0 +1,79 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.assignment;
+
+import java.util.Comparator;
+
+/**
+ * Score d'une affectation, pour comparer plusieurs tentatives. Un score plus petit est meilleur :
+ * moins de dépassements de capacité, puis une somme des rangs plus faible, puis un pire rang plus
+ * faible, puis davantage de premiers choix.
+ *
+ * @param overflow Nombre d'étudiants placés au-delà de la capacité des créneaux
+ * @param rankSum Somme des coûts obtenus (un créneau non classé coûte le pire rang plus un)
+ * @param worstCost Pire coût obtenu
+ * @param firstChoiceCount Nombre d'étudiants ayant obtenu leur premier choix
+ * @param userCount Nombre d'étudiants affectés
+ */
+public record AssignmentScore(int overflow, long rankSum, int worstCost, int firstChoiceCount, int userCount)
+        implements Comparable<AssignmentScore> {
+
+    private static final Comparator<AssignmentScore> ORDER = Comparator.comparingInt(AssignmentScore::overflow)
+            .thenComparingLong(AssignmentScore::rankSum)
+            .thenComparingInt(AssignmentScore::worstCost)
+            .thenComparing(AssignmentScore::firstChoiceCount, Comparator.reverseOrder());
+
+    /** Calcule le score d'une affectation */
+    public static AssignmentScore of(AssignmentResult result) {
+        AssignmentProblem problem = result.problem();
+        int[] load = new int[problem.slotCount()];
+        long rankSum = 0;
+        int worstCost = 0;
+        int firstChoiceCount = 0;
+
+        for (int user = 0; user < problem.userCount(); user++) {
+            int slot = result.slotOf(user);
+            int cost = problem.cost(user, slot);
+
+            load[slot]++;
+            rankSum += cost;
+            worstCost = Math.max(worstCost, cost);
+            if (problem.rank(user, slot) == 1) {
+                firstChoiceCount++;
+            }
+        }
+
+        int overflow = 0;
+        for (int slot = 0; slot < load.length; slot++) {
+            overflow += Math.max(0, load[slot] - problem.capacity(slot));
+        }
+
+        return new AssignmentScore(overflow, rankSum, worstCost, firstChoiceCount, problem.userCount());
+    }
+
+    /** Taux de premiers choix, en pourcentage */
+    public double firstChoiceRate() {
+        return userCount > 0 ? (double) firstChoiceCount / userCount * 100 : 0;
+    }
+
+    @Override
+    public int compareTo(AssignmentScore other) {
+        return ORDER.compare(this, other);
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.assignment;
+
+import java.time.Duration;
+import java.util.SplittableRandom;
+
+/**
+ * Point d'entrée du moteur d'affectation, indépendant de toute persistance : un {@link
+ * AssignmentProblem} immuable en entrée, un {@link AssignmentResult} immuable en sortie. Le solveur
+ * ne garde aucun état entre deux appels et peut être utilisé depuis plusieurs threads.
+ */
+public final class AssignmentSolver {
+
+    private final int attempts;
+    private final Duration localSearchBudget;
+
+    /**
+     * @param attempts Le nombre de tentatives indépendantes, dont seule la meilleure est gardée
+     * @param localSearchBudget Le budget de recherche locale après un algorithme non exact, ou
+     *     {@link Duration#ZERO} pour s'en passer
+     * @throws IllegalArgumentException Si le nombre de tentatives n'est pas strictement positif
+     */
+    public AssignmentSolver(int attempts, Duration localSearchBudget) {
+        if (attempts < 1) {
+            throw new IllegalArgumentException("Le nombre de tentatives doit être strictement positif : " + attempts);
+        }
+        this.attempts = attempts;
+        this.localSearchBudget = localSearchBudget;
+    }
+
+    /**
+     * Calcule une affectation
+     *
+     * @param problem Le problème à résoudre
+     * @param mode L'algorithme d'affectation
+     * @param seed La graine, qui détermine le résultat hors épuisement du budget de recherche locale
+     * @return L'affectation retenue
+     * @throws IllegalStateException Si un étudiant est indisponible sur tous les créneaux
+     */
+    public AssignmentResult solve(AssignmentProblem problem, AssignmentMode mode, long seed) {
+        // Algorithme éventuellement amélioré par recherche locale, puis répété sur plusieurs graines
+        AssignmentStrategy strategy = mode.strategy();
+        if (!localSearchBudget.isZero() && !mode.exact()) {
+            strategy = new LocalSearchStrategy(strategy, localSearchBudget);
+        }
+        if (attempts > 1) {
+            strategy = new MultiStartSearch(strategy, attempts);
+        }
+
+        return strategy.solve(problem, new SplittableRandom(seed));
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.assignment;
+
+import java.util.random.RandomGenerator;
+
+/** Stratégie de résolution d'un {@link AssignmentProblem} */
+public interface AssignmentStrategy {
+
+    /**
+     * Affecte chaque étudiant du problème à un créneau. Une stratégie ne doit JAMAIS affecter un
+     * étudiant à un créneau marqué comme indisponible.
+     *
+     * @param problem Le problème compilé
+     * @param random Le générateur utilisé pour départager les égalités
+     * @return L'affectation obtenue
+     * @throws IllegalStateException Si un étudiant est indisponible sur tous les créneaux
+     */
+    AssignmentResult solve(AssignmentProblem problem, RandomGenerator random);
+}
@@ -0,0 +1,89 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.assignment;
+
+/**
+ * Politique de calcul des capacités des créneaux. Les créneaux dont la capacité est fixée la
+ * conservent ; les étudiants restants sont répartis entre les autres créneaux, dits automatiques.
+ */
+public enum CapacityPolicy {
+    /** Même capacité pour tous les créneaux automatiques : la moyenne arrondie au supérieur */
+    CEILING {
+        @Override
+        int share(int students, int slots, int position) {
+            return (students + slots - 1) / slots;
+        }
+    },
+
+    /**
+     * Répartition exacte : les capacités automatiques diffèrent d'au plus un et leur somme vaut
+     * exactement le nombre d'étudiants restants, les premiers créneaux recevant le reste
+     */
+    BALANCED {
+        @Override
+        int share(int students, int slots, int position) {
+            return students / slots + (position < students % slots ? 1 : 0);
+        }
+    };
+
+    /** Valeur indiquant qu'un créneau n'a pas de capacité fixée */
+    public static final int AUTOMATIC = -1;
+
+    /**
+     * Capacité du créneau automatique à la position donnée
+     *
+     * @param students Le nombre d'étudiants à répartir entre les créneaux automatiques
+     * @param slots Le nombre de créneaux automatiques, strictement positif
+     * @param position La position du créneau parmi les créneaux automatiques
+     */
+    abstract int share(int students, int slots, int position);
+
+    /**
+     * Calcule la capacité de chaque créneau
+     *
+     * @param students Le nombre total d'étudiants
+     * @param overrides Pour chaque créneau, sa capacité fixée, ou {@link #AUTOMATIC}
+     * @return Les capacités, indexées comme les créneaux
+     * @throws IllegalArgumentException Si une capacité fixée est négative
+     */
+    public int[] capacities(int students, int[] overrides) {
+        int[] capacities = new int[overrides.length];
+        int remaining = students;
+        int automatic = 0;
+
+        for (int override : overrides) {
+            if (override == AUTOMATIC) {
+                automatic++;
+            } else if (override < 0) {
+                throw new IllegalArgumentException("La capacité d'un créneau doit être positive : " + override);
+            } else {
+                remaining -= override;
+            }
+        }
+        remaining = Math.max(0, remaining);
+
+        int position = 0;
+        for (int slot = 0; slot < overrides.length; slot++) {
+            capacities[slot] =
+                    overrides[slot] == AUTOMATIC ? share(remaining, automatic, position++) : overrides[slot];
+        }
+
+        return capacities;
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.assignment;
+
+import java.util.Arrays;
+
+/**
+ * Réparation incrémentale d'une affectation existante : seuls les étudiants à replacer (nouveaux,
+ * ou dont les préférences ont changé) sont insérés, les autres gardent leur créneau sauf s'ils
+ * font partie d'une chaîne de déplacements ouverte pour faire de la place.
+ *
+ * <p>Chaque insertion cherche, couche par couche, la chaîne la moins coûteuse d'au plus {@code
+ * maxChainLength} déplacements : l'étudiant entre dans un créneau, un membre de ce créneau part
+ * vers un autre, et ainsi de suite jusqu'à un créneau qui a encore de la place. À coût égal, la
+ * chaîne la plus courte l'emporte. Si aucune chaîne ne suffit, l'étudiant est placé en dépassement
+ * sur le créneau disponible le moins surchargé.
+ */
+public final class IncrementalRepair {
+
+    private static final long UNREACHED = Long.MAX_VALUE;
+
+    private final int maxChainLength;
+
+    /**
+     * @param maxChainLength Le nombre maximal d'étudiants déjà placés déplacés par insertion
+     * @throws IllegalArgumentException Si la longueur de chaîne est négative
+     */
+    public IncrementalRepair(int maxChainLength) {
+        if (maxChainLength < 0) {
+            throw new IllegalArgumentException("La longueur de chaîne doit être positive : " + maxChainLength);
+        }
+        this.maxChainLength = maxChainLength;
+    }
+
+    /**
+     * Replace les étudiants sans créneau dans l'affectation existante
+     *
+     * @param problem Le problème, avec les préférences à jour
+     * @param current Pour chaque étudiant, l'index de son créneau actuel, ou -1 s'il est à replacer
+     * @return L'affectation réparée
+     * @throws IllegalStateException Si un étudiant à replacer est indisponible sur tous les créneaux
+     */
+    public AssignmentResult repair(AssignmentProblem problem, int[] current) {
+        return new Repair(problem, current, maxChainLength).run();
+    }
+
+    /** État mutable d'une réparation, propre à un appel */
+    private static final class Repair {
+
+        private final AssignmentProblem problem;
+        private final int slotCount;
+        private final int layers;
+
+        private final int[] slotByUser;
+        private final int[][] members;
+        private final int[] load;
+        private final int[] position;
+
+        /** Coût de la meilleure chaîne de l déplacements entrant dans le créneau, à l'index l * m + s */
+        private final long[] distance;
+
+        private final int[] previousSlot;
+        private final int[] mover;
+
+        Repair(AssignmentProblem problem, int[] current, int maxChainLength) {
+            this.problem = problem;
+            this.slotCount = problem.slotCount();
+            this.layers = maxChainLength + 1;
+
+            int userCount = problem.userCount();
+            this.slotByUser = current.clone();
+            this.load = new int[slotCount];
+            this.position = new int[userCount];
+            this.members = new int[slotCount][];
+            for (int slot = 0; slot < slotCount; slot++) {
+                members[slot] = new int[Math.max(4, problem.capacity(slot) + 1)];
+            }
+            for (int user = 0; user < userCount; user++) {
+                if (slotByUser[user] >= 0) {
+                    add(user, slotByUser[user]);
+                }
+            }
+
+            this.distance = new long[layers * slotCount];
+            this.previousSlot = new int[layers * slotCount];
+            this.mover = new int[layers * slotCount];
+        }
+
+        AssignmentResult run() {
+            for (int user = 0; user < slotByUser.length; user++) {
+                if (slotByUser[user] < 0) {
+                    insert(user);
+                }
+            }
+            return new AssignmentResult(problem, slotByUser.clone());
+        }
+
+        private void insert(int user) {
+            Arrays.fill(distance, UNREACHED);
+
+            // Couche 0 : l'étudiant entre directement dans un de ses créneaux disponibles
+            boolean any = false;
+            for (int slot = 0; slot < slotCount; slot++) {
+                if (!problem.isUnavailable(user, slot)) {
+                    distance[slot] = problem.cost(user, slot);
+                    previousSlot[slot] = -1;
+                    any = true;
+                }
+            }
+            if (!any) {
+                throw new IllegalStateException("Impossible de trouver un créneau disponible pour l'utilisateur "
+                        + problem.userId(user)
+                        + ". Tous les créneaux sont marqués comme indisponibles.");
+            }
+
+            long best = UNREACHED;
+            int bestLayer = -1;
+            int bestSlot = -1;
+
+            for (int layer = 0; layer < layers; layer++) {
+                int row = layer * slotCount;
+
+                // Une chaîne se termine sur un créneau qui a encore de la place
+                for (int slot = 0; slot < slotCount; slot++) {
+                    if (distance[row + slot] < best && load[slot] < problem.capacity(slot)) {
+                        best = distance[row + slot];
+                        bestLayer = layer;
+                        bestSlot = slot;
+                    }
+                }
+                if (layer + 1 == layers) {
+                    break;
+                }
+
+                // Sinon, un membre du créneau plein part vers un créneau absent de la chaîne
+                int next = row + slotCount;
+                for (int from = 0; from < slotCount; from++) {
+                    if (distance[row + from] == UNREACHED || load[from] < problem.capacity(from)) {
+                        continue;
+                    }
+
+                    for (int i = 0; i < load[from]; i++) {
+                        int member = members[from][i];
+                        long leave = distance[row + from] - problem.cost(member, from);
+
+                        for (int target = 0; target < slotCount; target++) {
+                            if (target == from || problem.isUnavailable(member, target)) {
+                                continue;
+                            }
+
+                            long candidate = leave + problem.cost(member, target);
+                            if (candidate < distance[next + target] && !inChain(layer, from, target)) {
+                                distance[next + target] = candidate;
+                                previousSlot[next + target] = from;
+                                mover[next + target] = member;
+                            }
+                        }
+                    }
+                }
+            }
+
+            if (bestSlot < 0) {
+                add(user, leastOverloadedSlot(user));
+                return;
+            }
+
+            // Application de la chaîne, du créneau libre vers le nouvel étudiant
+            int slot = bestSlot;
+            for (int layer = bestLayer; layer > 0; layer--) {
+                int index = layer * slotCount + slot;
+                int moved = mover[index];
+                remove(moved);
+                add(moved, slot);
+                slot = previousSlot[index];
+            }
+            add(user, slot);
+        }
+
+        /** Indique si le créneau figure déjà dans la chaîne qui mène au créneau donné */
+        private boolean inChain(int layer, int slot, int candidate) {
+            for (int l = layer; l >= 0 && slot >= 0; l--) {
+                if (slot == candidate) {
+                    return true;
+                }
+                slot = previousSlot[l * slotCount + slot];
+            }
+            return false;
+        }
+
+        /** Créneau disponible le moins surchargé, puis de moindre coût, pour un placement forcé */
+        private int leastOverloadedSlot(int user) {
+            int best = -1;
+            for (int slot = 0; slot < slotCount; slot++) {
+                if (problem.isUnavailable(user, slot)) {
+                    continue;
+                }
+
+                if (best < 0) {
+                    best = slot;
+                    continue;
+                }
+
+                int overload = load[slot] - problem.capacity(slot);
+                int bestOverload = load[best] - problem.capacity(best);
+                if (overload < bestOverload
+                        || (overload == bestOverload && problem.cost(user, slot) < problem.cost(user, best))) {
+                    best = slot;
+                }
+            }
+            return best;
+        }
+
+        private void add(int user, int slot) {
+            if (load[slot] == members[slot].length) {
+                members[slot] = Arrays.copyOf(members[slot], members[slot].length * 2);
+            }
+            members[slot][load[slot]] = user;
+            position[user] = load[slot]++;
+            slotByUser[user] = slot;
+        }
+
+        private void remove(int user) {
+            int slot = slotByUser[user];
+            int last = members[slot][--load[slot]];
+            members[slot][position[user]] = last;
+            position[last] = position[user];
+            slotByUser[user] = -1;
+        }
+    }
+}
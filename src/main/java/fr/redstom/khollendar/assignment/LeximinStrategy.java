@@ -0,0 +1,236 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.assignment;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Affectation leximin : minimise le pire rang obtenu, puis le nombre d'étudiants à ce rang, puis
+ * le nombre d'étudiants au rang précédent, et ainsi de suite jusqu'aux premiers choix. Un créneau
+ * non classé compte comme le pire rang possible.
+ *
+ * <p>La résolution se fait en deux phases. La première cherche le plus petit rang k* pour lequel
+ * tous les étudiants peuvent être placés en n'utilisant que des créneaux de rang ≤ k* : les niveaux
+ * sont ouverts un à un et le couplage du niveau précédent est conservé, seuls les étudiants encore
+ * non placés cherchent un chemin augmentant. La seconde phase résout le problème de transport avec
+ * un coût vectoriel comptant les étudiants à chaque rang ≤ k*, du pire au meilleur, ce qui donne
+ * exactement l'ordre leximin.
+ */
+public final class LeximinStrategy implements AssignmentStrategy {
+
+    @Override
+    public AssignmentResult solve(AssignmentProblem problem, RandomGenerator random) {
+        int[] order = MinCostFlowStrategy.shuffledUsers(problem, random);
+        int bottleneck = new BottleneckSearch(problem).minimalWorstCost(order);
+
+        // Plusieurs rangs partagent une composante, comme chiffres en base n + 1 : le nombre
+        // d'étudiants à un rang ne dépasse jamais n, l'ordre lexicographique est donc préservé
+        int ranksPerComponent = ranksPerComponent(problem);
+        long[] digitWeights = new long[ranksPerComponent];
+        digitWeights[ranksPerComponent - 1] = 1;
+        for (int digit = ranksPerComponent - 2; digit >= 0; digit--) {
+            digitWeights[digit] = digitWeights[digit + 1] * (problem.userCount() + 1L);
+        }
+        int components = (bottleneck + ranksPerComponent - 1) / ranksPerComponent;
+
+        TransportationSolver solver = new TransportationSolver(problem, new TransportationSolver.CostModel() {
+            @Override
+            public int dimensions() {
+                return components + 1;
+            }
+
+            @Override
+            public int component(int user, int slot) {
+                int cost = problem.cost(user, slot);
+                // Au-delà de k*, l'affectation compte comme un dépassement de capacité : aucune
+                // solution optimale ne l'emprunte lorsque k* est atteignable
+                return cost <= bottleneck ? 1 + (bottleneck - cost) / ranksPerComponent : 0;
+            }
+
+            @Override
+            public long weight(int user, int slot) {
+                int cost = problem.cost(user, slot);
+                return cost <= bottleneck ? digitWeights[(bottleneck - cost) % ranksPerComponent] : 1;
+            }
+        });
+
+        return new AssignmentResult(problem, solver.solve(order));
+    }
+
+    /**
+     * Nombre de rangs regroupés dans une même composante de coût. Les distances et potentiels
+     * manipulés par le solveur restent bornés par (n + m) chemins d'au plus m + 2 arcs, ce qui
+     * fixe la marge à garder sur un long.
+     */
+    private static int ranksPerComponent(AssignmentProblem problem) {
+        long base = problem.userCount() + 1L;
+        long margin = (problem.userCount() + problem.slotCount() + 1L) * (2L * problem.slotCount() + 4);
+        long bound = (Long.MAX_VALUE >> 1) / margin;
+
+        int digits = 1;
+        for (long scale = base; scale <= bound / base; scale *= base) {
+            digits++;
+        }
+        return digits;
+    }
+
+    /**
+     * Recherche incrémentale du rang goulot : couplage de capacité maximale sur les arcs de coût ≤ k,
+     * augmenté niveau par niveau sans jamais repartir de zéro.
+     */
+    private static final class BottleneckSearch {
+
+        private final AssignmentProblem problem;
+        private final int slotCount;
+
+        private final int[] slotByUser;
+        private final int[][] members;
+        private final int[] load;
+        private final int[] position;
+
+        // Tampons du parcours en largeur sur les créneaux
+        private final int[] queue;
+        private final int[] visit;
+        private final int[] via;
+        private final int[] from;
+        private int stamp = 1;
+
+        BottleneckSearch(AssignmentProblem problem) {
+            this.problem = problem;
+            this.slotCount = problem.slotCount();
+
+            this.slotByUser = new int[problem.userCount()];
+            Arrays.fill(slotByUser, -1);
+
+            this.members = new int[slotCount][];
+            for (int slot = 0; slot < slotCount; slot++) {
+                members[slot] = new int[Math.max(1, problem.capacity(slot))];
+            }
+            this.load = new int[slotCount];
+            this.position = new int[problem.userCount()];
+
+            this.queue = new int[slotCount];
+            this.visit = new int[slotCount];
+            this.via = new int[slotCount];
+            this.from = new int[slotCount];
+        }
+
+        /**
+         * Retourne le plus petit coût k tel que tous les étudiants tiennent dans les capacités en
+         * n'utilisant que des créneaux de coût ≤ k, ou le coût maximal si les indisponibilités
+         * imposent un dépassement de capacité.
+         */
+        int minimalWorstCost(int[] order) {
+            int maxCost = problem.maxRank() + 1;
+            int[] pending = order.clone();
+            int pendingCount = pending.length;
+
+            for (int level = 1; level <= maxCost; level++) {
+                // Les arcs du nouveau niveau invalident les échecs mémorisés
+                stamp++;
+
+                int remaining = 0;
+                for (int i = 0; i < pendingCount; i++) {
+                    if (!augment(pending[i], level)) {
+                        pending[remaining++] = pending[i];
+                    }
+                }
+                pendingCount = remaining;
+
+                if (pendingCount == 0) {
+                    return level;
+                }
+            }
+            return maxCost;
+        }
+
+        /**
+         * Cherche un chemin augmentant pour placer l'étudiant. Les créneaux visités lors d'un échec
+         * restent marqués tant que le couplage ne change pas : aucun chemin n'en part.
+         */
+        private boolean augment(int user, int level) {
+            int head = 0;
+            int tail = 0;
+
+            for (int slot = 0; slot < slotCount; slot++) {
+                if (visit[slot] != stamp && allowed(user, slot, level)) {
+                    visit[slot] = stamp;
+                    via[slot] = user;
+                    from[slot] = -1;
+                    queue[tail++] = slot;
+                }
+            }
+
+            while (head < tail) {
+                int slot = queue[head++];
+                if (load[slot] < problem.capacity(slot)) {
+                    apply(slot);
+                    stamp++;
+                    return true;
+                }
+
+                for (int i = 0; i < load[slot]; i++) {
+                    int member = members[slot][i];
+                    for (int target = 0; target < slotCount; target++) {
+                        if (visit[target] != stamp && allowed(member, target, level)) {
+                            visit[target] = stamp;
+                            via[target] = member;
+                            from[target] = slot;
+                            queue[tail++] = target;
+                        }
+                    }
+                }
+            }
+            return false;
+        }
+
+        /** Applique le chemin augmentant qui se termine sur le créneau libre */
+        private void apply(int slot) {
+            while (from[slot] >= 0) {
+                int mover = via[slot];
+                remove(mover);
+                add(mover, slot);
+                slot = from[slot];
+            }
+            add(via[slot], slot);
+        }
+
+        private boolean allowed(int user, int slot, int level) {
+            return !problem.isUnavailable(user, slot) && problem.cost(user, slot) <= level;
+        }
+
+        private void add(int user, int slot) {
+            if (load[slot] == members[slot].length) {
+                members[slot] = Arrays.copyOf(members[slot], members[slot].length * 2);
+            }
+            members[slot][load[slot]] = user;
+            position[user] = load[slot]++;
+            slotByUser[user] = slot;
+        }
+
+        private void remove(int user) {
+            int slot = slotByUser[user];
+            int last = members[slot][--load[slot]];
+            members[slot][position[user]] = last;
+            position[last] = position[user];
+            slotByUser[user] = -1;
+        }
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.assignment;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Amélioration par recherche locale d'une affectation calculée par une autre stratégie. Trois
+ * mouvements sont essayés pour chaque étudiant : le déplacement vers un créneau non plein,
+ * l'échange avec un étudiant d'un autre créneau et la rotation à trois entre créneaux. Un mouvement
+ * n'est appliqué que s'il diminue strictement la somme des rangs, sans indisponibilité, sans remplir
+ * un créneau au-delà de sa capacité et sans donner à personne un rang pire que le pire rang initial.
+ *
+ * <p>Un index créneau → étudiants et la table des rangs du problème permettent d'évaluer chaque
+ * mouvement en temps constant. La recherche s'arrête sur un optimum local ou à l'épuisement du
+ * budget de temps ; dans ce dernier cas seulement, le résultat dépend de la vitesse d'exécution.
+ */
+public final class LocalSearchStrategy implements AssignmentStrategy {
+
+    private final AssignmentStrategy strategy;
+    private final long budgetNanos;
+
+    /**
+     * @param strategy La stratégie qui calcule l'affectation initiale
+     * @param budget Le temps maximal consacré à l'amélioration
+     */
+    public LocalSearchStrategy(AssignmentStrategy strategy, Duration budget) {
+        this.strategy = strategy;
+        this.budgetNanos = budget.toNanos();
+    }
+
+    @Override
+    public AssignmentResult solve(AssignmentProblem problem, RandomGenerator random) {
+        AssignmentResult initial = strategy.solve(problem, random);
+        long deadline = System.nanoTime() + budgetNanos;
+
+        return new Improver(initial).run(deadline);
+    }
+
+    /** État mutable d'une amélioration, propre à un appel */
+    private static final class Improver {
+
+        private final AssignmentProblem problem;
+        private final int slotCount;
+
+        private final int[] slotByUser;
+        private final int[][] members;
+        private final int[] load;
+        private final int[] position;
+
+        /** Aucun mouvement ne donne à un étudiant un coût supérieur à ce plafond */
+        private final int worstCost;
+
+        Improver(AssignmentResult initial) {
+            this.problem = initial.problem();
+            this.slotCount = problem.slotCount();
+
+            int userCount = problem.userCount();
+            this.slotByUser = new int[userCount];
+            this.load = new int[slotCount];
+            this.position = new int[userCount];
+
+            int worst = 0;
+            for (int user = 0; user < userCount; user++) {
+                slotByUser[user] = initial.slotOf(user);
+                load[slotByUser[user]]++;
+                worst = Math.max(worst, problem.cost(user, slotByUser[user]));
+            }
+            this.worstCost = worst;
+
+            this.members = new int[slotCount][];
+            for (int slot = 0; slot < slotCount; slot++) {
+                members[slot] = new int[load[slot]];
+                load[slot] = 0;
+            }
+            for (int user = 0; user < userCount; user++) {
+                int slot = slotByUser[user];
+                members[slot][load[slot]] = user;
+                position[user] = load[slot]++;
+            }
+        }
+
+        AssignmentResult run(long deadline) {
+            boolean improved = true;
+            while (improved) {
+                improved = false;
+                for (int user = 0; user < slotByUser.length; user++) {
+                    if (System.nanoTime() - deadline >= 0) {
+                        return result();
+                    }
+                    if (relocate(user) || swap(user) || rotate(user)) {
+                        improved = true;
+                    }
+                }
+            }
+            return result();
+        }
+
+        private AssignmentResult result() {
+            return new AssignmentResult(problem, slotByUser.clone());
+        }
+
+        /** Déplace l'étudiant vers son meilleur choix qui a encore de la place */
+        private boolean relocate(int user) {
+            int current = problem.cost(user, slotByUser[user]);
+            for (int n = 0; n < problem.choiceCount(user); n++) {
+                int target = problem.choice(user, n);
+                if (problem.cost(user, target) >= current) {
+                    return false;
+                }
+                if (load[target] < problem.capacity(target)) {
+                    move(user, target);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /** Échange l'étudiant avec un membre d'un créneau qu'il préfère */
+        private boolean swap(int user) {
+            int from = slotByUser[user];
+            int current = problem.cost(user, from);
+
+            for (int n = 0; n < problem.choiceCount(user); n++) {
+                int target = problem.choice(user, n);
+                int gain = current - problem.cost(user, target);
+                if (gain <= 0) {
+                    return false;
+                }
+
+                for (int i = 0; i < load[target]; i++) {
+                    int other = members[target][i];
+                    if (acceptable(other, from) && problem.cost(other, from) - problem.cost(other, target) < gain) {
+                        move(other, from);
+                        move(user, target);
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Rotation à trois : l'étudiant part vers un créneau qu'il préfère, un membre de ce créneau
+         * part vers un troisième créneau, dont un membre prend la place libérée. Tout cycle
+         * améliorant admet une rotation dont chaque somme partielle est un gain : les branches
+         * sans gain partiel sont élaguées.
+         */
+        private boolean rotate(int user) {
+            int from = slotByUser[user];
+            int current = problem.cost(user, from);
+
+            for (int n = 0; n < problem.choiceCount(user); n++) {
+                int middle = problem.choice(user, n);
+                int gain = current - problem.cost(user, middle);
+                if (gain <= 0) {
+                    return false;
+                }
+
+                for (int i = 0; i < load[middle]; i++) {
+                    int second = members[middle][i];
+                    int secondCost = problem.cost(second, middle);
+
+                    for (int last = 0; last < slotCount; last++) {
+                        if (last == from || last == middle || !acceptable(second, last)) {
+                            continue;
+                        }
+                        int partial = gain - (problem.cost(second, last) - secondCost);
+                        if (partial <= 0) {
+                            continue;
+                        }
+
+                        for (int j = 0; j < load[last]; j++) {
+                            int third = members[last][j];
+                            if (acceptable(third, from)
+                                    && problem.cost(third, from) - problem.cost(third, last) < partial) {
+                                move(third, from);
+                                move(second, last);
+                                move(user, middle);
+                                return true;
+                            }
+                        }
+                    }
+                }
+            }
+            return false;
+        }
+
+        private boolean acceptable(int user, int slot) {
+            return !problem.isUnavailable(user, slot) && problem.cost(user, slot) <= worstCost;
+        }
+
+        private void move(int user, int target) {
+            int from = slotByUser[user];
+            int last = members[from][--load[from]];
+            members[from][position[user]] = last;
+            position[last] = position[user];
+
+            if (load[target] == members[target].length) {
+                members[target] = Arrays.copyOf(members[target], Math.max(4, members[target].length * 2));
+            }
+            members[target][load[target]] = user;
+            position[user] = load[target]++;
+            slotByUser[user] = target;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.assignment;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Algorithme d'affectation basé sur max-min fairness. À chaque tour, on affecte les étudiants selon
+ * leur meilleur choix disponible, en respectant les contraintes de capacité ; les égalités sont
+ * départagées par tirage aléatoire. IMPORTANT: Ne doit JAMAIS affecter un étudiant à un créneau
+ * marqué comme indisponible.
+ *
+ * <p>Les tours travaillent uniquement sur des tableaux de primitives : pour une même graine, le
+ * résultat est entièrement déterminé par le problème.
+ */
+public final class MaxMinFairnessStrategy implements AssignmentStrategy {
+
+    @Override
+    public AssignmentResult solve(AssignmentProblem problem, RandomGenerator random) {
+        int userCount = problem.userCount();
+        int slotCount = problem.slotCount();
+
+        int[] slotByUser = new int[userCount];
+        Arrays.fill(slotByUser, -1);
+
+        int[] remaining = new int[slotCount];
+        for (int slot = 0; slot < slotCount; slot++) {
+            remaining[slot] = problem.capacity(slot);
+        }
+
+        int[] pending = new int[userCount];
+        for (int user = 0; user < userCount; user++) {
+            pending[user] = user;
+        }
+        int pendingCount = userCount;
+
+        // Tampons réutilisés d'un tour à l'autre (tri par dénombrement des candidats par créneau)
+        int[] desired = new int[userCount];
+        int[] bucketStart = new int[slotCount + 1];
+        int[] cursor = new int[slotCount];
+        int[] bucket = new int[userCount];
+
+        // Affectation par rang de préférence croissant (max-min fairness)
+        for (int round = 0; pendingCount > 0 && round < problem.maxChoiceCount(); round++) {
+            Arrays.fill(bucketStart, 0);
+
+            // Collecte des étudiants voulant leur n-ième choix, si le créneau a encore de la capacité
+            for (int i = 0; i < pendingCount; i++) {
+                int user = pending[i];
+                int slot = round < problem.choiceCount(user) ? problem.choice(user, round) : -1;
+                if (slot >= 0 && remaining[slot] <= 0) {
+                    slot = -1;
+                }
+
+                desired[i] = slot;
+                if (slot >= 0) {
+                    bucketStart[slot + 1]++;
+                }
+            }
+
+            for (int slot = 0; slot < slotCount; slot++) {
+                bucketStart[slot + 1] += bucketStart[slot];
+            }
+            System.arraycopy(bucketStart, 0, cursor, 0, slotCount);
+
+            for (int i = 0; i < pendingCount; i++) {
+                if (desired[i] >= 0) {
+                    bucket[cursor[desired[i]]++] = pending[i];
+                }
+            }
+
+            // Affectation des étudiants pour ce rang
+            for (int slot = 0; slot < slotCount; slot++) {
+                int from = bucketStart[slot];
+                int count = bucketStart[slot + 1] - from;
+                if (count == 0) {
+                    continue;
+                }
+
+                int taken = Math.min(count, remaining[slot]);
+                if (taken < count) {
+                    // Tirage aléatoire pour départager
+                    for (int i = 0; i < taken; i++) {
+                        swap(bucket, from + i, from + i + random.nextInt(count - i));
+                    }
+                }
+
+                for (int i = 0; i < taken; i++) {
+                    slotByUser[bucket[from + i]] = slot;
+                }
+                remaining[slot] -= taken;
+            }
+
+            int kept = 0;
+            for (int i = 0; i < pendingCount; i++) {
+                if (slotByUser[pending[i]] < 0) {
+                    pending[kept++] = pending[i];
+                }
+            }
+            pendingCount = kept;
+        }
+
+        // Affectation aléatoire des étudiants restants (sans préférences satisfaites)
+        // IMPORTANT: On doit respecter les indisponibilités même ici
+        for (int i = pendingCount - 1; i > 0; i--) {
+            swap(pending, i, random.nextInt(i + 1));
+        }
+
+        // Le créneau retenu est celui qui a le plus de capacité restante, ou à défaut le moins rempli
+        // parmi les créneaux disponibles : un tas indexé évite de tous les parcourir pour chacun
+        SlotHeap heap = new SlotHeap(problem, remaining);
+        for (int i = 0; i < pendingCount; i++) {
+            int user = pending[i];
+            int slot = heap.bestAvailable(user);
+            if (slot < 0) {
+                throw new IllegalStateException("Impossible de trouver un créneau disponible pour l'utilisateur "
+                        + problem.userId(user)
+                        + ". Tous les créneaux sont marqués comme indisponibles.");
+            }
+
+            slotByUser[user] = slot;
+            heap.take(slot);
+        }
+
+        return new AssignmentResult(problem, slotByUser);
+    }
+
+    private static void swap(int[] array, int i, int j) {
+        int tmp = array[i];
+        array[i] = array[j];
+        array[j] = tmp;
+    }
+}
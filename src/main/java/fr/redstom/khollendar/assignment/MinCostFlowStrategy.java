@@ -0,0 +1,69 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.assignment;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Affectation optimale par flot de coût minimal. Minimise d'abord le nombre de dépassements de
+ * capacité, puis la somme des rangs obtenus ; un créneau non classé coûte un rang de plus que le
+ * pire rang du problème et les indisponibilités sont des arcs interdits.
+ *
+ * <p>Contrairement aux tours de {@link MaxMinFairnessStrategy}, une permutation qui améliore la
+ * somme des rangs est toujours trouvée : l'ordre aléatoire d'insertion ne sert qu'à départager les
+ * solutions de même coût.
+ */
+public final class MinCostFlowStrategy implements AssignmentStrategy {
+
+    @Override
+    public AssignmentResult solve(AssignmentProblem problem, RandomGenerator random) {
+        TransportationSolver solver = new TransportationSolver(problem, new TransportationSolver.CostModel() {
+            @Override
+            public int dimensions() {
+                return 2;
+            }
+
+            @Override
+            public int component(int user, int slot) {
+                return 1;
+            }
+
+            @Override
+            public long weight(int user, int slot) {
+                return problem.cost(user, slot);
+            }
+        });
+
+        return new AssignmentResult(problem, solver.solve(shuffledUsers(problem, random)));
+    }
+
+    static int[] shuffledUsers(AssignmentProblem problem, RandomGenerator random) {
+        int[] order = new int[problem.userCount()];
+        for (int user = 0; user < order.length; user++) {
+            order[user] = user;
+        }
+        for (int i = order.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+        return order;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.assignment;
+
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
+
+/**
+ * Lance plusieurs tentatives indépendantes d'une stratégie, chacune avec sa propre graine, et ne
+ * garde que la meilleure au sens de {@link AssignmentScore}. Les tentatives s'exécutent en parallèle
+ * sur le pool fork-join commun ; elles ne partagent que le problème, immuable, et chacune reçoit
+ * un générateur dérivé de la graine initiale, si bien que le résultat ne dépend que de celle-ci.
+ */
+public final class MultiStartSearch implements AssignmentStrategy {
+
+    private final AssignmentStrategy strategy;
+    private final int attempts;
+
+    /**
+     * @param strategy La stratégie à répéter, qui ne doit pas avoir d'état mutable
+     * @param attempts Le nombre de tentatives, au moins une
+     * @throws IllegalArgumentException Si le nombre de tentatives n'est pas strictement positif
+     */
+    public MultiStartSearch(AssignmentStrategy strategy, int attempts) {
+        if (attempts < 1) {
+            throw new IllegalArgumentException("Le nombre de tentatives doit être strictement positif : " + attempts);
+        }
+        this.strategy = strategy;
+        this.attempts = attempts;
+    }
+
+    @Override
+    public AssignmentResult solve(AssignmentProblem problem, RandomGenerator random) {
+        // Générateurs dérivés avant le lancement : l'ordre d'exécution n'influe pas sur les graines
+        SplittableRandom root = new SplittableRandom(random.nextLong());
+        SplittableRandom[] generators = new SplittableRandom[attempts];
+        for (int attempt = 0; attempt < attempts; attempt++) {
+            generators[attempt] = root.split();
+        }
+
+        // À score égal, la tentative de plus petit numéro l'emporte
+        return IntStream.range(0, attempts)
+                .parallel()
+                .mapToObj(attempt -> new Attempt(strategy.solve(problem, generators[attempt])))
+                .reduce((first, second) -> second.score().compareTo(first.score()) < 0 ? second : first)
+                .orElseThrow()
+                .result();
+    }
+
+    private record Attempt(AssignmentResult result, AssignmentScore score) {
+
+        Attempt(AssignmentResult result) {
+            this(result, AssignmentScore.of(result));
+        }
+    }
+}
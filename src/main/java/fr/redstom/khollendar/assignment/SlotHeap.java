@@ -0,0 +1,167 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.assignment;
+
+/**
+ * Tas indexé des créneaux, du plus attractif au moins attractif pour un étudiant sans préférence
+ * satisfaite : d'abord les créneaux ayant encore de la capacité, par capacité restante décroissante,
+ * puis les créneaux pleins, par remplissage croissant. À égalité, le plus petit index l'emporte.
+ *
+ * <p>Prendre une place ne peut que faire reculer un créneau dans cet ordre : une mise à jour est un
+ * simple tamisage vers le bas, en O(log m). La recherche du meilleur créneau disponible parcourt le
+ * tas dans l'ordre, en sautant les créneaux indisponibles : son coût est en O((k + 1) log m), où k
+ * est le nombre de créneaux indisponibles plus attractifs que celui retenu.
+ */
+final class SlotHeap {
+
+    private final AssignmentProblem problem;
+    private final int[] remaining;
+
+    private final int[] heap;
+    private final int[] index;
+    private final int size;
+
+    /** Tas auxiliaire de positions dans {@link #heap}, pour le parcours dans l'ordre */
+    private final int[] frontier;
+
+    /**
+     * @param problem Le problème, pour les capacités et indisponibilités
+     * @param remaining Les capacités restantes, copiées
+     */
+    SlotHeap(AssignmentProblem problem, int[] remaining) {
+        this.problem = problem;
+        this.remaining = remaining.clone();
+        this.size = remaining.length;
+
+        this.heap = new int[size];
+        this.index = new int[size];
+        for (int slot = 0; slot < size; slot++) {
+            heap[slot] = slot;
+            index[slot] = slot;
+        }
+        for (int position = size / 2 - 1; position >= 0; position--) {
+            siftDown(position);
+        }
+
+        this.frontier = new int[size];
+    }
+
+    /**
+     * Retourne le créneau le plus attractif parmi ceux où l'étudiant est disponible
+     *
+     * @return L'index du créneau, ou -1 si l'étudiant est indisponible sur tous les créneaux
+     */
+    int bestAvailable(int user) {
+        if (size == 0) {
+            return -1;
+        }
+
+        int count = 0;
+        frontier[count++] = 0;
+
+        while (count > 0) {
+            int position = frontier[0];
+            frontier[0] = frontier[--count];
+            siftDownFrontier(count);
+
+            int slot = heap[position];
+            if (!problem.isUnavailable(user, slot)) {
+                return slot;
+            }
+
+            // Les enfants ne peuvent être plus attractifs que leur parent
+            for (int child = 2 * position + 1; child <= 2 * position + 2 && child < size; child++) {
+                int at = count++;
+                while (at > 0 && better(heap[child], heap[frontier[(at - 1) / 2]])) {
+                    frontier[at] = frontier[(at - 1) / 2];
+                    at = (at - 1) / 2;
+                }
+                frontier[at] = child;
+            }
+        }
+        return -1;
+    }
+
+    /** Occupe une place du créneau */
+    void take(int slot) {
+        remaining[slot]--;
+        siftDown(index[slot]);
+    }
+
+    /** Indique si le créneau a est plus attractif que le créneau b */
+    private boolean better(int a, int b) {
+        boolean aOpen = remaining[a] > 0;
+        boolean bOpen = remaining[b] > 0;
+        if (aOpen != bOpen) {
+            return aOpen;
+        }
+
+        int comparison = aOpen
+                ? Integer.compare(remaining[b], remaining[a])
+                : Integer.compare(problem.capacity(a) - remaining[a], problem.capacity(b) - remaining[b]);
+        return comparison != 0 ? comparison < 0 : a < b;
+    }
+
+    private void siftDown(int position) {
+        int slot = heap[position];
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && better(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!better(heap[child], slot)) {
+                break;
+            }
+
+            heap[position] = heap[child];
+            index[heap[position]] = position;
+            position = child;
+        }
+        heap[position] = slot;
+        index[slot] = position;
+    }
+
+    private void siftDownFrontier(int count) {
+        if (count == 0) {
+            return;
+        }
+
+        int position = 0;
+        int value = frontier[0];
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= count) {
+                break;
+            }
+            if (child + 1 < count && better(heap[frontier[child + 1]], heap[frontier[child]])) {
+                child++;
+            }
+            if (!better(heap[frontier[child]], heap[value])) {
+                break;
+            }
+
+            frontier[position] = frontier[child];
+            position = child;
+        }
+        frontier[position] = value;
+    }
+}
@@ -0,0 +1,296 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.assignment;
+
+import java.util.Arrays;
+
+/**
+ * Résolution exacte du problème de transport étudiants → créneaux par plus courts chemins
+ * successifs. Les étudiants sont insérés un par un ; chaque insertion emprunte le chemin augmentant
+ * de coût minimal, qui peut déplacer une chaîne d'étudiants déjà placés vers d'autres créneaux.
+ * Après chaque insertion, l'affectation partielle est optimale pour les étudiants déjà insérés.
+ *
+ * <p>Le graphe résiduel est compressé sur les créneaux : l'arc s → t porte le meilleur déplacement
+ * d'un étudiant de s vers t. Dijkstra travaille donc sur m nœuds au lieu de n + m, les potentiels
+ * gardant les coûts réduits positifs.
+ *
+ * <p>Les coûts sont des vecteurs comparés lexicographiquement. La composante 0 compte les
+ * dépassements de capacité : un créneau n'est rempli au-delà de sa capacité qu'en dernier recours,
+ * lorsque les indisponibilités ne laissent aucune autre solution.
+ */
+final class TransportationSolver {
+
+    /** Modèle de coût : chaque affectation coûte {@code weight} sur une seule composante du vecteur */
+    interface CostModel {
+
+        /** Nombre de composantes des vecteurs de coût, dépassements de capacité compris */
+        int dimensions();
+
+        /** Composante (à partir de 1) portant le coût de l'affectation de l'étudiant au créneau */
+        int component(int user, int slot);
+
+        /** Coût de l'affectation de l'étudiant au créneau sur sa composante */
+        long weight(int user, int slot);
+    }
+
+    private final AssignmentProblem problem;
+    private final CostModel costs;
+    private final int slotCount;
+    private final int dimensions;
+
+    private final int[] slotByUser;
+    private final int[][] members;
+    private final int[] load;
+    private final int[] position;
+
+    /** Coût du meilleur déplacement s → t, à l'index (s * m + t) * dimensions */
+    private final long[] bestMove;
+
+    /** Étudiant réalisant le meilleur déplacement s → t, ou -1 si aucun */
+    private final int[] bestMover;
+
+    private final long[] potential;
+
+    // Tampons de Dijkstra, réutilisés d'une insertion à l'autre
+    private final long[] key;
+    private final boolean[] reached;
+    private final boolean[] settled;
+    private final int[] previous;
+    private final long[] candidate;
+    private final long[] bestTotal;
+    private final long[] total;
+    private final int[] changed;
+
+    TransportationSolver(AssignmentProblem problem, CostModel costs) {
+        this.problem = problem;
+        this.costs = costs;
+        this.slotCount = problem.slotCount();
+        this.dimensions = costs.dimensions();
+
+        this.slotByUser = new int[problem.userCount()];
+        Arrays.fill(slotByUser, -1);
+
+        this.members = new int[slotCount][];
+        for (int slot = 0; slot < slotCount; slot++) {
+            members[slot] = new int[Math.max(4, problem.capacity(slot) + 1)];
+        }
+        this.load = new int[slotCount];
+        this.position = new int[problem.userCount()];
+
+        this.bestMove = new long[slotCount * slotCount * dimensions];
+        this.bestMover = new int[slotCount * slotCount];
+        Arrays.fill(bestMover, -1);
+
+        this.potential = new long[slotCount * dimensions];
+
+        this.key = new long[slotCount * dimensions];
+        this.reached = new boolean[slotCount];
+        this.settled = new boolean[slotCount];
+        this.previous = new int[slotCount];
+        this.candidate = new long[dimensions];
+        this.bestTotal = new long[dimensions];
+        this.total = new long[dimensions];
+        this.changed = new int[slotCount];
+    }
+
+    /**
+     * Insère les étudiants dans l'ordre donné puis retourne l'affectation obtenue
+     *
+     * @param order Permutation des index d'étudiants, qui départage les solutions de même coût
+     * @return Pour chaque étudiant, l'index du créneau attribué
+     * @throws IllegalStateException Si un étudiant est indisponible sur tous les créneaux
+     */
+    int[] solve(int[] order) {
+        for (int user : order) {
+            insert(user);
+        }
+        return slotByUser.clone();
+    }
+
+    private void insert(int user) {
+        Arrays.fill(reached, false);
+        Arrays.fill(settled, false);
+
+        // Étiquettes initiales : arcs directs du nouvel étudiant vers ses créneaux disponibles
+        boolean any = false;
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (problem.isUnavailable(user, slot)) {
+                continue;
+            }
+
+            int offset = slot * dimensions;
+            for (int d = 0; d < dimensions; d++) {
+                key[offset + d] = -potential[offset + d];
+            }
+            key[offset + costs.component(user, slot)] += costs.weight(user, slot);
+
+            reached[slot] = true;
+            previous[slot] = -1;
+            any = true;
+        }
+
+        if (!any) {
+            throw new IllegalStateException("Impossible de trouver un créneau disponible pour l'utilisateur "
+                    + problem.userId(user)
+                    + ". Tous les créneaux sont marqués comme indisponibles.");
+        }
+
+        // Dijkstra dense sur les créneaux, avec coûts réduits par les potentiels
+        for (int iteration = 0; iteration < slotCount; iteration++) {
+            int current = -1;
+            for (int slot = 0; slot < slotCount; slot++) {
+                if (reached[slot]
+                        && !settled[slot]
+                        && (current < 0 || compare(key, slot * dimensions, key, current * dimensions) < 0)) {
+                    current = slot;
+                }
+            }
+            if (current < 0) {
+                break;
+            }
+            settled[current] = true;
+
+            int from = current * dimensions;
+            for (int target = 0; target < slotCount; target++) {
+                int edge = current * slotCount + target;
+                if (settled[target] || bestMover[edge] < 0) {
+                    continue;
+                }
+
+                int to = target * dimensions;
+                int move = edge * dimensions;
+                for (int d = 0; d < dimensions; d++) {
+                    candidate[d] = key[from + d] + potential[from + d] + bestMove[move + d] - potential[to + d];
+                }
+
+                if (!reached[target] || compare(candidate, 0, key, to) < 0) {
+                    System.arraycopy(candidate, 0, key, to, dimensions);
+                    reached[target] = true;
+                    previous[target] = current;
+                }
+            }
+        }
+
+        // Choix du créneau qui absorbe la nouvelle unité (avec dépassement si nécessaire)
+        int last = -1;
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (!reached[slot]) {
+                continue;
+            }
+
+            int offset = slot * dimensions;
+            for (int d = 0; d < dimensions; d++) {
+                total[d] = key[offset + d] + potential[offset + d];
+            }
+            if (load[slot] >= problem.capacity(slot)) {
+                total[0]++;
+            }
+
+            if (last < 0 || compare(total, 0, bestTotal, 0) < 0) {
+                System.arraycopy(total, 0, bestTotal, 0, dimensions);
+                last = slot;
+            }
+        }
+
+        // Mise à jour des potentiels, plafonnée à la distance du créneau d'arrivée
+        int cap = last * dimensions;
+        for (int slot = 0; slot < slotCount; slot++) {
+            int offset = slot * dimensions;
+            boolean capped = !reached[slot] || compare(key, offset, key, cap) > 0;
+            for (int d = 0; d < dimensions; d++) {
+                potential[offset + d] += capped ? key[cap + d] : key[offset + d];
+            }
+        }
+
+        // Application du chemin augmentant, du créneau d'arrivée vers le nouvel étudiant
+        int slot = last;
+        int changedCount = 0;
+        while (previous[slot] >= 0) {
+            int from = previous[slot];
+            int mover = bestMover[from * slotCount + slot];
+
+            remove(mover);
+            add(mover, slot);
+            changed[changedCount++] = slot;
+            slot = from;
+        }
+        add(user, slot);
+        changed[changedCount++] = slot;
+
+        for (int i = 0; i < changedCount; i++) {
+            refreshMoves(changed[i]);
+        }
+    }
+
+    /** Recalcule les meilleurs déplacements au départ d'un créneau dont les membres ont changé */
+    private void refreshMoves(int from) {
+        int row = from * slotCount;
+        Arrays.fill(bestMover, row, row + slotCount, -1);
+
+        for (int i = 0; i < load[from]; i++) {
+            int user = members[from][i];
+            int leaveComponent = costs.component(user, from);
+            long leaveWeight = costs.weight(user, from);
+
+            for (int target = 0; target < slotCount; target++) {
+                if (target == from || problem.isUnavailable(user, target)) {
+                    continue;
+                }
+
+                Arrays.fill(candidate, 0);
+                candidate[costs.component(user, target)] += costs.weight(user, target);
+                candidate[leaveComponent] -= leaveWeight;
+
+                int edge = row + target;
+                if (bestMover[edge] < 0 || compare(candidate, 0, bestMove, edge * dimensions) < 0) {
+                    System.arraycopy(candidate, 0, bestMove, edge * dimensions, dimensions);
+                    bestMover[edge] = user;
+                }
+            }
+        }
+    }
+
+    private void add(int user, int slot) {
+        if (load[slot] == members[slot].length) {
+            members[slot] = Arrays.copyOf(members[slot], members[slot].length * 2);
+        }
+        members[slot][load[slot]] = user;
+        position[user] = load[slot]++;
+        slotByUser[user] = slot;
+    }
+
+    private void remove(int user) {
+        int slot = slotByUser[user];
+        int last = members[slot][--load[slot]];
+        members[slot][position[user]] = last;
+        position[last] = position[user];
+        slotByUser[user] = -1;
+    }
+
+    /** Comparaison lexicographique de deux vecteurs de coût */
+    private int compare(long[] a, int aOffset, long[] b, int bOffset) {
+        for (int d = 0; d < dimensions; d++) {
+            int comparison = Long.compare(a[aOffset + d], b[bOffset + d]);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.config;
+
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Active le cache applicatif. Les caches eux-mêmes sont déclarés dans {@code application.properties}
+ * ({@code spring.cache.*}), et leurs statistiques sont publiées par Actuator.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /**
+     * Dans une transaction, les mises en cache et les évictions sont reportées après le commit : une
+     * requête concurrente ne peut pas remettre en cache, entre l'éviction et le commit, l'état
+     * d'avant la modification.
+     */
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> transactionAwareCaches() {
+        return cacheManager -> cacheManager.setTransactionAware(true);
+    }
+}
@@ -44,7 +44,8 @@ public class SecurityConfig {
         http
                 .authorizeHttpRequests(authorize -> authorize
                         .requestMatchers("/admin/**",
-                                         "/kholles/create")
+                                         "/kholles/create",
+                                         "/actuator/metrics/**")
                         .hasRole("ADMIN")
 
                         .requestMatchers("/**", "/user/**")
@@ -0,0 +1,102 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.controller;
+
+import fr.redstom.khollendar.entity.StudentGroup;
+import fr.redstom.khollendar.service.StudentGroupService;
+import java.util.Arrays;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.*;
+
+/** Gestion des groupes d'étudiants et de leurs membres (admin uniquement) */
+@Controller
+@RequestMapping("/admin/groups")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminGroupController {
+
+    private final StudentGroupService groupService;
+
+    @GetMapping
+    public String list(Model model) {
+        model.addAttribute("groups", groupService.getGroups());
+        return "pages/admin/groups/list";
+    }
+
+    @PostMapping
+    public String createGroup(@RequestParam String name, Model model) {
+        try {
+            groupService.createGroup(name);
+        } catch (IllegalArgumentException e) {
+            model.addAttribute("error", e.getMessage());
+        }
+
+        model.addAttribute("groups", groupService.getGroups());
+        return "fragments/admin/GroupList";
+    }
+
+    @DeleteMapping("/{groupId}")
+    public String deleteGroup(@PathVariable Long groupId, Model model) {
+        if (groupService.exists(groupId)) {
+            groupService.deleteGroup(groupId);
+        }
+
+        model.addAttribute("groups", groupService.getGroups());
+        return "fragments/admin/GroupList";
+    }
+
+    @GetMapping("/{groupId}")
+    public String show(@PathVariable Long groupId, Model model) {
+        Optional<StudentGroup> group = groupService.getGroupById(groupId);
+        if (group.isEmpty()) {
+            return "redirect:/admin/groups";
+        }
+
+        model.addAttribute("group", group.get());
+        model.addAttribute("members", groupService.getMembers(groupId));
+        return "pages/admin/groups/show";
+    }
+
+    /** Ajoute les étudiants listés, un nom par ligne, au groupe */
+    @PostMapping("/{groupId}/members")
+    public String addMembers(@PathVariable Long groupId, @RequestParam String usernames, Model model) {
+        try {
+            groupService.addMembers(groupId, Arrays.asList(usernames.split("\\R")));
+        } catch (IllegalArgumentException e) {
+            model.addAttribute("error", e.getMessage());
+        }
+
+        model.addAttribute("groupId", groupId);
+        model.addAttribute("members", groupService.getMembers(groupId));
+        return "fragments/admin/GroupMembers";
+    }
+
+    @DeleteMapping("/{groupId}/members/{userId}")
+    public String removeMember(@PathVariable Long groupId, @PathVariable Long userId, Model model) {
+        groupService.removeMember(groupId, userId);
+
+        model.addAttribute("groupId", groupId);
+        model.addAttribute("members", groupService.getMembers(groupId));
+        return "fragments/admin/GroupMembers";
+    }
+}
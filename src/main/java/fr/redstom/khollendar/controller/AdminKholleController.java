@@ -44,7 +44,7 @@ public class AdminKholleController {
         KholleSession session = kholleService.getKholleSessionById(kholleId)
                 .orElseThrow(() -> new HttpServerErrorException(HttpStatusCode.valueOf(404)));
 
-        List<UserPreference> preferences = userPreferenceRepository.findBySessionOrderByUserIdAscPreferenceRankAsc(session);
+        List<UserPreference> preferences = userPreferenceRepository.findWithUserAndSlotBySession(session);
         List<UserPreferenceSummary> groupedPreferences = preferenceService.groupPreferencesByUser(preferences);
 
         model.addAttribute("sessionId", kholleId);
@@ -70,7 +70,7 @@ public class AdminKholleController {
         userPreferenceRepository.deleteByUserAndSession(user, session);
 
         // Recharger les préférences mises à jour depuis la base de données
-        List<UserPreference> preferences = userPreferenceRepository.findBySessionOrderByUserIdAscPreferenceRankAsc(session);
+        List<UserPreference> preferences = userPreferenceRepository.findWithUserAndSlotBySession(session);
         List<UserPreferenceSummary> groupedPreferences = preferenceService.groupPreferencesByUser(preferences);
 
         model.addAttribute("session", session);
@@ -156,7 +156,7 @@ public class AdminKholleController {
         KholleSession session = kholleService.getKholleSessionById(kholleId)
                 .orElseThrow(() -> new HttpServerErrorException(HttpStatusCode.valueOf(404)));
 
-        KholleAssignment assignment = kholleAssignmentRepository.findById(assignmentId)
+        KholleAssignment assignment = kholleAssignmentRepository.findWithUserAndSlotById(assignmentId)
                 .orElseThrow(() -> new HttpServerErrorException(HttpStatusCode.valueOf(404)));
 
         // Récupérer toutes les préférences de l'utilisateur pour cette session
@@ -21,14 +21,18 @@ package fr.redstom.khollendar.controller;
 import fr.redstom.khollendar.dto.UserCreationDto;
 import fr.redstom.khollendar.entity.User;
 import fr.redstom.khollendar.service.UserService;
+import fr.redstom.khollendar.utils.KeysetCursor;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 @Controller
 @RequestMapping("/admin/users")
@@ -44,35 +48,42 @@ public class AdminUserController {
     }
 
     @GetMapping("/paginated")
-    public String paginated(@RequestParam(defaultValue = "0") int page, Model model) {
-        Page<User> users = userService.getPaginatedUsers(page, 10);
+    public String paginated(@RequestParam(required = false) String cursor, Model model) {
+        // Un curseur illisible est refusé : repartir du début ajouterait une liste complète à la suite
+        // de celle déjà affichée, et htmx n'insère pas une réponse en erreur
+        ScrollPosition position;
+        try {
+            position = KeysetCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Curseur de pagination illisible", e);
+        }
+
+        Window<User> users = userService.getPaginatedUsers(position, 10);
 
         model.addAttribute("title", "Gestion des utilisateurs");
         model.addAttribute("users", users);
-        model.addAttribute("currentPage", page);
 
-        return "fragments/admin/UserList";
+        return position.isInitial() ? "fragments/admin/UserList" : "fragments/admin/UserListPage";
     }
 
     @PostMapping
     public String createUser(
             @Validated @ModelAttribute("newUser") UserCreationDto userDto,
             BindingResult bindingResult,
-            @RequestParam(defaultValue = "0") int page,
             Model model) {
         if (bindingResult.hasErrors()) {
-            Page<User> users = userService.getPaginatedUsers(page, 10);
+            Window<User> users = firstUsers();
             model.addAttribute("users", users);
             return "fragments/admin/UserList";
         }
 
         try {
             userService.createUser(userDto.username());
-            Page<User> users = userService.getPaginatedUsers(page, 10);
+            Window<User> users = firstUsers();
             model.addAttribute("users", users);
             return "fragments/admin/UserList";
         } catch (IllegalArgumentException e) {
-            Page<User> users = userService.getPaginatedUsers(page, 10);
+            Window<User> users = firstUsers();
             model.addAttribute("users", users);
             model.addAttribute("error", e.getMessage());
             return "fragments/admin/UserList";
@@ -80,34 +91,39 @@ public class AdminUserController {
     }
 
     @PostMapping("/{userId}/reset-code")
-    public String resetUserCode(@PathVariable Long userId, @RequestParam(defaultValue = "0") int page, Model model) {
+    public String resetUserCode(@PathVariable Long userId, Model model) {
         if (!userService.exists(userId)) {
-            Page<User> users = userService.getPaginatedUsers(page, 10);
+            Window<User> users = firstUsers();
             model.addAttribute("users", users);
             return "fragments/admin/UserList";
         }
 
         userService.resetUserCode(userId);
 
-        Page<User> users = userService.getPaginatedUsers(page, 10);
+        Window<User> users = firstUsers();
         model.addAttribute("users", users);
 
         return "fragments/admin/UserList";
     }
 
     @DeleteMapping("/{userId}")
-    public String deleteUser(@PathVariable Long userId, @RequestParam(defaultValue = "0") int page, Model model) {
+    public String deleteUser(@PathVariable Long userId, Model model) {
         if (!userService.exists(userId)) {
-            Page<User> users = userService.getPaginatedUsers(page, 10);
+            Window<User> users = firstUsers();
             model.addAttribute("users", users);
             return "fragments/admin/UserList";
         }
 
         userService.deleteUser(userId);
 
-        Page<User> users = userService.getPaginatedUsers(page, 10);
+        Window<User> users = firstUsers();
         model.addAttribute("users", users);
 
         return "fragments/admin/UserList";
     }
+
+    /** Premier lot d'utilisateurs, réaffiché après chaque action d'administration */
+    private Window<User> firstUsers() {
+        return userService.getPaginatedUsers(ScrollPosition.keyset(), 10);
+    }
 }
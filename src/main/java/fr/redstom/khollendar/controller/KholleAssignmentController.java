@@ -18,8 +18,11 @@
  */
 package fr.redstom.khollendar.controller;
 
-import fr.redstom.khollendar.entity.KholleAssignment;
+import fr.redstom.khollendar.assignment.AssignmentMode;
+import fr.redstom.khollendar.dto.AssignmentView;
 import fr.redstom.khollendar.entity.KholleSession;
+import fr.redstom.khollendar.service.AssignmentJob;
+import fr.redstom.khollendar.service.AssignmentJobService;
 import fr.redstom.khollendar.service.KholleAssignmentService;
 import fr.redstom.khollendar.service.KholleService;
 import jakarta.servlet.http.HttpSession;
@@ -27,6 +30,7 @@ import java.security.Principal;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -37,6 +41,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 
 /** Contrôleur pour la gestion des affectations de khôlles */
 @Controller
@@ -47,6 +52,7 @@ public class KholleAssignmentController {
 
     private final KholleAssignmentService assignmentService;
     private final KholleService kholleService;
+    private final AssignmentJobService jobService;
 
     /** Affiche les affectations d'une session de khôlle */
     @GetMapping("/{id}/assignments")
@@ -66,7 +72,7 @@ public class KholleAssignmentController {
         }
 
         // Récupérer toutes les affectations
-        List<KholleAssignment> assignments = assignmentService.getSessionAssignments(session);
+        List<AssignmentView> assignments = assignmentService.getSessionAssignments(id);
 
         // Vérifier si l'utilisateur est admin
         boolean isAdmin = principal != null && principal.getName().equals("admin");
@@ -76,7 +82,7 @@ public class KholleAssignmentController {
         // Distribution des rangs de préférence
         Map<Integer, Long> rankDistribution = assignments.stream()
                 .filter(a -> a.obtainedPreferenceRank() != null)
-                .collect(Collectors.groupingBy(KholleAssignment::obtainedPreferenceRank, Collectors.counting()));
+                .collect(Collectors.groupingBy(AssignmentView::obtainedPreferenceRank, Collectors.counting()));
 
         // Nombre d'affectations sans préférence
         long withoutPreferences = assignments.stream()
@@ -104,30 +110,94 @@ public class KholleAssignmentController {
         return "pages/kholles/assignments";
     }
 
-    /** Déclenche manuellement l'affectation d'une session (admin uniquement) */
+    /**
+     * Déclenche manuellement l'affectation d'une session (admin uniquement). Le calcul est exécuté
+     * en arrière-plan : la réponse est un fragment qui suit son avancement, ou qui affiche l'erreur
+     * si le calcul n'a pas pu être planifié. Sans mode explicite, l'algorithme configuré par défaut
+     * est utilisé.
+     */
     @PostMapping("/{id}/assignments/trigger")
     @PreAuthorize("hasRole('ADMIN')")
-    public String triggerAssignment(@PathVariable Long id) {
+    public String triggerAssignment(
+            @PathVariable Long id, @RequestParam(required = false) AssignmentMode mode, Model model) {
         try {
-            log.info("Déclenchement manuel de l'affectation pour la session {}", id);
+            log.info("Déclenchement manuel de l'affectation pour la session {} (mode: {})", id, mode);
 
             // Vérifier que la session existe
             Optional<KholleSession> sessionOpt = kholleService.getKholleSessionById(id);
             if (sessionOpt.isEmpty()) {
-                return "redirect:/kholles";
+                return jobError(model, "Cette session de khôlle n'existe pas.");
             }
 
-            // Effectuer l'affectation
-            assignmentService.assignStudentsToSlots(id);
+            // Planifier l'affectation, ou rejoindre celle déjà en cours
+            AssignmentJob job = jobService.submit(id, mode);
+            model.addAttribute("job", job);
 
-            return "redirect:/kholles/" + id + "/assignments";
+            return "fragments/admin/AssignmentJobStatus";
 
         } catch (IllegalStateException e) {
             log.error("Erreur lors de l'affectation manuelle de la session {}: {}", id, e.getMessage());
-            return "redirect:/kholles/" + id;
+            return jobError(model, e.getMessage());
         } catch (Exception e) {
             log.error("Erreur inattendue lors de l'affectation manuelle de la session {}", id, e);
-            return "redirect:/kholles/" + id;
+            return jobError(model, "Une erreur inattendue est survenue.");
+        }
+    }
+
+    /**
+     * Avancement d'un calcul d'affectation, interrogé régulièrement par le fragment de suivi. Un
+     * calcul inconnu (oublié après sa durée de conservation) arrête le suivi.
+     */
+    @GetMapping("/{id}/assignments/jobs/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public String assignmentJobStatus(@PathVariable Long id, @PathVariable UUID jobId, Model model) {
+        Optional<AssignmentJob> job = jobService.getJob(jobId).filter(j -> j.sessionId().equals(id));
+        if (job.isEmpty()) {
+            return jobError(model, "Ce calcul n'est plus suivi, rechargez la page.");
+        }
+
+        model.addAttribute("job", job.get());
+        return "fragments/admin/AssignmentJobStatus";
+    }
+
+    /**
+     * Met à jour les affectations d'une session sans tout recalculer : seuls les étudiants dont
+     * l'affectation n'est plus à jour sont replacés. Comme le recalcul complet, la mise à jour est
+     * exécutée en arrière-plan et fusionnée avec le calcul déjà en cours pour la session.
+     */
+    @PostMapping("/{id}/assignments/update")
+    @PreAuthorize("hasRole('ADMIN')")
+    public String updateAssignment(@PathVariable Long id, Model model) {
+        try {
+            log.info("Mise à jour incrémentale des affectations pour la session {}", id);
+
+            // Vérifier que la session existe
+            Optional<KholleSession> sessionOpt = kholleService.getKholleSessionById(id);
+            if (sessionOpt.isEmpty()) {
+                return jobError(model, "Cette session de khôlle n'existe pas.");
+            }
+
+            // Planifier la mise à jour, ou rejoindre le calcul déjà en cours
+            AssignmentJob job = jobService.submitUpdate(id);
+            model.addAttribute("job", job);
+
+            return "fragments/admin/AssignmentJobStatus";
+
+        } catch (IllegalStateException e) {
+            log.error("Erreur lors de la mise à jour des affectations de la session {}: {}", id, e.getMessage());
+            return jobError(model, e.getMessage());
+        } catch (Exception e) {
+            log.error("Erreur inattendue lors de la mise à jour des affectations de la session {}", id, e);
+            return jobError(model, "Une erreur inattendue est survenue.");
         }
     }
+
+    /**
+     * Fragment de suivi affichant une erreur à la place du calcul. Les boutons d'affectation ciblent
+     * {@code #assignment-job} via htmx : une redirection quitterait la page sans afficher l'erreur.
+     */
+    private String jobError(Model model, String error) {
+        model.addAttribute("error", error);
+        return "fragments/admin/AssignmentJobStatus";
+    }
 }
@@ -23,8 +23,8 @@ import fr.redstom.khollendar.entity.KholleSession;
 import fr.redstom.khollendar.entity.User;
 import fr.redstom.khollendar.service.KholleService;
 import fr.redstom.khollendar.service.PreferenceService;
+import fr.redstom.khollendar.service.RequestLookupService;
 import fr.redstom.khollendar.service.SessionService;
-import fr.redstom.khollendar.service.UserService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 import java.util.List;
@@ -43,7 +43,7 @@ public class KhollePreferenceController {
     private final SessionService sessionService;
     private final PreferenceService preferenceService;
     private final KholleService kholleService;
-    private final UserService userService;
+    private final RequestLookupService requestLookupService;
 
     /**
      * Formulaire de gestion des préférences pour une khôlle (entrée principale) Utilise un
@@ -62,14 +62,19 @@ public class KhollePreferenceController {
         Long userId = sessionService.getCurrentUserId(session);
 
         try {
-            KholleSession kholleSession = kholleService
-                    .getKholleSessionById(kholleId)
+            KholleSession kholleSession = requestLookupService
+                    .session(kholleId)
                     .orElseThrow(() -> new IllegalArgumentException("Session de khôlle non trouvée"));
 
-            User user = userService
-                    .getUserById(userId)
+            User user = requestLookupService
+                    .user(userId)
                     .orElseThrow(() -> new IllegalArgumentException("Utilisateur non trouvé"));
 
+            // Le formulaire n'est proposé qu'aux étudiants inscrits par le groupe de la session
+            if (!kholleService.isParticipant(kholleId, userId)) {
+                return "redirect:/kholles/" + kholleId;
+            }
+
             model.addAttribute("session", kholleSession);
             model.addAttribute("currentUser", user);
 
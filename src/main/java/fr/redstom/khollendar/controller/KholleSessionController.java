@@ -18,20 +18,26 @@
  */
 package fr.redstom.khollendar.controller;
 
+import fr.redstom.khollendar.dto.AssignmentView;
 import fr.redstom.khollendar.dto.KhollePatchDto;
 import fr.redstom.khollendar.dto.KholleSessionCreationDto;
+import fr.redstom.khollendar.dto.StudentPreferencesView;
 import fr.redstom.khollendar.entity.*;
 import fr.redstom.khollendar.service.*;
 import fr.redstom.khollendar.utils.AuthUtils;
+import fr.redstom.khollendar.utils.KeysetCursor;
 import java.util.*;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 /** Contrôleur pour la gestion des sessions de khôlles */
@@ -46,6 +52,7 @@ public class KholleSessionController {
     private final KholleSlotService kholleSlotService;
     private final UserService userService;
     private final KholleAssignmentService assignmentService;
+    private final StudentGroupService studentGroupService;
 
     /** Liste toutes les sessions de khôlles */
     @GetMapping
@@ -55,9 +62,14 @@ public class KholleSessionController {
         return "pages/kholles/list";
     }
 
+    /**
+     * Liste les sessions par lots (pagination par clé). Sans curseur, renvoie la liste complète avec
+     * son premier lot ; avec un curseur, renvoie seulement le lot suivant, ajouté à la liste par le
+     * bouton « Charger plus ».
+     */
     @GetMapping("/paginated")
     public String paginated(
-            @RequestParam(defaultValue = "0") int type, @RequestParam(defaultValue = "0") int page, Model model) {
+            @RequestParam(defaultValue = "0") int type, @RequestParam(required = false) String cursor, Model model) {
         if (type < 0 || type > 2) {
             type = 0;
         }
@@ -73,23 +85,33 @@ public class KholleSessionController {
                     default -> throw new IllegalStateException("Unexpected value: " + type);
                 });
 
-        Page<KholleSession> sessions =
+        // Un curseur illisible est refusé : repartir du début ajouterait une liste complète à la suite
+        // de celle déjà affichée, et htmx n'insère pas une réponse en erreur
+        ScrollPosition position;
+        try {
+            position = KeysetCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Curseur de pagination illisible", e);
+        }
+
+        Window<KholleSession> sessions =
                 switch (type) {
-                    case 0 -> kholleService.getAllKholleSessions(page, 10);
-                    case 1 -> kholleService.getPreviousKholleSessions(page, 10);
-                    case 2 -> kholleService.getUpcomingKholleSessions(page, 10);
+                    case 0 -> kholleService.getAllKholleSessions(position, 10);
+                    case 1 -> kholleService.getPreviousKholleSessions(position, 10);
+                    case 2 -> kholleService.getUpcomingKholleSessions(position, 10);
                     default -> throw new IllegalStateException("Unexpected value: " + type);
                 };
 
-        model.addAttribute("page", sessions);
+        model.addAttribute("sessions", sessions);
 
-        return "fragments/kholles/KholleList";
+        return position.isInitial() ? "fragments/kholles/KholleList" : "fragments/kholles/KholleListPage";
     }
 
     /** Formulaire de création d'une nouvelle khôlle */
     @GetMapping("/create")
     public String createForm(Model model) {
         model.addAttribute("title", "Créer une session de khôlles");
+        model.addAttribute("groups", studentGroupService.getGroups());
         return "pages/kholles/create";
     }
 
@@ -112,30 +134,19 @@ public class KholleSessionController {
 
         KholleSession session = sessionOpt.get();
 
-        // Récupérer toutes les préférences des utilisateurs pour cette session
-        Map<User, List<UserPreference>> userPreferences = kholleService.getAllUserPreferencesForSession(id);
-
-        // Récupérer les créneaux indisponibles pour chaque utilisateur
-        Map<User, List<KholleSlot>> userUnavailableSlots = new LinkedHashMap<>();
-        for (User user : userPreferences.keySet()) {
-            List<KholleSlot> unavailableSlots = kholleService.getUnavailableSlots(user.id(), id);
-            userUnavailableSlots.put(user, unavailableSlots);
-        }
-
-        // Récupérer le nombre d'utilisateurs ayant enregistré leurs préférences
-        long registeredUsersCount = kholleService.getRegisteredUsersCount(id);
+        // Préférences de chaque étudiant, lues sans charger les entités
+        List<StudentPreferencesView> studentPreferences = kholleService.getStudentPreferences(id);
 
         // Vérifier si l'utilisateur est admin
         boolean isAdmin = AuthUtils.admin();
 
         // Récupérer les affectations si elles existent
-        List<KholleAssignment> assignments = assignmentService.getSessionAssignments(session);
+        List<AssignmentView> assignments = assignmentService.getSessionAssignments(id);
 
         model.addAttribute("title", "Détails de la session de khôlle");
         model.addAttribute("session", session);
-        model.addAttribute("userPreferences", userPreferences);
-        model.addAttribute("userUnavailableSlots", userUnavailableSlots);
-        model.addAttribute("registeredUsersCount", registeredUsersCount);
+        model.addAttribute("studentPreferences", studentPreferences);
+        model.addAttribute("registeredUsersCount", (long) studentPreferences.size());
         model.addAttribute("isAdmin", isAdmin);
         model.addAttribute("assignments", assignments);
 
@@ -171,6 +182,8 @@ public class KholleSessionController {
             return ResponseEntity.status(HttpStatus.NO_CONTENT)
                     .header("HX-Refresh", "true")
                     .build();
+        } catch (OptimisticLockingFailureException | IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         }
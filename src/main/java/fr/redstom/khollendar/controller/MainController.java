@@ -22,6 +22,7 @@ import fr.redstom.khollendar.entity.KholleSession;
 import fr.redstom.khollendar.service.KholleService;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -36,7 +37,7 @@ public class MainController {
     @GetMapping("/")
     public String index(Model model) {
         List<KholleSession> upcomingSessions =
-                kholleService.getUpcomingKholleSessions(0, 5).getContent();
+                kholleService.getUpcomingKholleSessions(ScrollPosition.keyset(), 5).getContent();
 
         model.addAttribute("title", "Accueil");
         model.addAttribute("upcomingSessions", upcomingSessions);
@@ -15,98 +15,198 @@
  *
  * You should have received a copy of the GNU General Public License
  * along with this program.  If not, see <http://www.gnu.org/licenses/>.
- */
 package fr.redstom.khollendar.crons;
 
-import fr.redstom.khollendar.entity.KholleSession;
 import fr.redstom.khollendar.entity.KholleSessionStatus;
-import fr.redstom.khollendar.entity.KholleSlot;
 import fr.redstom.khollendar.repository.KholleSessionRepository;
+import fr.redstom.khollendar.service.AssignmentProgressListener;
 import fr.redstom.khollendar.service.KholleAssignmentService;
+import fr.redstom.khollendar.service.LeaseService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 /**
  * Service de planification automatique des affectations de khôlles. Exécute un cron quotidien pour
- * affecter les étudiants aux créneaux des sessions commençant dans moins de 48h.
+ * affecter les étudiants aux créneaux des sessions commençant dans moins de 72h.
+ *
+ * <p>Les sessions éligibles sont sélectionnées directement par la requête, puis affectées en
+ * parallèle sur un nombre borné de threads. Chaque session est isolée : l'échec ou le dépassement
+ * de délai de l'une n'empêche pas l'affectation des autres. Un bail en base garantit qu'une seule
+ * instance de l'application exécute la tâche : il est prolongé jusqu'à l'échéance de la tâche une
+ * fois les sessions connues, et chaque session est protégée par son propre bail pendant le calcul.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AffectationCron {
 
+    /** Nom du bail qui réserve la tâche planifiée à une seule instance */
+    private static final String LEASE_NAME = "affectation-cron";
+
     private final KholleSessionRepository sessionRepository;
     private final KholleAssignmentService assignmentService;
+    private final MeterRegistry meterRegistry;
+    private final LeaseService leaseService;
+
+    @Value("${kholle.assignment.cron.parallelism:4}")
+    private int parallelism = 4;
+
+    @Value("${kholle.assignment.cron.session-timeout-seconds:600}")
+    private long sessionTimeoutSeconds = 600;
+
+    @Value("${kholle.assignment.cron.lease-minutes:60}")
+    private long leaseMinutes = 60;
+
+    /** Issue de l'affectation d'une session par le cron */
+    enum Outcome {
+        ASSIGNED,
+        CONFLICT,
+        FAILED,
+        TIMED_OUT
+    }
 
     /**
      * Tâche planifiée exécutée tous les jours à 2h du matin. Affecte automatiquement les étudiants
-     * aux créneaux des sessions qui commencent dans moins de 48h et qui n'ont pas encore été
+     * aux créneaux des sessions qui commencent dans moins de 72h et qui n'ont pas encore été
      * affectées.
      */
     @Scheduled(cron = "0 0 2 * * *") // Tous les jours à 2h
     public void assignUpcomingSessions() {
+        // Une seule instance de l'application exécute la tâche, les autres passent leur tour
+        Optional<LeaseService.Lease> lease = leaseService.tryAcquire(LEASE_NAME, Duration.ofMinutes(leaseMinutes));
+        if (lease.isEmpty()) {
+            log.info("Tâche planifiée d'affectation déjà en cours sur une autre instance, ignorée");
+            return;
+        }
+
+        try {
+            assignEligibleSessions(lease.get());
+        } finally {
+            leaseService.release(lease.get());
+        }
+    }
+
+    private void assignEligibleSessions(LeaseService.Lease lease) {
         log.info("=== Début de la tâche planifiée d'affectation des sessions ===");
+        long start = System.nanoTime();
 
         LocalDateTime now = LocalDateTime.now();
-        LocalDateTime in72hours = now.plusHours(72);
-
-        // Récupération de toutes les sessions à venir
-        List<KholleSession> upcomingSessions = sessionRepository.findUpcomingKholleSessions(now);
-
-        int processedCount = 0;
-        int skippedCount = 0;
-        int errorCount = 0;
-
-        for (KholleSession session : upcomingSessions) {
-            try {
-                // Vérifier si la session commence dans moins de 72h
-                Optional<LocalDateTime> firstSlotDate =
-                        session.kholleSlots().stream().map(KholleSlot::dateTime).min(LocalDateTime::compareTo);
-
-                if (firstSlotDate.isEmpty()) {
-                    log.warn("Session {} n'a aucun créneau, ignorée", session.id());
-                    skippedCount++;
-                    continue;
-                }
-
-                if (firstSlotDate.get().isAfter(in72hours)) {
-                    // La session commence dans plus de 48h, on passe
-                    log.debug("Session {} commence le {}, trop loin dans le futur", session.id(), firstSlotDate.get());
-                    continue;
-                }
-
-                // Vérifier si la session a déjà été affectée
-                if (session.status() == KholleSessionStatus.RESULTS_AVAILABLE) {
-                    log.debug("Session {} déjà affectée, ignorée", session.id());
-                    skippedCount++;
-                    continue;
-                }
-
-                // Effectuer l'affectation
-                log.info(
-                        "Affectation de la session {} ({}), premier créneau le {}",
-                        session.id(),
-                        session.subject(),
-                        firstSlotDate.get());
-
-                assignmentService.assignStudentsToSlots(session.id());
-                processedCount++;
-
-                log.info("Session {} affectée avec succès", session.id());
-
-            } catch (Exception e) {
-                errorCount++;
-                log.error("Erreur lors de l'affectation de la session {}: {}", session.id(), e.getMessage(), e);
+        List<Long> sessionIds = sessionRepository.findSessionIdsToAssign(
+                now, now.plusHours(72), KholleSessionStatus.RESULTS_AVAILABLE);
+
+        // Les sessions passent par vagues de `parallelism` : chaque vague dispose du délai
+        // d'une session, au-delà duquel les calculs encore en cours sont abandonnés
+        long waves = Math.ceilDiv(sessionIds.size(), Math.max(1, parallelism));
+        long deadline = start + Duration.ofSeconds(sessionTimeoutSeconds).toNanos() * waves;
+
+        // Le bail doit couvrir toute la tâche, avec la marge habituelle au-delà de l'échéance
+        Duration remaining = Duration.ofNanos(Math.max(0, deadline - System.nanoTime()));
+        if (!leaseService.extend(lease, remaining.plusMinutes(leaseMinutes))) {
+            log.warn("Bail de la tâche planifiée d'affectation perdu avant le calcul, tâche abandonnée");
+            return;
+        }
+
+        Map<Outcome, Integer> outcomes = new EnumMap<>(Outcome.class);
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.max(1, parallelism), Thread.ofVirtual().name("affectation-cron-", 0).factory());
+        try {
+            List<Future<Outcome>> futures = new ArrayList<>(sessionIds.size());
+            for (Long sessionId : sessionIds) {
+                futures.add(executor.submit(() -> assignSession(sessionId)));
+            }
+
+            for (Future<Outcome> future : futures) {
+                outcomes.merge(await(future, deadline), 1, Integer::sum);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        outcomes.forEach((outcome, count) -> meterRegistry
+                .counter("kholle.assignment.cron.sessions", "outcome", outcome.name().toLowerCase())
+                .increment(count));
+        Timer.builder("kholle.assignment.cron.duration").register(meterRegistry).record(elapsed);
+
+        log.info("=== Fin de la tâche planifiée d'affectation ({} ms) ===", elapsed.toMillis());
+        log.info(
+                "Sessions éligibles: {}, affectées: {}, ignorées: {}, erreurs: {}, délais dépassés: {}",
+                sessionIds.size(),
+                outcomes.getOrDefault(Outcome.ASSIGNED, 0),
+                outcomes.getOrDefault(Outcome.CONFLICT, 0),
+                outcomes.getOrDefault(Outcome.FAILED, 0),
+                outcomes.getOrDefault(Outcome.TIMED_OUT, 0));
+    }
+
+    /**
+     * Affecte une session, en abandonnant avant l'étape suivante si le délai imparti est dépassé :
+     * les algorithmes ne sont pas interruptibles, mais aucune affectation n'est enregistrée après
+     * l'échéance
+     */
+    Outcome assignSession(Long sessionId) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(sessionTimeoutSeconds).toNanos();
+        AssignmentProgressListener timeout = phase -> {
+            if (System.nanoTime() > deadline) {
+                throw new CancellationException("Délai dépassé avant l'étape : " + phase.label());
             }
+        };
+
+        try {
+            log.info("Affectation de la session {}", sessionId);
+            assignmentService.assignPendingSession(sessionId, assignmentService.defaultMode(), timeout);
+            log.info("Session {} affectée avec succès", sessionId);
+            return Outcome.ASSIGNED;
+        } catch (OptimisticLockingFailureException e) {
+            // Session affectée ou modifiée par un administrateur pendant la tâche : rien à refaire
+            log.info("Affectation de la session {} ignorée: {}", sessionId, e.getMessage());
+            return Outcome.CONFLICT;
+        } catch (CancellationException e) {
+            log.error("Affectation de la session {} abandonnée: {}", sessionId, e.getMessage());
+            return Outcome.TIMED_OUT;
+        } catch (Exception e) {
+            log.error("Erreur lors de l'affectation de la session {}: {}", sessionId, e.getMessage(), e);
+            return Outcome.FAILED;
         }
+    }
 
-        log.info("=== Fin de la tâche planifiée d'affectation ===");
-        log.info("Sessions traitées: {}, ignorées: {}, erreurs: {}", processedCount, skippedCount, errorCount);
+    /**
+     * Attend l'issue d'une affectation jusqu'à l'échéance donnée. Un calcul qui ne rend pas la main
+     * à temps (par exemple bloqué hors des étapes où le délai est vérifié) est interrompu et compté
+     * comme dépassant le délai.
+     */
+    private Outcome await(Future<Outcome> future, long deadline) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            return Outcome.TIMED_OUT;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            return Outcome.FAILED;
+        } catch (ExecutionException e) {
+            return Outcome.FAILED;
+        }
     }
 
     /**
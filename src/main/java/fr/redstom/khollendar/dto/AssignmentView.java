@@ -0,0 +1,28 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.dto;
+
+/**
+ * Affectation d'un étudiant, réduite à ce qu'affichent les pages publiques d'une session
+ *
+ * @param slotId L'identifiant du créneau affecté
+ * @param username Le nom de l'étudiant
+ * @param obtainedPreferenceRank Le rang de préférence obtenu, null si le créneau a été tiré au sort
+ */
+public record AssignmentView(Long slotId, String username, Integer obtainedPreferenceRank) {}
@@ -0,0 +1,28 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.dto;
+
+/**
+ * Groupe d'étudiants avec son nombre de membres, pour les listes de l'administration
+ *
+ * @param id L'identifiant du groupe
+ * @param name Le nom du groupe
+ * @param memberCount Le nombre d'étudiants du groupe
+ */
+public record GroupSummary(Long id, String name, long memberCount) {}
@@ -21,7 +21,13 @@ package fr.redstom.khollendar.dto;
 import java.time.LocalDateTime;
 import lombok.NonNull;
 
-public record KholleCreationDto(LocalDateTime time) {
+/**
+ * Créneau saisi à la création d'une session
+ *
+ * @param time La date et l'heure du créneau
+ * @param capacity La capacité du créneau, ou {@code null} pour la calculer automatiquement
+ */
+public record KholleCreationDto(LocalDateTime time, Integer capacity) {
     @Override
     @NonNull public String toString() {
         return time.toString();
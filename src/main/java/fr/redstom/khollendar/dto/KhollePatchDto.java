@@ -21,17 +21,26 @@ package fr.redstom.khollendar.dto;
 import fr.redstom.khollendar.entity.KholleSession;
 import fr.redstom.khollendar.entity.KholleSessionStatus;
 
-public record KhollePatchDto(String subject, KholleSessionStatus status) {
+/**
+ * Modification d'une session depuis l'administration
+ *
+ * @param subject Le nouveau nom, ou null pour le conserver
+ * @param status Le nouveau statut, ou null pour le conserver
+ * @param version La version de la session affichée au moment de l'édition, ou null pour ne pas la
+ *     vérifier
+ */
+public record KhollePatchDto(String subject, KholleSessionStatus status, Long version) {
 
+    /**
+     * Applique les champs simples du patch. Le statut n'est pas appliqué ici : il passe par une
+     * transition conditionnelle (voir {@code KholleService#transitionStatus}).
+     */
     public KholleSession apply(KholleSession session) {
         KholleSession.KholleSessionBuilder builder = session.toBuilder();
 
         if (this.subject != null && !this.subject.isBlank()) {
             builder = builder.subject(this.subject.trim());
         }
-        if (this.status != null) {
-            builder = builder.status(this.status);
-        }
 
         return builder.build();
     }
@@ -22,10 +22,19 @@ import java.util.Arrays;
 import lombok.Builder;
 import lombok.NonNull;
 
+/**
+ * Session de khôlles à créer
+ *
+ * @param subject La matière de la session
+ * @param groupId Le groupe d'étudiants inscrits à la session, seuls à pouvoir y donner leurs
+ *     préférences, ou null pour une session sans participants
+ * @param slots Les créneaux de la session
+ */
 @Builder
-public record KholleSessionCreationDto(String subject, KholleCreationDto... slots) {
+public record KholleSessionCreationDto(String subject, Long groupId, KholleCreationDto... slots) {
     @Override
     @NonNull public String toString() {
-        return "KholleSessionCreationDto{" + "subject='" + subject + '\'' + ", slots=" + Arrays.toString(slots) + '}';
+        return "KholleSessionCreationDto{" + "subject='" + subject + '\'' + ", groupId=" + groupId + ", slots="
+                + Arrays.toString(slots) + '}';
     }
 }
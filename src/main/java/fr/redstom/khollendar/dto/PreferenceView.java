@@ -0,0 +1,33 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Préférence d'un étudiant pour un créneau, réduite à ce qu'affiche la page d'une session
+ *
+ * @param userId L'identifiant de l'étudiant
+ * @param username Le nom de l'étudiant
+ * @param slotDateTime La date du créneau
+ * @param preferenceRank Le rang donné au créneau
+ * @param isUnavailable Si l'étudiant s'est déclaré indisponible sur ce créneau
+ */
+public record PreferenceView(
+        Long userId, String username, LocalDateTime slotDateTime, Integer preferenceRank, Boolean isUnavailable) {}
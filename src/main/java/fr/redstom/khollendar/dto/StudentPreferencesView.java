@@ -0,0 +1,32 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Préférences d'un étudiant pour une session, telles qu'affichées sur la page de la session
+ *
+ * @param username Le nom de l'étudiant
+ * @param ranked Les créneaux classés, triés par rang
+ * @param unavailableSlots Les dates des créneaux où l'étudiant est indisponible, triées
+ */
+public record StudentPreferencesView(
+        String username, List<PreferenceView> ranked, List<LocalDateTime> unavailableSlots) {}
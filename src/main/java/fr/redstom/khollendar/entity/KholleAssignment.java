@@ -35,18 +35,23 @@ public class KholleAssignment {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "kholle_assignment_seq")
-    @SequenceGenerator(name = "kholle_assignment_seq", sequenceName = "kholle_assignment_seq", allocationSize = 1)
+    @SequenceGenerator(name = "kholle_assignment_seq", sequenceName = "kholle_assignment_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    /** Version de la ligne, protège les corrections manuelles des mises à jour concurrentes */
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "session_id", nullable = false)
     private KholleSession session;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "slot_id", nullable = false)
     private KholleSlot slot;
 
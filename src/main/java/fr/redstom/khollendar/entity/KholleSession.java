@@ -38,9 +38,17 @@ public class KholleSession {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "kholle_session_seq")
-    @SequenceGenerator(name = "kholle_session_seq", sequenceName = "kholle_session_seq", allocationSize = 1)
+    @SequenceGenerator(name = "kholle_session_seq", sequenceName = "kholle_session_seq", allocationSize = 50)
     private Long id;
 
+    /**
+     * Version de la ligne, incrémentée à chaque écriture. Une sauvegarde faite à partir d'une copie
+     * périmée échoue au lieu d'écraser une modification concurrente.
+     */
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @Column(nullable = false)
     private String subject;
 
@@ -49,7 +57,23 @@ public class KholleSession {
     @Builder.Default
     private KholleSessionStatus status = KholleSessionStatus.REGISTRATIONS_OPEN;
 
-    @OneToMany(mappedBy = "session", cascade = CascadeType.ALL, fetch = FetchType.EAGER, orphanRemoval = true)
+    /**
+     * Date du premier créneau, recopiée depuis les créneaux à leur création. Les listes de sessions
+     * filtrent et trient sur cette colonne plutôt que sur un MIN calculé à chaque requête.
+     */
+    private LocalDateTime firstSlotAt;
+
+    /** Date du dernier créneau, recopiée depuis les créneaux à leur création */
+    private LocalDateTime lastSlotAt;
+
+    /**
+     * Groupe d'étudiants auquel la session est ouverte. Gardé sous forme d'identifiant : la session
+     * est mise en cache détachée, et seules les inscriptions en dépendent.
+     */
+    @Column(name = "group_id")
+    private Long groupId;
+
+    @OneToMany(mappedBy = "session", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<KholleSlot> kholleSlots;
 
     @OneToMany(mappedBy = "session", cascade = CascadeType.ALL, orphanRemoval = true)
@@ -59,25 +83,16 @@ public class KholleSession {
     private List<KholleAssignment> assignments;
 
     /**
-     * Calcule la plage de dates couverte par tous les KholleSlot de cette session.
+     * Renvoie la plage de dates couverte par les créneaux de cette session, sans parcourir les
+     * créneaux.
      *
-     * @return Un objet contenant la date de début et de fin, ou null si aucun slot n'est présent
+     * @return La date du premier et du dernier créneau, ou vide si la session n'a aucun créneau daté
      */
     public Optional<DateRange> calculateDateRange() {
-        if (kholleSlots == null || kholleSlots.isEmpty()) {
+        if (firstSlotAt == null || lastSlotAt == null) {
             return Optional.empty();
         }
 
-        LocalDateTime minDate = kholleSlots.stream()
-                .map(KholleSlot::dateTime)
-                .min(LocalDateTime::compareTo)
-                .orElse(null);
-
-        LocalDateTime maxDate = kholleSlots.stream()
-                .map(KholleSlot::dateTime)
-                .max(LocalDateTime::compareTo)
-                .orElse(null);
-
-        return Optional.of(new DateRange(minDate, maxDate));
+        return Optional.of(new DateRange(firstSlotAt, lastSlotAt));
     }
 }
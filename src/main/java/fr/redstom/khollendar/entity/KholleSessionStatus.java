@@ -39,4 +39,21 @@ public enum KholleSessionStatus {
     KholleSessionStatus(String label) {
         this.label = label;
     }
+
+    /**
+     * Indique si la session peut passer de ce statut au statut donné en avançant d'une étape dans la
+     * chaîne REGISTRATIONS_OPEN → REGISTRATIONS_CLOSED → RESULTS_AVAILABLE. Revenir en arrière ne
+     * passe pas par ici mais par une réouverture explicite, vérifiée par la version de la session
+     * (voir {@code KholleService#reopenRegistrations}).
+     *
+     * @param target Le statut visé
+     * @return true si la transition est autorisée
+     */
+    public boolean canTransitionTo(KholleSessionStatus target) {
+        return switch (this) {
+            case REGISTRATIONS_OPEN -> target == REGISTRATIONS_CLOSED;
+            case REGISTRATIONS_CLOSED -> target == RESULTS_AVAILABLE;
+            case RESULTS_AVAILABLE -> false;
+        };
+    }
 }
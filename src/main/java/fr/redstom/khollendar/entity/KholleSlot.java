@@ -33,13 +33,17 @@ public class KholleSlot {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "kholle_slot_seq")
-    @SequenceGenerator(name = "kholle_slot_seq", sequenceName = "kholle_slot_seq", allocationSize = 1)
+    @SequenceGenerator(name = "kholle_slot_seq", sequenceName = "kholle_slot_seq", allocationSize = 50)
     private Long id;
 
     @Column
     private LocalDateTime dateTime;
 
-    @ManyToOne
+    /** Nombre d'étudiants accueillis par le créneau, ou {@code null} pour une capacité calculée automatiquement */
+    @Column
+    private Integer capacity;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "session_id", nullable = false)
     private KholleSession session;
 
@@ -0,0 +1,61 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.entity;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Inscription d'un étudiant à une session de khôlles. Seuls les participants d'une session sont
+ * pris en compte lors de l'affectation.
+ */
+@Entity
+@Table(name = "kholle_session_participants")
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+public class SessionParticipant {
+
+    @EmbeddedId
+    private Key id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @MapsId("userId")
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    /** Clé composite (session, étudiant) */
+    @Embeddable
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Getter
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+
+        @Column(name = "session_id", nullable = false)
+        private Long sessionId;
+
+        @Column(name = "user_id", nullable = false)
+        private Long userId;
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.entity;
+
+import jakarta.persistence.*;
+import java.util.Set;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Groupe d'étudiants (une classe), géré par l'administrateur. Une session est ouverte à un groupe :
+ * ses membres y sont inscrits à la création de la session, et les étudiants qui rejoignent le groupe
+ * sont inscrits à ses sessions à venir.
+ */
+@Entity
+@Table(name = "student_groups")
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Builder(toBuilder = true)
+public class StudentGroup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "student_group_seq")
+    @SequenceGenerator(name = "student_group_seq", sequenceName = "student_group_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, unique = true)
+    private String name;
+
+    /** Membres du groupe, jamais chargés en bloc : les pages lisent des projections */
+    @ManyToMany(fetch = FetchType.LAZY)
+    @JoinTable(
+            name = "student_group_members",
+            joinColumns = @JoinColumn(name = "group_id"),
+            inverseJoinColumns = @JoinColumn(name = "user_id"))
+    private Set<User> members;
+}
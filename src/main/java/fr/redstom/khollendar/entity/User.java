@@ -33,7 +33,7 @@ import lombok.NoArgsConstructor;
 public class User {
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_seq_gen")
-    @SequenceGenerator(name = "user_seq_gen", sequenceName = "user_seq", allocationSize = 1)
+    @SequenceGenerator(name = "user_seq_gen", sequenceName = "user_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -25,7 +25,12 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "user_preferences")
+@Table(
+        name = "user_preferences",
+        uniqueConstraints =
+                @UniqueConstraint(
+                        name = "uk_user_preference_user_session_slot",
+                        columnNames = {"user_id", "session_id", "slot_id"}))
 @NoArgsConstructor
 @AllArgsConstructor
 @Getter
@@ -34,18 +39,18 @@ public class UserPreference {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_preference_seq")
-    @SequenceGenerator(name = "user_preference_seq", sequenceName = "user_preference_seq", allocationSize = 1)
+    @SequenceGenerator(name = "user_preference_seq", sequenceName = "user_preference_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "session_id", nullable = false)
     private KholleSession session;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "slot_id", nullable = false)
     private KholleSlot slot;
 
@@ -59,8 +64,4 @@ public class UserPreference {
     @Column(nullable = false)
     @Builder.Default
     private Boolean isUnavailable = false;
-
-    // Index unique pour éviter les doublons user/session/slot
-    @Table(uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "session_id", "slot_id"}))
-    public static class UserPreferenceConstraints {}
 }
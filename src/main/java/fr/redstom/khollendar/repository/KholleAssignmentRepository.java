@@ -18,12 +18,14 @@
  */
 package fr.redstom.khollendar.repository;
 
+import fr.redstom.khollendar.dto.AssignmentView;
 import fr.redstom.khollendar.entity.KholleAssignment;
 import fr.redstom.khollendar.entity.KholleSession;
 import fr.redstom.khollendar.entity.KholleSlot;
 import fr.redstom.khollendar.entity.User;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -33,13 +35,31 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface KholleAssignmentRepository extends JpaRepository<KholleAssignment, Long> {
 
-    /** Trouve l'affectation d'un utilisateur pour une session donnée */
+    /** Trouve l'affectation d'un utilisateur pour une session donnée, avec son créneau */
+    @EntityGraph(attributePaths = "slot")
     Optional<KholleAssignment> findByUserAndSession(User user, KholleSession session);
 
-    /** Trouve toutes les affectations d'une session */
+    /** Trouve une affectation avec son étudiant et son créneau (modale d'édition) */
+    @EntityGraph(attributePaths = {"user", "slot"})
+    Optional<KholleAssignment> findWithUserAndSlotById(Long id);
+
+    /**
+     * Trouve toutes les affectations d'une session, sans charger les étudiants ni les créneaux : seuls
+     * leurs identifiants sont lus (calcul des affectations)
+     */
     List<KholleAssignment> findBySession(KholleSession session);
 
-    /** Trouve toutes les affectations d'une session ordonnées par ID */
+    /**
+     * Lit les affectations d'une session pour ses pages publiques, dans leur ordre de création, sans
+     * charger les entités
+     */
+    @Query("SELECT new fr.redstom.khollendar.dto.AssignmentView(ka.slot.id, u.username, ka.obtainedPreferenceRank)"
+            + " FROM KholleAssignment ka JOIN ka.user u"
+            + " WHERE ka.session.id = :sessionId ORDER BY ka.id")
+    List<AssignmentView> findViewsBySessionId(@Param("sessionId") Long sessionId);
+
+    /** Trouve toutes les affectations d'une session ordonnées par ID, avec leurs étudiants et créneaux */
+    @EntityGraph(attributePaths = {"user", "slot"})
     List<KholleAssignment> findBySessionOrderByIdAsc(KholleSession session);
 
     /** Trouve toutes les affectations d'un créneau */
@@ -19,29 +19,102 @@
 package fr.redstom.khollendar.repository;
 
 import fr.redstom.khollendar.entity.KholleSession;
+import fr.redstom.khollendar.entity.KholleSessionStatus;
+import jakarta.persistence.LockModeType;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 
 public interface KholleSessionRepository
         extends CrudRepository<KholleSession, Long>, PagingAndSortingRepository<KholleSession, Long> {
 
-    @Query("SELECT ks FROM KholleSession ks JOIN ks.kholleSlots slot WHERE slot.dateTime > ?1"
-            + " GROUP BY ks ORDER BY MIN(slot.dateTime) ASC")
-    List<KholleSession> findUpcomingKholleSessions(LocalDateTime now);
+    /**
+     * Trouve les sessions qui suivent la position donnée, de la plus récemment créée à la plus
+     * ancienne. La position porte sur l'ID, sans décalage ni comptage.
+     */
+    Window<KholleSession> findAllByOrderByIdDesc(ScrollPosition position, Limit limit);
 
-    @Query("SELECT ks FROM KholleSession ks JOIN ks.kholleSlots slot WHERE slot.dateTime > ?1"
-            + " GROUP BY ks ORDER BY MIN(slot.dateTime) ASC")
-    Page<KholleSession> findUpcomingKholleSessionsPaged(LocalDateTime now, Pageable pageable);
+    /**
+     * Trouve les sessions dont au moins un créneau est à venir, triées par date du premier créneau.
+     * La position porte sur (first_slot_at, id), parcourus avec l'index du même nom.
+     */
+    Window<KholleSession> findByLastSlotAtAfterOrderByFirstSlotAtAscIdAsc(
+            LocalDateTime now, ScrollPosition position, Limit limit);
 
-    @Query("SELECT ks FROM KholleSession ks JOIN ks.kholleSlots slot WHERE slot.dateTime < ?1"
-            + " GROUP BY ks ORDER BY MAX(slot.dateTime) DESC")
-    Page<KholleSession> findPreviousKholleSessions(LocalDateTime now, Pageable pageable);
+    /**
+     * Trouve les sessions dont au moins un créneau est passé, triées par date du dernier créneau. La
+     * position porte sur (last_slot_at, id).
+     */
+    Window<KholleSession> findByFirstSlotAtBeforeOrderByLastSlotAtDescIdDesc(
+            LocalDateTime now, ScrollPosition position, Limit limit);
 
+    /** Trouve une session avec ses créneaux, chargés dans la même requête */
+    @EntityGraph(attributePaths = "kholleSlots")
     Optional<KholleSession> findKholleSessionById(Long id);
+
+    /**
+     * Lit le statut d'une session en base en posant un verrou partagé sur sa ligne, jusqu'à la fin de
+     * la transaction. Un changement de statut concurrent attend donc la fin de l'écriture qui s'appuie
+     * sur ce statut, ou est vu par elle s'il a eu lieu avant.
+     */
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT ks.status FROM KholleSession ks WHERE ks.id = :id")
+    Optional<KholleSessionStatus> findStatusForShareById(@Param("id") Long id);
+
+    /**
+     * Trouve plusieurs sessions avec leurs créneaux, en une requête. Les requêtes paginées ne
+     * chargent que les sessions (une jointure sur une collection empêcherait la pagination en base),
+     * leurs créneaux sont ensuite récupérés ici.
+     */
+    @EntityGraph(attributePaths = "kholleSlots")
+    List<KholleSession> findWithSlotsByIdIn(Collection<Long> ids);
+
+    /**
+     * Trouve les sessions à affecter : encore à venir, dont le premier créneau tombe avant la date
+     * limite, et dont le statut n'est pas celui donné. Seuls les identifiants sont chargés, triés
+     * par date du premier créneau.
+     */
+    @Query("SELECT ks.id FROM KholleSession ks WHERE ks.status <> ?3"
+            + " AND ks.lastSlotAt > ?1 AND ks.firstSlotAt <= ?2 ORDER BY ks.firstSlotAt ASC")
+    List<Long> findSessionIdsToAssign(LocalDateTime now, LocalDateTime until, KholleSessionStatus excludedStatus);
+
+    /**
+     * Change le statut d'une session uniquement si elle est encore dans le statut attendu (compare-
+     * and-set). Un seul UPDATE conditionnel, sans lecture préalable ni verrou applicatif : sous
+     * concurrence, une seule des écritures l'emporte et les autres voient 0 ligne modifiée.
+     *
+     * @return Le nombre de lignes modifiées, 0 si le statut avait déjà changé
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE KholleSession ks SET ks.status = :target, ks.version = ks.version + 1"
+            + " WHERE ks.id = :id AND ks.status = :expected")
+    int compareAndSetStatus(
+            @Param("id") Long id,
+            @Param("expected") KholleSessionStatus expected,
+            @Param("target") KholleSessionStatus target);
+
+    /**
+     * Rouvre les inscriptions d'une session, uniquement si elle est toujours dans la version donnée
+     * et qu'elle n'est pas déjà ouverte. La version est incrémentée.
+     *
+     * @return 1 si la session a été rouverte, 0 sinon
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE KholleSession ks"
+            + " SET ks.status = fr.redstom.khollendar.entity.KholleSessionStatus.REGISTRATIONS_OPEN,"
+            + " ks.version = ks.version + 1"
+            + " WHERE ks.id = :id AND ks.version = :version"
+            + " AND ks.status <> fr.redstom.khollendar.entity.KholleSessionStatus.REGISTRATIONS_OPEN")
+    int reopenRegistrations(@Param("id") Long id, @Param("version") Long version);
 }
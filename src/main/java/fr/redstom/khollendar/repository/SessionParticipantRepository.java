@@ -0,0 +1,84 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.repository;
+
+import fr.redstom.khollendar.dto.ParticipantSummary;
+import fr.redstom.khollendar.entity.SessionParticipant;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface SessionParticipantRepository extends JpaRepository<SessionParticipant, SessionParticipant.Key> {
+
+    /** Trouve les participants d'une session, triés par identifiant, sans charger les entités */
+    @Query("SELECT new fr.redstom.khollendar.dto.ParticipantSummary(u.id, u.username)"
+            + " FROM SessionParticipant p JOIN p.user u"
+            + " WHERE p.id.sessionId = :sessionId ORDER BY u.id")
+    List<ParticipantSummary> findSummariesBySessionId(@Param("sessionId") Long sessionId);
+
+    /** Indique si un étudiant participe à une session */
+    @Query("SELECT COUNT(p) > 0 FROM SessionParticipant p"
+            + " WHERE p.id.sessionId = :sessionId AND p.id.userId = :userId")
+    boolean isParticipant(@Param("sessionId") Long sessionId, @Param("userId") Long userId);
+
+    /** Inscrit les membres d'un groupe à une session */
+    @Modifying
+    @Transactional
+    @Query(
+            value = "INSERT INTO kholle_session_participants (session_id, user_id)"
+                    + " SELECT :sessionId, m.user_id FROM student_group_members m WHERE m.group_id = :groupId"
+                    + " ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    void enrollGroupMembers(@Param("sessionId") Long sessionId, @Param("groupId") Long groupId);
+
+    /**
+     * Inscrit des étudiants aux sessions à venir d'un groupe dont les affectations n'ont pas encore
+     * été publiées
+     */
+    @Modifying
+    @Transactional
+    @Query(
+            value = "INSERT INTO kholle_session_participants (session_id, user_id)"
+                    + " SELECT s.id, u.user_id FROM kholle_sessions s"
+                    + " CROSS JOIN unnest(CAST(:userIds AS bigint[])) AS u(user_id)"
+                    + " WHERE s.group_id = :groupId AND s.status <> 'RESULTS_AVAILABLE'"
+                    + " AND s.last_slot_at > LOCALTIMESTAMP"
+                    + " ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    void enrollInPendingGroupSessions(@Param("groupId") Long groupId, @Param("userIds") Long[] userIds);
+
+    /**
+     * Désinscrit un étudiant des sessions à venir d'un groupe dont les affectations n'ont pas encore
+     * été publiées. Les sessions passées ou publiées gardent leurs participants.
+     */
+    @Modifying
+    @Transactional
+    @Query(
+            value = "DELETE FROM kholle_session_participants p USING kholle_sessions s"
+                    + " WHERE p.session_id = s.id AND p.user_id = :userId"
+                    + " AND s.group_id = :groupId AND s.status <> 'RESULTS_AVAILABLE'"
+                    + " AND s.last_slot_at > LOCALTIMESTAMP",
+            nativeQuery = true)
+    void withdrawFromPendingGroupSessions(@Param("groupId") Long groupId, @Param("userId") Long userId);
+}
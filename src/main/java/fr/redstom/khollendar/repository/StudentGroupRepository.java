@@ -0,0 +1,63 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.repository;
+
+import fr.redstom.khollendar.dto.GroupSummary;
+import fr.redstom.khollendar.dto.ParticipantSummary;
+import fr.redstom.khollendar.entity.StudentGroup;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface StudentGroupRepository extends JpaRepository<StudentGroup, Long> {
+
+    boolean existsByName(String name);
+
+    /** Liste les groupes triés par nom, avec leur nombre de membres, sans charger les membres */
+    @Query("SELECT new fr.redstom.khollendar.dto.GroupSummary(g.id, g.name, COUNT(u))"
+            + " FROM StudentGroup g LEFT JOIN g.members u"
+            + " GROUP BY g.id, g.name ORDER BY g.name")
+    List<GroupSummary> findSummaries();
+
+    /** Trouve les membres d'un groupe, triés par nom, sans charger les entités */
+    @Query("SELECT new fr.redstom.khollendar.dto.ParticipantSummary(u.id, u.username)"
+            + " FROM StudentGroup g JOIN g.members u"
+            + " WHERE g.id = :groupId ORDER BY u.username")
+    List<ParticipantSummary> findMemberSummaries(@Param("groupId") Long groupId);
+
+    /** Ajoute des étudiants à un groupe, en ignorant ceux qui en sont déjà membres */
+    @Modifying
+    @Query(
+            value = "INSERT INTO student_group_members (group_id, user_id)"
+                    + " SELECT :groupId, u.user_id FROM unnest(CAST(:userIds AS bigint[])) AS u(user_id)"
+                    + " ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    int addMembers(@Param("groupId") Long groupId, @Param("userIds") Long[] userIds);
+
+    /** Retire un étudiant d'un groupe */
+    @Modifying
+    @Query(
+            value = "DELETE FROM student_group_members WHERE group_id = :groupId AND user_id = :userId",
+            nativeQuery = true)
+    int removeMember(@Param("groupId") Long groupId, @Param("userId") Long userId);
+}
@@ -18,10 +18,12 @@
  */
 package fr.redstom.khollendar.repository;
 
+import fr.redstom.khollendar.dto.PreferenceView;
 import fr.redstom.khollendar.entity.KholleSession;
 import fr.redstom.khollendar.entity.User;
 import fr.redstom.khollendar.entity.UserPreference;
 import java.util.List;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -33,8 +35,9 @@ public interface UserPreferenceRepository extends JpaRepository<UserPreference,
 
     /**
      * Trouve toutes les préférences d'un utilisateur pour une session donnée, ordonnées par rang de
-     * préférence
+     * préférence, avec leurs créneaux
      */
+    @EntityGraph(attributePaths = "slot")
     List<UserPreference> findByUserAndSessionOrderByPreferenceRankAsc(User user, KholleSession session);
 
     /** Supprime toutes les préférences existantes d'un utilisateur pour une session */
@@ -42,20 +45,91 @@ public interface UserPreferenceRepository extends JpaRepository<UserPreference,
     @Query("DELETE FROM UserPreference up WHERE up.user = :user AND up.session = :session")
     void deleteByUserAndSession(@Param("user") User user, @Param("session") KholleSession session);
 
+    /**
+     * Remplace les préférences d'un utilisateur pour une session en une seule requête. Les trois
+     * tableaux décrivent une préférence par indice, un créneau n'y figurant qu'une fois. Seules les
+     * différences avec les lignes existantes sont écrites : les créneaux absents des tableaux sont
+     * supprimés, les lignes modifiées mises à jour, et seules les nouvelles lignes consomment un
+     * identifiant. Une soumission concurrente des mêmes créneaux est résolue par la contrainte
+     * d'unicité (user_id, session_id, slot_id).
+     *
+     * <p>Les identifiants sont réservés comme le fait l'optimiseur « pooled » d'Hibernate (séquence
+     * incrémentée de 50, {@code allocationSize} de {@link UserPreference}) : un seul {@code nextval}
+     * par tranche de 50 nouvelles lignes, la valeur obtenue étant la borne haute de la tranche.
+     * Une valeur inférieure à 50 (séquence neuve) est écartée, comme Hibernate le fait, pour ne
+     * jamais produire d'identifiant négatif.
+     *
+     * @return Le nombre de lignes insérées ou mises à jour par l'INSERT
+     */
+    @Modifying
+    @Query(
+            value = "WITH wanted AS ("
+                    + "  SELECT * FROM unnest(CAST(:slotIds AS bigint[]), CAST(:ranks AS integer[]),"
+                    + "  CAST(:unavailable AS boolean[])) AS w(slot_id, preference_rank, is_unavailable)"
+                    + "), removed AS ("
+                    + "  DELETE FROM user_preferences p"
+                    + "  WHERE p.user_id = :userId AND p.session_id = :sessionId"
+                    + "  AND p.slot_id <> ALL (CAST(:slotIds AS bigint[]))"
+                    + "), changed AS ("
+                    + "  UPDATE user_preferences p"
+                    + "  SET preference_rank = w.preference_rank, is_unavailable = w.is_unavailable"
+                    + "  FROM wanted w"
+                    + "  WHERE p.user_id = :userId AND p.session_id = :sessionId AND p.slot_id = w.slot_id"
+                    + "  AND (p.preference_rank <> w.preference_rank OR p.is_unavailable <> w.is_unavailable)"
+                    + "), added AS ("
+                    + "  SELECT w.*, row_number() OVER (ORDER BY w.slot_id) - 1 AS n FROM wanted w"
+                    + "  WHERE NOT EXISTS (SELECT 1 FROM user_preferences p"
+                    + "  WHERE p.user_id = :userId AND p.session_id = :sessionId AND p.slot_id = w.slot_id)"
+                    + "), reserved AS ("
+                    + "  SELECT b.block, nextval('user_preference_seq') AS hi"
+                    + "  FROM generate_series(0, (SELECT (count(*) + 49) / 50 - 1 FROM added)) AS b(block)"
+                    + "), blocks AS ("
+                    + "  SELECT block, CASE WHEN hi < 50 THEN nextval('user_preference_seq') ELSE hi END AS hi"
+                    + "  FROM reserved"
+                    + ")"
+                    + " INSERT INTO user_preferences"
+                    + " (id, user_id, session_id, slot_id, preference_rank, is_unavailable)"
+                    + " SELECT b.hi - 49 + a.n % 50, :userId, :sessionId, a.slot_id, a.preference_rank,"
+                    + " a.is_unavailable FROM added a JOIN blocks b ON b.block = a.n / 50"
+                    + " ON CONFLICT (user_id, session_id, slot_id) DO UPDATE"
+                    + " SET preference_rank = EXCLUDED.preference_rank, is_unavailable = EXCLUDED.is_unavailable",
+            nativeQuery = true)
+    int replacePreferences(
+            @Param("userId") Long userId,
+            @Param("sessionId") Long sessionId,
+            @Param("slotIds") Long[] slotIds,
+            @Param("ranks") Integer[] ranks,
+            @Param("unavailable") Boolean[] unavailable);
+
     /** Vérifie si un utilisateur a déjà enregistré ses préférences pour une session */
     boolean existsByUserAndSession(User user, KholleSession session);
 
     /**
-     * Compte le nombre d'utilisateurs distincts ayant enregistré des préférences pour une session
+     * Lit les préférences d'une session pour sa page publique, triées par étudiant puis par rang,
+     * sans charger les entités : une ligne par préférence, avec le nom de l'étudiant et la date du
+     * créneau
      */
-    @Query("SELECT COUNT(DISTINCT up.user) FROM UserPreference up WHERE up.session = :session")
-    long countDistinctUsersBySession(@Param("session") KholleSession session);
+    @Query("SELECT new fr.redstom.khollendar.dto.PreferenceView(u.id, u.username, s.dateTime, up.preferenceRank,"
+            + " up.isUnavailable)"
+            + " FROM UserPreference up JOIN up.user u JOIN up.slot s"
+            + " WHERE up.session.id = :sessionId ORDER BY u.id, up.preferenceRank")
+    List<PreferenceView> findViewsBySessionId(@Param("sessionId") Long sessionId);
 
     /**
      * Récupère toutes les préférences pour une session, triées par utilisateur puis par rang de
-     * préférence
+     * préférence. Ni les utilisateurs ni les créneaux ne sont chargés : seuls leurs identifiants
+     * sont lus (calcul des affectations).
      */
     @Query("SELECT up FROM UserPreference up WHERE up.session = :session ORDER BY up.user.id ASC,"
             + " up.preferenceRank ASC")
     List<UserPreference> findBySessionOrderByUserIdAscPreferenceRankAsc(@Param("session") KholleSession session);
+
+    /**
+     * Récupère toutes les préférences pour une session avec leurs utilisateurs et créneaux, triées
+     * par utilisateur puis par rang de préférence (pages d'affichage)
+     */
+    @EntityGraph(attributePaths = {"user", "slot"})
+    @Query("SELECT up FROM UserPreference up WHERE up.session = :session ORDER BY up.user.id ASC,"
+            + " up.preferenceRank ASC")
+    List<UserPreference> findWithUserAndSlotBySession(@Param("session") KholleSession session);
 }
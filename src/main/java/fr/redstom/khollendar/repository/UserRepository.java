@@ -19,7 +19,12 @@
 package fr.redstom.khollendar.repository;
 
 import fr.redstom.khollendar.entity.User;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -29,5 +34,11 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     boolean existsByUsername(String username);
 
+    /** Trouve les utilisateurs dont le nom figure dans la liste donnée */
+    List<User> findByUsernameIn(Collection<String> usernames);
+
+    /** Trouve les utilisateurs qui suivent la position donnée, triés par ID, sans décalage ni comptage */
+    Window<User> findAllByOrderByIdAsc(ScrollPosition position, Limit limit);
+
     Long id(Long id);
 }
@@ -0,0 +1,92 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.service;
+
+import fr.redstom.khollendar.assignment.AssignmentMode;
+import fr.redstom.khollendar.assignment.AssignmentResult;
+import fr.redstom.khollendar.assignment.AssignmentScore;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import lombok.Getter;
+
+/**
+ * Calcul d'affectation exécuté en arrière-plan, complet ou incrémental. Son état est mis à jour par
+ * le thread de calcul et lu par les requêtes de suivi, d'où les champs {@code volatile}.
+ */
+@Getter
+public final class AssignmentJob implements AssignmentProgressListener {
+
+    private final UUID id = UUID.randomUUID();
+    private final Long sessionId;
+    private final AssignmentMode mode;
+
+    /** Mise à jour incrémentale des affectations existantes plutôt que recalcul complet */
+    private final boolean incremental;
+
+    private final LocalDateTime createdAt = LocalDateTime.now();
+
+    private volatile AssignmentPhase phase = AssignmentPhase.QUEUED;
+    private volatile LocalDateTime finishedAt;
+
+    /** Statistiques du résultat, disponibles dès la fin du calcul */
+    private volatile AssignmentScore score;
+
+    private volatile int worstRank;
+    private volatile String error;
+
+    AssignmentJob(Long sessionId, AssignmentMode mode, boolean incremental) {
+        this.sessionId = sessionId;
+        this.mode = mode;
+        this.incremental = incremental;
+    }
+
+    /** Nom du calcul affiché à l'administrateur */
+    public String label() {
+        return incremental ? "Mise à jour incrémentale" : mode.label();
+    }
+
+    @Override
+    public void onPhase(AssignmentPhase phase) {
+        this.phase = phase;
+    }
+
+    @Override
+    public void onResult(AssignmentResult result) {
+        this.worstRank = result.worstRank();
+        this.score = AssignmentScore.of(result);
+    }
+
+    /** Marque le calcul comme terminé avec succès */
+    void complete() {
+        finishedAt = LocalDateTime.now();
+        phase = AssignmentPhase.DONE;
+    }
+
+    /** Marque le calcul comme échoué */
+    void fail(String message) {
+        error = message;
+        finishedAt = LocalDateTime.now();
+        phase = AssignmentPhase.FAILED;
+    }
+
+    /** Indique si le calcul est terminé, avec succès ou non */
+    public boolean finished() {
+        return phase.finished();
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.service;
+
+import fr.redstom.khollendar.assignment.AssignmentMode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service d'exécution des affectations en arrière-plan. Les calculs sont confiés à un exécuteur
+ * borné (threads virtuels, nombre de calculs simultanés et file d'attente limités) pour que la
+ * requête de déclenchement réponde immédiatement. Deux demandes pour la même session sont
+ * fusionnées, qu'il s'agisse d'un recalcul complet ou d'une mise à jour incrémentale : tant qu'un
+ * calcul est en cours, c'est lui qui est renvoyé.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AssignmentJobService {
+
+    private final KholleAssignmentService assignmentService;
+
+    @Value("${kholle.assignment.jobs.max-concurrent:2}")
+    private int maxConcurrent = 2;
+
+    @Value("${kholle.assignment.jobs.queue-capacity:16}")
+    private int queueCapacity = 16;
+
+    @Value("${kholle.assignment.jobs.retention-minutes:60}")
+    private long retentionMinutes = 60;
+
+    /** Tous les calculs connus, y compris les calculs terminés encore conservés */
+    private final Map<UUID, AssignmentJob> jobs = new ConcurrentHashMap<>();
+
+    /** Calcul en cours ou en attente pour chaque session */
+    private final Map<Long, AssignmentJob> activeJobs = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void start() {
+        executor = new ThreadPoolExecutor(
+                maxConcurrent,
+                maxConcurrent,
+                0,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofVirtual().name("assignment-job-", 0).factory());
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Planifie l'affectation d'une session, ou renvoie le calcul déjà en cours pour cette session
+     *
+     * @param sessionId L'identifiant de la session
+     * @param mode L'algorithme à utiliser, ou {@code null} pour l'algorithme par défaut
+     * @return Le calcul planifié ou en cours
+     * @throws IllegalStateException Si trop de calculs sont déjà en attente
+     */
+    public AssignmentJob submit(Long sessionId, AssignmentMode mode) {
+        return schedule(new AssignmentJob(sessionId, mode != null ? mode : assignmentService.defaultMode(), false));
+    }
+
+    /**
+     * Planifie la mise à jour incrémentale des affectations d'une session, ou renvoie le calcul déjà
+     * en cours pour cette session
+     *
+     * @param sessionId L'identifiant de la session
+     * @return Le calcul planifié ou en cours
+     * @throws IllegalStateException Si trop de calculs sont déjà en attente
+     * @see KholleAssignmentService#reassignAffectedStudents(Long)
+     */
+    public AssignmentJob submitUpdate(Long sessionId) {
+        return schedule(new AssignmentJob(sessionId, null, true));
+    }
+
+    private AssignmentJob schedule(AssignmentJob job) {
+        purgeFinishedJobs();
+
+        Long sessionId = job.sessionId();
+        // Enregistré avant d'être publié comme calcul actif : une demande concurrente fusionnée avec
+        // lui peut aussitôt le retrouver par son identifiant
+        jobs.put(job.id(), job);
+        AssignmentJob running = activeJobs.putIfAbsent(sessionId, job);
+        if (running != null) {
+            jobs.remove(job.id(), job);
+            log.info("Affectation de la session {} déjà en cours ({}), demande fusionnée", sessionId, running.id());
+            return running;
+        }
+
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            job.fail("Trop de calculs d'affectation en attente");
+            activeJobs.remove(sessionId, job);
+            throw new IllegalStateException("Trop de calculs d'affectation en attente, réessayez plus tard", e);
+        }
+
+        log.info("Affectation de la session {} planifiée ({}, {})", sessionId, job.id(), job.label());
+        return job;
+    }
+
+    /** Récupère un calcul par son identifiant */
+    public Optional<AssignmentJob> getJob(UUID jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    private void run(AssignmentJob job) {
+        try {
+            if (job.incremental()) {
+                assignmentService.reassignAffectedStudents(job.sessionId(), job);
+            } else {
+                assignmentService.assignStudentsToSlots(job.sessionId(), job.mode(), job);
+            }
+            job.complete();
+        } catch (Exception e) {
+            log.error("Erreur lors de l'affectation de la session {} ({})", job.sessionId(), job.id(), e);
+            job.fail(e.getMessage());
+        } finally {
+            activeJobs.remove(job.sessionId(), job);
+        }
+    }
+
+    /** Oublie les calculs terminés depuis plus longtemps que la durée de conservation */
+    private void purgeFinishedJobs() {
+        LocalDateTime threshold = LocalDateTime.now().minusMinutes(retentionMinutes);
+        jobs.values().removeIf(job -> job.finished() && job.finishedAt().isBefore(threshold));
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.service;
+
+import lombok.Getter;
+
+/**
+ * Étapes successives d'un calcul d'affectation. La durée de chaque étape dépend de la taille de
+ * la session : elles sont affichées comme une liste d'étapes, pas comme un pourcentage.
+ */
+@Getter
+public enum AssignmentPhase {
+    /** Le calcul attend qu'un exécuteur se libère */
+    QUEUED("En attente"),
+
+    /** Chargement de la session, des participants et des préférences */
+    LOADING("Chargement de la session"),
+
+    /** Résolution du problème d'affectation, hors transaction */
+    SOLVING("Calcul des affectations"),
+
+    /** Enregistrement des affectations en base */
+    PERSISTING("Enregistrement des affectations"),
+
+    /** Le calcul est terminé et les affectations sont publiées */
+    DONE("Terminé"),
+
+    /** Le calcul a échoué, les affectations précédentes sont conservées */
+    FAILED("Échec");
+
+    private final String label;
+
+    AssignmentPhase(String label) {
+        this.label = label;
+    }
+
+    /** Indique si le calcul est terminé, avec succès ou non */
+    public boolean finished() {
+        return this == DONE || this == FAILED;
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.service;
+
+import fr.redstom.khollendar.assignment.AssignmentResult;
+
+/** Suivi de l'avancement d'un calcul d'affectation */
+public interface AssignmentProgressListener {
+
+    /** Suivi qui ignore tous les événements */
+    AssignmentProgressListener NONE = phase -> {};
+
+    /** Appelé au début de chaque étape du calcul */
+    void onPhase(AssignmentPhase phase);
+
+    /** Appelé une fois les affectations calculées, avant leur enregistrement */
+    default void onResult(AssignmentResult result) {}
+}
@@ -18,22 +18,38 @@
  */
 package fr.redstom.khollendar.service;
 
+import fr.redstom.khollendar.assignment.AssignmentMode;
+import fr.redstom.khollendar.assignment.AssignmentProblem;
+import fr.redstom.khollendar.assignment.AssignmentResult;
+import fr.redstom.khollendar.assignment.AssignmentScore;
+import fr.redstom.khollendar.assignment.AssignmentSolver;
+import fr.redstom.khollendar.assignment.CapacityPolicy;
+import fr.redstom.khollendar.assignment.IncrementalRepair;
+import fr.redstom.khollendar.dto.AssignmentView;
+import fr.redstom.khollendar.dto.ParticipantSummary;
 import fr.redstom.khollendar.entity.*;
 import fr.redstom.khollendar.repository.KholleAssignmentRepository;
 import fr.redstom.khollendar.repository.KholleSessionRepository;
+import fr.redstom.khollendar.repository.SessionParticipantRepository;
 import fr.redstom.khollendar.repository.UserPreferenceRepository;
 import fr.redstom.khollendar.repository.UserRepository;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
- * Service gérant l'affectation automatique des étudiants aux créneaux de khôlle. Utilise un
- * algorithme de max-min fairness pour minimiser la déception maximale.
+ * Service gérant l'affectation automatique des étudiants aux créneaux de khôlle. Le calcul est
+ * délégué au moteur {@link AssignmentSolver}, sans persistance : ce service ne fait que charger la
+ * session puis enregistrer le résultat, chacun dans une transaction courte.
  */
 @Service
 @RequiredArgsConstructor
@@ -44,24 +60,387 @@ public class KholleAssignmentService {
     private final UserPreferenceRepository preferenceRepository;
     private final KholleAssignmentRepository assignmentRepository;
     private final UserRepository userRepository;
-    private final Random random = new Random();
+    private final SessionParticipantRepository participantRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final LeaseService leaseService;
+    private final KholleSessionCache sessionCache;
+
+    @Value("${kholle.assignment.mode:MAX_MIN_FAIRNESS}")
+    private AssignmentMode defaultMode = AssignmentMode.MAX_MIN_FAIRNESS;
+
+    @Value("${kholle.assignment.attempts:1}")
+    private int attempts = 1;
+
+    @Value("${kholle.assignment.local-search-ms:0}")
+    private long localSearchMillis = 0;
+
+    @Value("${kholle.assignment.capacity-policy:BALANCED}")
+    private CapacityPolicy capacityPolicy = CapacityPolicy.BALANCED;
+
+    @Value("${kholle.assignment.session-lease-minutes:30}")
+    private long sessionLeaseMinutes = 30;
+
+    @Value("${kholle.assignment.max-chain-length:3}")
+    private int maxChainLength = 3;
 
     /**
-     * Affecte tous les étudiants aux créneaux d'une session selon leurs préférences. Applique un
-     * algorithme de max-min fairness pour minimiser la déception maximale.
+     * Affecte tous les participants aux créneaux d'une session selon leurs préférences, avec
+     * l'algorithme configuré par défaut ({@code kholle.assignment.mode}).
      *
      * @param sessionId L'identifiant de la session
      * @return Une map associant chaque étudiant au créneau qui lui a été attribué
      * @throws IllegalArgumentException Si la session n'existe pas
-     * @throws IllegalStateException Si la session n'a pas de créneaux
+     * @throws IllegalStateException Si la session n'a pas de créneaux, ou si elle est déjà en cours
+     *     d'affectation
      */
-    @Transactional
     public Map<User, KholleSlot> assignStudentsToSlots(Long sessionId) {
-        log.info("Début de l'affectation pour la session {}", sessionId);
+        return assignStudentsToSlots(sessionId, defaultMode);
+    }
+
+    /**
+     * Affecte tous les participants aux créneaux d'une session selon leurs préférences, avec
+     * l'algorithme demandé. Le mode {@link AssignmentMode#MIN_COST} minimise la somme des rangs
+     * obtenus, le mode {@link AssignmentMode#LEXIMIN} minimise la déception maximale puis le nombre
+     * d'étudiants qui la subissent.
+     *
+     * <p>La session est lue dans une transaction en lecture seule, le calcul se fait hors de toute
+     * transaction, puis les affectations sont remplacées dans une seconde transaction : aucune
+     * connexion n'est retenue pendant la résolution. Le passage au statut RESULTS_AVAILABLE est
+     * conditionné au statut lu au départ : si le statut a changé pendant le calcul, rien n'est
+     * enregistré.
+     *
+     * @param sessionId L'identifiant de la session
+     * @param mode L'algorithme d'affectation à utiliser
+     * @return Une map associant chaque étudiant au créneau qui lui a été attribué
+     * @throws IllegalArgumentException Si la session n'existe pas
+     * @throws IllegalStateException Si la session n'a pas de créneaux, ou si elle est déjà en cours
+     *     d'affectation
+     */
+    public Map<User, KholleSlot> assignStudentsToSlots(Long sessionId, AssignmentMode mode) {
+        return assignStudentsToSlots(sessionId, mode, AssignmentProgressListener.NONE);
+    }
+
+    /**
+     * Affecte tous les participants aux créneaux d'une session, en signalant l'avancement de
+     * chaque étape au suivi fourni
+     *
+     * @param sessionId L'identifiant de la session
+     * @param mode L'algorithme d'affectation à utiliser
+     * @param listener Le suivi de l'avancement
+     * @return Une map associant chaque étudiant au créneau qui lui a été attribué
+     * @throws IllegalArgumentException Si la session n'existe pas
+     * @throws IllegalStateException Si la session n'a pas de créneaux, ou si elle est déjà en cours
+     *     d'affectation
+     * @throws OptimisticLockingFailureException Si le statut de la session a changé pendant le calcul
+     * @see #assignStudentsToSlots(Long, AssignmentMode)
+     */
+    public Map<User, KholleSlot> assignStudentsToSlots(
+            Long sessionId, AssignmentMode mode, AssignmentProgressListener listener) {
+        return withSessionLease(sessionId, () -> assign(sessionId, mode, listener, false));
+    }
+
+    /**
+     * Affecte une session dont les résultats ne sont pas encore publiés. Si la session est déjà au
+     * statut RESULTS_AVAILABLE (affectée entre-temps par un administrateur), elle est refusée avant
+     * tout calcul au lieu d'être recalculée.
+     *
+     * @param sessionId L'identifiant de la session
+     * @param mode L'algorithme d'affectation à utiliser
+     * @param listener Le suivi de l'avancement
+     * @return Une map associant chaque étudiant au créneau qui lui a été attribué
+     * @throws OptimisticLockingFailureException Si les résultats sont déjà publiés, ou si le statut
+     *     de la session a changé pendant le calcul
+     * @see #assignStudentsToSlots(Long, AssignmentMode, AssignmentProgressListener)
+     */
+    public Map<User, KholleSlot> assignPendingSession(
+            Long sessionId, AssignmentMode mode, AssignmentProgressListener listener) {
+        return withSessionLease(sessionId, () -> assign(sessionId, mode, listener, true));
+    }
+
+    private Map<User, KholleSlot> assign(
+            Long sessionId, AssignmentMode mode, AssignmentProgressListener listener, boolean pendingOnly) {
+        log.info("Début de l'affectation pour la session {} ({})", sessionId, mode.label());
+
+        listener.onPhase(AssignmentPhase.LOADING);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        SessionSnapshot snapshot = readOnly.execute(status -> loadSnapshot(sessionId));
+        AssignmentProblem problem = snapshot.problem();
+
+        if (pendingOnly && snapshot.session().status() == KholleSessionStatus.RESULTS_AVAILABLE) {
+            throw new OptimisticLockingFailureException(
+                    "Les résultats de la session " + sessionId + " sont déjà publiés, affectation ignorée");
+        }
+
+        int unassignableUser = problem.firstUnassignableUser();
+        if (unassignableUser >= 0) {
+            throw new IllegalStateException("Impossible de trouver un créneau disponible pour l'utilisateur "
+                    + snapshot.users().get(unassignableUser).username()
+                    + ". Tous les créneaux sont marqués comme indisponibles.");
+        }
+
+        // Application de l'algorithme d'affectation, hors transaction
+        listener.onPhase(AssignmentPhase.SOLVING);
+        long seed = ThreadLocalRandom.current().nextLong();
+        log.info("  - {} tentative(s), graine {}", attempts, seed);
+
+        AssignmentResult result = new AssignmentSolver(attempts, Duration.ofMillis(localSearchMillis))
+                .solve(problem, mode, seed);
+        listener.onResult(result);
+
+        // Retour aux entités, une seule fois, pour la sauvegarde des affectations en base
+        LocalDateTime now = LocalDateTime.now();
+        Map<User, KholleSlot> assignments = new LinkedHashMap<>();
+        List<KholleAssignment> assignmentEntities = new ArrayList<>(problem.userCount());
+        for (int user = 0; user < problem.userCount(); user++) {
+            KholleSlot slot = snapshot.slots().get(result.slotOf(user));
+            int obtainedRank = result.obtainedRank(user);
+
+            assignments.put(snapshot.users().get(user), slot);
+            assignmentEntities.add(KholleAssignment.builder()
+                    .user(snapshot.users().get(user))
+                    .session(snapshot.session())
+                    .slot(slot)
+                    .assignedAt(now)
+                    .obtainedPreferenceRank(obtainedRank > 0 ? obtainedRank : null)
+                    .build());
+        }
+
+        listener.onPhase(AssignmentPhase.PERSISTING);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            leaseService.lockForTransaction(sessionLeaseName(sessionId));
+
+            // Passage à RESULTS_AVAILABLE en premier : un statut modifié entre-temps annule tout
+            publishResults(sessionId, snapshot.session().status());
+
+            // Remplacement des anciennes affectations si elles existent
+            assignmentRepository.deleteBySession(snapshot.session());
+            assignmentRepository.saveAll(assignmentEntities);
+        });
+
+        log.info("Affectation terminée pour la session {}. {} affectations créées.", sessionId, assignments.size());
+        logAssignmentStatistics(result);
+
+        return assignments;
+    }
+
+    /**
+     * Met à jour les affectations d'une session après la publication des résultats, sans tout
+     * recalculer. Seuls les étudiants concernés sont replacés : ceux qui n'ont pas encore
+     * d'affectation, ceux dont le créneau est devenu indisponible, et ceux dont les préférences ont
+     * changé depuis (le rang enregistré ne correspond plus au rang actuel). Les autres ne bougent
+     * que s'ils font partie d'une courte chaîne de déplacements ({@code
+     * kholle.assignment.max-chain-length}) ouverte pour faire de la place.
+     *
+     * <p>Seules les lignes modifiées sont réécrites, sans suppression préalable des affectations. Les
+     * affectations des étudiants qui ne participent plus à la session sont supprimées dans la même
+     * transaction, pour libérer leur place dans les créneaux.
+     *
+     * @param sessionId L'identifiant de la session
+     * @return Une map associant chaque étudiant au créneau qui lui est désormais attribué
+     * @throws IllegalArgumentException Si la session n'existe pas
+     * @throws IllegalStateException Si la session n'a pas de créneaux, ou si elle est déjà en cours
+     *     d'affectation
+     */
+    public Map<User, KholleSlot> reassignAffectedStudents(Long sessionId) {
+        return reassignAffectedStudents(sessionId, AssignmentProgressListener.NONE);
+    }
+
+    /**
+     * Met à jour les affectations d'une session sans tout recalculer, en signalant l'avancement de
+     * chaque étape au suivi fourni
+     *
+     * @param sessionId L'identifiant de la session
+     * @param listener Le suivi de l'avancement
+     * @return Une map associant chaque étudiant au créneau qui lui est désormais attribué
+     * @throws IllegalArgumentException Si la session n'existe pas
+     * @throws IllegalStateException Si la session n'a pas de créneaux, ou si elle est déjà en cours
+     *     d'affectation
+     * @throws OptimisticLockingFailureException Si le statut de la session a changé pendant le calcul
+     * @see #reassignAffectedStudents(Long)
+     */
+    public Map<User, KholleSlot> reassignAffectedStudents(Long sessionId, AssignmentProgressListener listener) {
+        return withSessionLease(sessionId, () -> reassign(sessionId, listener));
+    }
+
+    private Map<User, KholleSlot> reassign(Long sessionId, AssignmentProgressListener listener) {
+        log.info("Début de la mise à jour incrémentale des affectations pour la session {}", sessionId);
+
+        listener.onPhase(AssignmentPhase.LOADING);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        record Loaded(SessionSnapshot snapshot, List<KholleAssignment> assignments) {}
+        Loaded loaded = readOnly.execute(status -> {
+            SessionSnapshot snapshot = loadSnapshot(sessionId);
+            return new Loaded(snapshot, assignmentRepository.findBySession(snapshot.session()));
+        });
+        SessionSnapshot snapshot = loaded.snapshot();
+        AssignmentProblem problem = snapshot.problem();
+
+        int unassignableUser = problem.firstUnassignableUser();
+        if (unassignableUser >= 0) {
+            throw new IllegalStateException("Impossible de trouver un créneau disponible pour l'utilisateur "
+                    + snapshot.users().get(unassignableUser).username()
+                    + ". Tous les créneaux sont marqués comme indisponibles.");
+        }
+
+        // Repérage des affectations existantes encore valides, par index étudiant / créneau
+        Map<Long, Integer> userIndex = new HashMap<>(problem.userCount() * 2);
+        for (int user = 0; user < problem.userCount(); user++) {
+            userIndex.put(problem.userId(user), user);
+        }
+        Map<Long, Integer> slotIndex = new HashMap<>(problem.slotCount() * 2);
+        for (int slot = 0; slot < problem.slotCount(); slot++) {
+            slotIndex.put(problem.slotId(slot), slot);
+        }
 
-        // Récupération de la session
+        int[] current = new int[problem.userCount()];
+        Arrays.fill(current, -1);
+        KholleAssignment[] existing = new KholleAssignment[problem.userCount()];
+        List<KholleAssignment> withdrawn = new ArrayList<>();
+        for (KholleAssignment assignment : loaded.assignments()) {
+            Integer user = userIndex.get(assignment.user().id());
+            Integer slot = slotIndex.get(assignment.slot().id());
+            if (user == null) {
+                // L'étudiant ne participe plus à la session : son affectation est supprimée
+                withdrawn.add(assignment);
+                continue;
+            }
+
+            existing[user] = assignment;
+            if (slot != null
+                    && !problem.isUnavailable(user, slot)
+                    && isRankUpToDate(problem, user, slot, assignment)) {
+                current[user] = slot;
+            }
+        }
+
+        long affected = Arrays.stream(current).filter(slot -> slot < 0).count();
+        log.info("  - {} étudiant(s) à replacer, chaînes de {} déplacement(s) au plus", affected, maxChainLength);
+
+        listener.onPhase(AssignmentPhase.SOLVING);
+        AssignmentResult result = new IncrementalRepair(maxChainLength).repair(problem, current);
+        listener.onResult(result);
+
+        // Seules les affectations dont le créneau ou le rang change sont réécrites
+        LocalDateTime now = LocalDateTime.now();
+        Map<User, KholleSlot> assignments = new LinkedHashMap<>();
+        List<KholleAssignment> changed = new ArrayList<>();
+        for (int user = 0; user < problem.userCount(); user++) {
+            int assigned = result.slotOf(user);
+            KholleSlot slot = snapshot.slots().get(assigned);
+            assignments.put(snapshot.users().get(user), slot);
+
+            if (current[user] == assigned) {
+                continue;
+            }
+
+            int obtainedRank = result.obtainedRank(user);
+            KholleAssignment.KholleAssignmentBuilder builder = existing[user] != null
+                    ? existing[user].toBuilder()
+                    : KholleAssignment.builder()
+                            .user(snapshot.users().get(user))
+                            .session(snapshot.session());
+            changed.add(builder.slot(slot)
+                    .assignedAt(now)
+                    .obtainedPreferenceRank(obtainedRank > 0 ? obtainedRank : null)
+                    .build());
+        }
+
+        listener.onPhase(AssignmentPhase.PERSISTING);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            leaseService.lockForTransaction(sessionLeaseName(sessionId));
+            publishResults(sessionId, snapshot.session().status());
+            if (!withdrawn.isEmpty()) {
+                assignmentRepository.deleteAllInBatch(withdrawn);
+            }
+            assignmentRepository.saveAll(changed);
+        });
+
+        log.info(
+                "Mise à jour terminée pour la session {}. {} affectations modifiées, {} supprimées.",
+                sessionId,
+                changed.size(),
+                withdrawn.size());
+        logAssignmentStatistics(result);
+
+        return assignments;
+    }
+
+    /**
+     * Passe la session au statut RESULTS_AVAILABLE si elle a toujours le statut lu avant le calcul.
+     * Une session encore ouverte passe d'abord par REGISTRATIONS_CLOSED, dans la même transaction
+     * que l'écriture des affectations : un calcul qui échoue laisse ses inscriptions ouvertes.
+     * Lorsque les résultats sont déjà publiés, seule la version de la session est incrémentée.
+     *
+     * @throws OptimisticLockingFailureException Si le statut a changé depuis la lecture
+     */
+    private void publishResults(Long sessionId, KholleSessionStatus expected) {
+        if (expected == KholleSessionStatus.REGISTRATIONS_OPEN) {
+            if (sessionRepository.compareAndSetStatus(
+                            sessionId, KholleSessionStatus.REGISTRATIONS_OPEN, KholleSessionStatus.REGISTRATIONS_CLOSED)
+                    == 0) {
+                throw new OptimisticLockingFailureException("Le statut de la session " + sessionId
+                        + " a changé pendant le calcul, affectations non enregistrées");
+            }
+            expected = KholleSessionStatus.REGISTRATIONS_CLOSED;
+        }
+
+        if (sessionRepository.compareAndSetStatus(sessionId, expected, KholleSessionStatus.RESULTS_AVAILABLE) == 0) {
+            throw new OptimisticLockingFailureException("Le statut de la session " + sessionId
+                    + " a changé pendant le calcul, affectations non enregistrées");
+        }
+
+        sessionCache.evict(sessionId);
+    }
+
+    /**
+     * Exécute une affectation sous le bail de sa session : une même session n'est jamais calculée
+     * par deux tâches à la fois, y compris sur des instances différentes de l'application
+     *
+     * @throws IllegalStateException Si une affectation est déjà en cours pour cette session
+     */
+    private <T> T withSessionLease(Long sessionId, Supplier<T> action) {
+        LeaseService.Lease lease = leaseService
+                .tryAcquire(sessionLeaseName(sessionId), Duration.ofMinutes(sessionLeaseMinutes))
+                .orElseThrow(() ->
+                        new IllegalStateException("Une affectation est déjà en cours pour la session " + sessionId));
+        try {
+            return action.get();
+        } finally {
+            leaseService.release(lease);
+        }
+    }
+
+    private static String sessionLeaseName(Long sessionId) {
+        return "assignment-session-" + sessionId;
+    }
+
+    /** Indique si le rang enregistré pour une affectation correspond encore aux préférences actuelles */
+    private boolean isRankUpToDate(AssignmentProblem problem, int user, int slot, KholleAssignment assignment) {
+        int rank = problem.rank(user, slot);
+        Integer stored = assignment.obtainedPreferenceRank();
+        return rank > 0 ? stored != null && stored == rank : stored == null;
+    }
+
+    /** Algorithme utilisé lorsqu'aucun mode n'est demandé ({@code kholle.assignment.mode}) */
+    public AssignmentMode defaultMode() {
+        return defaultMode;
+    }
+
+    /** Session chargée et compilée, détachée de toute transaction */
+    private record SessionSnapshot(
+            KholleSession session, List<User> users, List<KholleSlot> slots, AssignmentProblem problem) {}
+
+    /**
+     * Charge la session, ses préférences et les étudiants, puis les compile en un problème
+     * d'affectation
+     */
+    private SessionSnapshot loadSnapshot(Long sessionId) {
+        // Récupération de la session et de ses créneaux en une requête ; les préférences ne chargent
+        // ni les utilisateurs ni les créneaux, seuls leurs identifiants servent au calcul
         KholleSession session = sessionRepository
-                .findById(sessionId)
+                .findKholleSessionById(sessionId)
                 .orElseThrow(() -> new IllegalArgumentException("Session non trouvée : " + sessionId));
 
         List<KholleSlot> slots = session.kholleSlots();
@@ -69,242 +448,116 @@ public class KholleAssignmentService {
             throw new IllegalStateException("Aucun créneau disponible pour cette session");
         }
 
-        // Suppression des anciennes affectations si elles existent
-        assignmentRepository.deleteBySession(session);
-
         // Récupération de toutes les préférences pour cette session
         List<UserPreference> allPreferences =
                 preferenceRepository.findBySessionOrderByUserIdAscPreferenceRankAsc(session);
 
-        // Groupement des préférences par utilisateur
-        Map<User, List<UserPreference>> preferencesByUser =
-                allPreferences.stream().collect(Collectors.groupingBy(UserPreference::user));
-
-        // Récupération de TOUS les utilisateurs de l'application
-        List<User> allUsers = userRepository.findAll();
-        Set<User> allUsersSet = new HashSet<>(allUsers);
+        // Récupération des seuls participants de la session, triés par ID pour un indexage stable. Une
+        // projection suffit : les étudiants ne servent ensuite que de référence pour les affectations
+        List<User> participants = participantRepository.findSummariesBySessionId(sessionId).stream()
+                .map(this::toUserReference)
+                .toList();
 
-        // Calcul de la capacité moyenne par créneau basée sur TOUS les utilisateurs
-        int totalStudents = allUsersSet.size();
+        // Calcul de la capacité de chaque créneau basée sur les participants
+        int totalStudents = participants.size();
         int numberOfSlots = slots.size();
-        int averageCapacity = (int) Math.ceil((double) totalStudents / numberOfSlots);
+        int[] overrides = new int[numberOfSlots];
+        for (int slot = 0; slot < numberOfSlots; slot++) {
+            Integer capacity = slots.get(slot).capacity();
+            overrides[slot] = capacity != null ? capacity : CapacityPolicy.AUTOMATIC;
+        }
+        int[] capacities = capacityPolicy.capacities(totalStudents, overrides);
+
+        // Compilation de la session en tableaux denses (index étudiant / index créneau)
+        AssignmentProblem problem = compileProblem(participants, slots, allPreferences, capacities);
+        long usersWithPreferences = allPreferences.stream()
+                .map(pref -> pref.user().id())
+                .distinct()
+                .count();
 
         log.info(
-                "Session {}: {} étudiants à affecter sur {} créneaux (capacité moyenne: {})",
+                "Session {}: {} étudiants à affecter sur {} créneaux (capacités: {})",
                 sessionId,
                 totalStudents,
                 numberOfSlots,
-                averageCapacity);
-        log.info("  - {} étudiants avec préférences", preferencesByUser.size());
-        log.info("  - {} étudiants sans préférences", totalStudents - preferencesByUser.size());
+                Arrays.toString(capacities));
+        log.info("  - {} étudiants avec préférences", usersWithPreferences);
+        log.info("  - {} étudiants sans préférences", totalStudents - usersWithPreferences);
 
-        // Application de l'algorithme d'affectation
-        Map<User, KholleSlot> assignments =
-                performMaxMinFairnessAssignment(allUsersSet, preferencesByUser, slots, averageCapacity);
+        return new SessionSnapshot(session, participants, List.copyOf(slots), problem);
+    }
 
-        // Sauvegarde des affectations en base
-        LocalDateTime now = LocalDateTime.now();
-        List<KholleAssignment> assignmentEntities = assignments.entrySet().stream()
-                .map(entry -> {
-                    User user = entry.getKey();
-                    KholleSlot slot = entry.getValue();
-
-                    // Détermination du rang de préférence obtenu
-                    Integer obtainedRank = null;
-                    List<UserPreference> userPrefs = preferencesByUser.get(user);
-                    if (userPrefs != null) {
-                        obtainedRank = userPrefs.stream()
-                                .filter(pref -> pref.slot().id().equals(slot.id()))
-                                .map(UserPreference::preferenceRank)
-                                .findFirst()
-                                .orElse(null);
-                    }
-
-                    return KholleAssignment.builder()
-                            .user(user)
-                            .session(session)
-                            .slot(slot)
-                            .assignedAt(now)
-                            .obtainedPreferenceRank(obtainedRank)
-                            .build();
-                })
-                .collect(Collectors.toList());
-
-        assignmentRepository.saveAll(assignmentEntities);
-
-        // Changer le statut de la session vers RESULTS_AVAILABLE après affectation
-        KholleSession updatedSession = session.toBuilder()
-                .status(KholleSessionStatus.RESULTS_AVAILABLE)
+    /** Référence légère vers un participant, suffisante pour écrire une affectation */
+    private User toUserReference(ParticipantSummary participant) {
+        return User.builder()
+                .id(participant.id())
+                .username(participant.username())
                 .build();
-        sessionRepository.save(updatedSession);
-
-        log.info("Affectation terminée pour la session {}. {} affectations créées.", sessionId, assignments.size());
-        logAssignmentStatistics(assignmentEntities);
-
-        return assignments;
     }
 
     /**
-     * Algorithme d'affectation basé sur max-min fairness. À chaque tour, on affecte les étudiants
-     * selon leur meilleur choix disponible, en respectant les contraintes de capacité. IMPORTANT:
-     * Ne doit JAMAIS affecter un étudiant à un créneau marqué comme indisponible.
+     * Compile les entités d'une session en un {@link AssignmentProblem} indexé. Les étudiants et
+     * les créneaux reçoivent l'index de leur position dans les listes fournies ; les préférences
+     * sont rattachées par identifiant, sans jamais hacher d'entité.
      */
-    private Map<User, KholleSlot> performMaxMinFairnessAssignment(
-            Set<User> users,
-            Map<User, List<UserPreference>> preferencesByUser,
-            List<KholleSlot> slots,
-            int averageCapacity) {
-
-        Map<User, KholleSlot> assignments = new HashMap<>();
-        Map<KholleSlot, Integer> slotCapacities = new HashMap<>();
-
-        // Initialisation des capacités (moyenne ± 1)
-        for (KholleSlot slot : slots) {
-            slotCapacities.put(slot, averageCapacity);
+    private AssignmentProblem compileProblem(
+            List<User> users, List<KholleSlot> slots, List<UserPreference> preferences, int[] capacities) {
+        Map<Long, Integer> userIndex = new HashMap<>(users.size() * 2);
+        long[] userIds = new long[users.size()];
+        for (int i = 0; i < users.size(); i++) {
+            userIds[i] = users.get(i).id();
+            userIndex.put(userIds[i], i);
         }
 
-        // Construction d'une map des indisponibilités pour un accès rapide
-        Map<User, Set<Long>> unavailableSlotsByUser = new HashMap<>();
-        for (Map.Entry<User, List<UserPreference>> entry : preferencesByUser.entrySet()) {
-            Set<Long> unavailableSlots = entry.getValue().stream()
-                    .filter(UserPreference::isUnavailable)
-                    .map(pref -> pref.slot().id())
-                    .collect(Collectors.toSet());
-            if (!unavailableSlots.isEmpty()) {
-                unavailableSlotsByUser.put(entry.getKey(), unavailableSlots);
-            }
+        Map<Long, Integer> slotIndex = new HashMap<>(slots.size() * 2);
+        long[] slotIds = new long[slots.size()];
+        for (int i = 0; i < slots.size(); i++) {
+            slotIds[i] = slots.get(i).id();
+            slotIndex.put(slotIds[i], i);
         }
 
-        Set<User> unassignedUsers = new HashSet<>(users);
-        int currentPreferenceRank = 1;
-
-        // Calculer le nombre maximum de préférences (en excluant les indisponibilités)
-        int maxPreferenceRank = preferencesByUser.values().stream()
-                .mapToInt(prefs -> (int)
-                        prefs.stream().filter(pref -> !pref.isUnavailable()).count())
-                .max()
-                .orElse(0);
-
-        // Affectation par rang de préférence croissant (max-min fairness)
-        while (!unassignedUsers.isEmpty() && currentPreferenceRank <= maxPreferenceRank) {
-            int currentRank = currentPreferenceRank;
-
-            // Collecte des étudiants voulant leur n-ième choix
-            Map<KholleSlot, List<User>> candidatesBySlot = new HashMap<>();
-
-            for (User user : unassignedUsers) {
-                List<UserPreference> prefs = preferencesByUser.get(user);
-                if (prefs != null) {
-                    // Filtrer uniquement les préférences positives (non indisponibilités)
-                    List<UserPreference> availablePrefs =
-                            prefs.stream().filter(pref -> !pref.isUnavailable()).collect(Collectors.toList());
-
-                    if (availablePrefs.size() >= currentRank) {
-                        UserPreference preference = availablePrefs.get(currentRank - 1);
-                        KholleSlot desiredSlot = preference.slot();
-
-                        // Vérifier que le créneau a encore de la capacité
-                        if (slotCapacities.getOrDefault(desiredSlot, 0) > 0) {
-                            candidatesBySlot
-                                    .computeIfAbsent(desiredSlot, k -> new ArrayList<>())
-                                    .add(user);
-                        }
-                    }
-                }
-            }
+        AssignmentProblem.Builder builder = AssignmentProblem.builder(userIds, slotIds);
+        for (int slot = 0; slot < capacities.length; slot++) {
+            builder.capacity(slot, capacities[slot]);
+        }
 
-            // Affectation des étudiants pour ce rang
-            for (Map.Entry<KholleSlot, List<User>> entry : candidatesBySlot.entrySet()) {
-                KholleSlot slot = entry.getKey();
-                List<User> candidates = entry.getValue();
-                int availableCapacity = slotCapacities.get(slot);
-
-                if (candidates.size() <= availableCapacity) {
-                    // Tout le monde peut être affecté
-                    for (User user : candidates) {
-                        assignments.put(user, slot);
-                        unassignedUsers.remove(user);
-                    }
-                    slotCapacities.put(slot, availableCapacity - candidates.size());
-                } else {
-                    // Tirage aléatoire pour départager
-                    Collections.shuffle(candidates, random);
-                    List<User> selectedUsers = candidates.subList(0, availableCapacity);
-
-                    for (User user : selectedUsers) {
-                        assignments.put(user, slot);
-                        unassignedUsers.remove(user);
-                    }
-                    slotCapacities.put(slot, 0);
-                }
+        for (UserPreference preference : preferences) {
+            Integer user = userIndex.get(preference.user().id());
+            Integer slot = slotIndex.get(preference.slot().id());
+            if (user == null || slot == null) {
+                continue;
             }
 
-            currentPreferenceRank++;
-        }
-
-        // Affectation aléatoire des étudiants restants (sans préférences satisfaites)
-        // IMPORTANT: On doit respecter les indisponibilités même ici
-        if (!unassignedUsers.isEmpty()) {
-            List<User> remainingUsers = new ArrayList<>(unassignedUsers);
-            Collections.shuffle(remainingUsers, random);
-
-            for (User user : remainingUsers) {
-                Set<Long> unavailableSlots = unavailableSlotsByUser.getOrDefault(user, Collections.emptySet());
-
-                // Trouver un créneau disponible (avec capacité) qui n'est pas marqué comme
-                // indisponible
-                KholleSlot availableSlot = slotCapacities.entrySet().stream()
-                        .filter(e -> e.getValue() > 0)
-                        .filter(e -> !unavailableSlots.contains(e.getKey().id()))
-                        .max(Comparator.comparingInt(Map.Entry::getValue))
-                        .map(Map.Entry::getKey)
-                        .orElseGet(() -> {
-                            // Si tous les créneaux avec capacité sont
-                            // indisponibles,
-                            // chercher parmi tous les créneaux disponibles (même
-                            // ceux à capacité 0)
-                            return slots.stream()
-                                    .filter(slot -> !unavailableSlots.contains(slot.id()))
-                                    .min(Comparator.comparingInt(slot -> (int) assignments.values().stream()
-                                            .filter(s -> s.id().equals(slot.id()))
-                                            .count()))
-                                    .orElseThrow(() -> new IllegalStateException(
-                                            "Impossible de trouver un créneau disponible pour l'utilisateur "
-                                                    + user.username()
-                                                    + ". Tous les créneaux sont marqués comme indisponibles."));
-                        });
-
-                assignments.put(user, availableSlot);
-                slotCapacities.merge(availableSlot, -1, Integer::sum);
+            if (preference.isUnavailable()) {
+                builder.unavailable(user, slot);
+            } else {
+                builder.preference(user, slot, preference.preferenceRank());
             }
         }
 
-        return assignments;
+        return builder.build();
     }
 
-    /** Affiche les statistiques d'affectation dans les logs */
-    private void logAssignmentStatistics(List<KholleAssignment> assignments) {
-        Map<Integer, Long> rankDistribution = assignments.stream()
-                .filter(a -> a.obtainedPreferenceRank() != null)
-                .collect(Collectors.groupingBy(KholleAssignment::obtainedPreferenceRank, Collectors.counting()));
-
-        long withoutPreferences = assignments.stream()
-                .filter(a -> a.obtainedPreferenceRank() == null)
-                .count();
+    /** Affiche les statistiques d'affectation dans les logs, à partir de l'histogramme des rangs obtenus */
+    private void logAssignmentStatistics(AssignmentResult result) {
+        int[] histogram = result.rankHistogram();
 
         log.info("Statistiques d'affectation:");
-        rankDistribution.entrySet().stream()
-                .sorted(Map.Entry.comparingByKey())
-                .forEach(entry -> log.info("  - Choix #{}: {} étudiants", entry.getKey(), entry.getValue()));
+        for (int rank = 1; rank < histogram.length; rank++) {
+            if (histogram[rank] > 0) {
+                log.info("  - Choix #{}: {} étudiants", rank, histogram[rank]);
+            }
+        }
 
-        if (withoutPreferences > 0) {
-            log.info("  - Sans préférence satisfaite: {} étudiants", withoutPreferences);
+        if (histogram[0] > 0) {
+            log.info("  - Sans préférence satisfaite: {} étudiants", histogram[0]);
+        } else if (result.worstRank() > 0) {
+            log.info("Pire choix obtenu: #{}", result.worstRank());
         }
 
-        // Calcul du taux de satisfaction
-        long firstChoice = rankDistribution.getOrDefault(1, 0L);
-        double satisfactionRate = (double) firstChoice / assignments.size() * 100;
-        log.info("Taux de satisfaction (1er choix): {}%", String.format("%.1f", satisfactionRate));
+        AssignmentScore score = AssignmentScore.of(result);
+        log.info("Somme des rangs: {}, dépassements de capacité: {}", score.rankSum(), score.overflow());
+        log.info("Taux de satisfaction (1er choix): {}%", String.format("%.1f", score.firstChoiceRate()));
     }
 
     /** Récupère l'affectation d'un utilisateur pour une session */
@@ -320,9 +573,12 @@ public class KholleAssignmentService {
         return assignmentRepository.findByUserAndSession(user, session);
     }
 
-    /** Récupère toutes les affectations d'une session */
-    public List<KholleAssignment> getSessionAssignments(KholleSession session) {
-        return assignmentRepository.findBySession(session);
+    /**
+     * Récupère toutes les affectations d'une session pour l'affichage, en une seule requête et sans
+     * charger les étudiants ni les créneaux
+     */
+    public List<AssignmentView> getSessionAssignments(Long sessionId) {
+        return assignmentRepository.findViewsBySessionId(sessionId);
     }
 
     /** Vérifie si les affectations ont été effectuées pour une session */
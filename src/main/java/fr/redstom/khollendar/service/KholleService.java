@@ -21,8 +21,12 @@ package fr.redstom.khollendar.service;
 import fr.redstom.khollendar.dto.KholleCreationDto;
 import fr.redstom.khollendar.dto.KhollePatchDto;
 import fr.redstom.khollendar.dto.KholleSessionCreationDto;
+import fr.redstom.khollendar.dto.PreferenceView;
+import fr.redstom.khollendar.dto.StudentPreferencesView;
 import fr.redstom.khollendar.entity.*;
 import fr.redstom.khollendar.repository.KholleSessionRepository;
+import fr.redstom.khollendar.repository.SessionParticipantRepository;
+import fr.redstom.khollendar.repository.StudentGroupRepository;
 import fr.redstom.khollendar.repository.UserPreferenceRepository;
 import jakarta.transaction.Transactional;
 import java.time.LocalDateTime;
@@ -31,12 +35,16 @@ import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.annotation.Validated;
 
@@ -45,19 +53,30 @@ import org.springframework.validation.annotation.Validated;
 public class KholleService {
 
     private final KholleSessionRepository kholleSessionRepository;
+    private final KholleSessionCache kholleSessionCache;
     private final UserPreferenceRepository userPreferenceRepository;
+    private final SessionParticipantRepository participantRepository;
+    private final StudentGroupRepository studentGroupRepository;
     private final UserService userService;
+    private final RequestLookupService requestLookupService;
 
     /**
-     * Sauvegarde une nouvelle session de khôlles à partir d'un DTO de formulaire
+     * Sauvegarde une nouvelle session de khôlles à partir d'un DTO de formulaire, et y inscrit les
+     * membres de son groupe
      *
      * @param dto La session à enregistrer
      * @return La session enregistrée
+     * @throws IllegalArgumentException si le groupe indiqué n'existe pas
      */
     public KholleSession createKholle(KholleSessionCreationDto dto) {
+        if (dto.groupId() != null && !studentGroupRepository.existsById(dto.groupId())) {
+            throw new IllegalArgumentException("Groupe avec l'ID " + dto.groupId() + " non trouvé");
+        }
+
         // Création d'une nouvelle session avec les informations de base
         KholleSession session = KholleSession.builder()
                 .subject(dto.subject())
+                .groupId(dto.groupId())
                 .kholleSlots(new ArrayList<>())
                 .build();
 
@@ -69,59 +88,123 @@ public class KholleService {
         for (KholleCreationDto slotDto : dto.slots()) {
             KholleSlot slot = KholleSlot.builder()
                     .dateTime(slotDto.time())
+                    .capacity(slotDto.capacity())
                     .session(session) // Référence à la session déjà persistée
                     .build();
             slots.add(slot);
         }
 
-        // Mise à jour de la session avec les slots
-        session = session.toBuilder().kholleSlots(slots).build();
+        // Mise à jour de la session avec les slots, et les dates du premier et du dernier créneau
+        session = session.toBuilder()
+                .kholleSlots(slots)
+                .firstSlotAt(slots.stream()
+                        .map(KholleSlot::dateTime)
+                        .filter(Objects::nonNull)
+                        .min(Comparator.naturalOrder())
+                        .orElse(null))
+                .lastSlotAt(slots.stream()
+                        .map(KholleSlot::dateTime)
+                        .filter(Objects::nonNull)
+                        .max(Comparator.naturalOrder())
+                        .orElse(null))
+                .build();
 
         // Sauvegarde finale de la session avec ses slots
-        return kholleSessionRepository.save(session);
+        session = kholleSessionRepository.save(session);
+
+        // Inscription des membres du groupe ; ceux qui le rejoignent ensuite sont inscrits à leur arrivée
+        if (session.groupId() != null) {
+            participantRepository.enrollGroupMembers(session.id(), session.groupId());
+        }
+
+        // Une consultation antérieure de cet ID a pu mettre son absence en cache
+        kholleSessionCache.evict(session.id());
+
+        return session;
     }
 
     /**
-     * Récupère toutes les sessions de khôlles avec pagination
+     * Récupère un lot de sessions de khôlles, à la suite de la position donnée
      *
-     * @param page La page à récupérer
-     * @param size Le nombre d'éléments par page
-     * @return Page contenant les sessions de khôlles, triées par ID décroissant
+     * @param position La position du dernier élément affiché, ou la position initiale
+     * @param size Le nombre de sessions par lot
+     * @return Le lot de sessions de khôlles, triées par ID décroissant
      */
-    public Page<KholleSession> getAllKholleSessions(int page, int size) {
-        return kholleSessionRepository.findAll(PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "id")));
+    public Window<KholleSession> getAllKholleSessions(ScrollPosition position, int size) {
+        return withSlots(kholleSessionRepository.findAllByOrderByIdDesc(position, Limit.of(size)));
     }
 
     /**
-     * Récupère toutes les sessions de khôlles à venir avec pagination
+     * Récupère un lot de sessions de khôlles à venir, à la suite de la position donnée
      *
-     * @param page La page à récupérer
-     * @param size Le nombre d'éléments par page
-     * @return Page contenant les sessions de khôlles à venir, triées par date croissante
+     * @param position La position du dernier élément affiché, ou la position initiale
+     * @param size Le nombre de sessions par lot
+     * @return Le lot de sessions de khôlles à venir, triées par date croissante
      */
-    public Page<KholleSession> getUpcomingKholleSessions(int page, int size) {
-        return kholleSessionRepository.findUpcomingKholleSessionsPaged(LocalDateTime.now(), PageRequest.of(page, size));
+    public Window<KholleSession> getUpcomingKholleSessions(ScrollPosition position, int size) {
+        return withSlots(kholleSessionRepository.findByLastSlotAtAfterOrderByFirstSlotAtAscIdAsc(
+                LocalDateTime.now(), position, Limit.of(size)));
     }
 
     /**
-     * Récupère les sessions de khôlles passées avec pagination
+     * Récupère un lot de sessions de khôlles passées, à la suite de la position donnée
      *
-     * @param page La page à récupérer
-     * @param size Le nombre d'éléments par page
-     * @return Page contenant les sessions de khôlles passées, triées par date décroissante
+     * @param position La position du dernier élément affiché, ou la position initiale
+     * @param size Le nombre de sessions par lot
+     * @return Le lot de sessions de khôlles passées, triées par date décroissante
      */
-    public Page<KholleSession> getPreviousKholleSessions(int page, int size) {
-        return kholleSessionRepository.findPreviousKholleSessions(LocalDateTime.now(), PageRequest.of(page, size));
+    public Window<KholleSession> getPreviousKholleSessions(ScrollPosition position, int size) {
+        return withSlots(kholleSessionRepository.findByFirstSlotAtBeforeOrderByLastSlotAtDescIdDesc(
+                LocalDateTime.now(), position, Limit.of(size)));
     }
 
     /**
-     * Récupère une session de khôlle par son ID
+     * Remplace les sessions d'un lot par les mêmes sessions avec leurs créneaux, prises dans le
+     * cache ou chargées en une seule requête pour tout le lot, en conservant l'ordre du lot. Une
+     * session supprimée entre les deux lectures est retirée du lot.
+     */
+    private Window<KholleSession> withSlots(Window<KholleSession> window) {
+        if (window.isEmpty()) {
+            return window;
+        }
+
+        Map<Long, KholleSession> loaded = kholleSessionCache.findAll(window.map(KholleSession::id).getContent());
+
+        List<KholleSession> sessions = new ArrayList<>(window.size());
+        List<Integer> indexes = new ArrayList<>(window.size());
+        for (int i = 0; i < window.size(); i++) {
+            KholleSession session = loaded.get(window.getContent().get(i).id());
+            if (session != null) {
+                sessions.add(session);
+                indexes.add(i);
+            }
+        }
+
+        // Le lot suivant repart toujours après la dernière session lue, même si elle a été retirée
+        int last = window.size() - 1;
+        return Window.from(
+                sessions,
+                i -> window.positionAt(i == sessions.size() - 1 ? last : indexes.get(i)),
+                window.hasNext() && !sessions.isEmpty());
+    }
+
+    /**
+     * Récupère une session de khôlle par son ID, avec ses créneaux. La session provient du cache
+     * et ne doit pas être modifiée.
      *
      * @param id L'identifiant de la session à récupérer
      * @return La session correspondante, si elle existe
      */
     public Optional<KholleSession> getKholleSessionById(Long id) {
-        return kholleSessionRepository.findKholleSessionById(id);
+        return kholleSessionCache.find(id);
+    }
+
+    /**
+     * Indique si un utilisateur participe à une session, c'est-à-dire s'il y a été inscrit par le
+     * groupe de la session
+     */
+    public boolean isParticipant(Long sessionId, Long userId) {
+        return participantRepository.isParticipant(sessionId, userId);
     }
 
     /**
@@ -131,6 +214,8 @@ public class KholleService {
      * @param sessionId L'ID de la session de khôlle
      * @param unavailableSlots Liste des IDs des créneaux marqués comme indisponibles
      * @param rankedSlots Liste des IDs des créneaux disponibles classés par ordre de préférence
+     * @throws IllegalArgumentException Si la session n'est pas ouverte, si l'utilisateur n'y participe
+     *     pas, ou si un créneau n'appartient pas à la session
      */
     @Transactional
     public void savePreferences(
@@ -138,63 +223,63 @@ public class KholleService {
             @NonNull Long sessionId,
             @NonNull List<Long> unavailableSlots,
             @NonNull List<Long> rankedSlots) {
-        User user = userService
-                .getUserById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("Utilisateur avec l'ID " + userId + " non trouvé"));
+        // Déjà lus lors de la vérification de l'étape, dans la même requête
+        if (requestLookupService.user(userId).isEmpty()) {
+            throw new IllegalArgumentException("Utilisateur avec l'ID " + userId + " non trouvé");
+        }
 
-        KholleSession session = getKholleSessionById(sessionId)
+        KholleSession session = requestLookupService
+                .session(sessionId)
                 .orElseThrow(() -> new IllegalArgumentException("Cette session de khôlle n'existe pas."));
 
-        // Vérifier si les inscriptions sont ouvertes
-        if (session.status() != KholleSessionStatus.REGISTRATIONS_OPEN) {
+        // Le statut est relu en base et non dans le cache : le verrou partagé empêche la fermeture des
+        // inscriptions d'aboutir avant la fin de cette écriture
+        KholleSessionStatus status = kholleSessionRepository
+                .findStatusForShareById(sessionId)
+                .orElseThrow(() -> new IllegalArgumentException("Cette session de khôlle n'existe pas."));
+        if (status != KholleSessionStatus.REGISTRATIONS_OPEN) {
             throw new IllegalArgumentException("Cette session de khôlle n'est pas ouverte aux inscriptions.");
         }
 
-        // Supprimer toutes les préférences existantes pour cet utilisateur et cette session
-        userPreferenceRepository.deleteByUserAndSession(user, session);
+        // Seuls les participants, inscrits par le groupe de la session, sont pris en compte par le calcul
+        if (!participantRepository.isParticipant(sessionId, userId)) {
+            throw new IllegalArgumentException("Vous ne participez pas à cette session de khôlle.");
+        }
+
+        // Index des créneaux de la session, construit une fois pour valider chaque ID reçu
+        Set<Long> sessionSlotIds = session.kholleSlots().stream().map(KholleSlot::id).collect(Collectors.toSet());
 
-        // Sauvegarder les indisponibilités (avec isUnavailable = true)
+        // Rang voulu pour chaque créneau : -1 pour une indisponibilité, puis 1 pour le premier choix.
+        // Un créneau n'est retenu qu'une fois, une indisponibilité l'emportant sur un classement
+        Map<Long, Integer> rankBySlot = new LinkedHashMap<>();
         for (Long slotId : unavailableSlots) {
-            KholleSlot slot = session.kholleSlots().stream()
-                    .filter(s -> s.id().equals(slotId))
-                    .findFirst()
-                    .orElseThrow(() -> new IllegalArgumentException(
-                            "Créneau avec l'ID " + slotId + " non trouvé dans la session " + sessionId));
-
-            UserPreference unavailability = UserPreference.builder()
-                    .user(user)
-                    .session(session)
-                    .slot(slot)
-                    .preferenceRank(-1) // Les indisponibilités ont un rang négatif
-                    .isUnavailable(true)
-                    .build();
-
-            userPreferenceRepository.save(unavailability);
+            rankBySlot.put(requireSlot(sessionSlotIds, slotId, sessionId), -1);
         }
-
-        // Sauvegarder les nouvelles préférences uniquement pour les créneaux disponibles
-        // (rankedSlots)
         for (int i = 0; i < rankedSlots.size(); i++) {
-            Long slotId = rankedSlots.get(i);
-
-            // Trouver le créneau correspondant dans la session
-            KholleSlot slot = session.kholleSlots().stream()
-                    .filter(s -> s.id().equals(slotId))
-                    .findFirst()
-                    .orElseThrow(() -> new IllegalArgumentException(
-                            "Créneau avec l'ID " + slotId + " non trouvé dans la session " + sessionId));
-
-            // Créer une nouvelle préférence
-            UserPreference preference = UserPreference.builder()
-                    .user(user)
-                    .session(session)
-                    .slot(slot)
-                    .preferenceRank(i + 1) // Le rang commence à 1 (premier choix = rang 1)
-                    .isUnavailable(false)
-                    .build();
+            rankBySlot.putIfAbsent(requireSlot(sessionSlotIds, rankedSlots.get(i), sessionId), i + 1);
+        }
 
-            userPreferenceRepository.save(preference);
+        // Une seule requête remplace les préférences existantes, en n'écrivant que les différences
+        userPreferenceRepository.replacePreferences(
+                userId,
+                sessionId,
+                rankBySlot.keySet().toArray(Long[]::new),
+                rankBySlot.values().toArray(Integer[]::new),
+                rankBySlot.values().stream().map(rank -> rank < 0).toArray(Boolean[]::new));
+    }
+
+    /**
+     * Vérifie qu'un créneau appartient à la session
+     *
+     * @return L'ID du créneau
+     * @throws IllegalArgumentException Si le créneau n'appartient pas à la session
+     */
+    private static Long requireSlot(Set<Long> sessionSlotIds, Long slotId, Long sessionId) {
+        if (!sessionSlotIds.contains(slotId)) {
+            throw new IllegalArgumentException(
+                    "Créneau avec l'ID " + slotId + " non trouvé dans la session " + sessionId);
         }
+        return slotId;
     }
 
     /**
@@ -236,72 +321,33 @@ public class KholleService {
     }
 
     /**
-     * Récupère le nombre total d'utilisateurs ayant enregistré leurs préférences pour une session
-     *
-     * @param sessionId L'ID de la session de khôlle
-     * @return Le nombre d'utilisateurs ayant enregistré leurs préférences
-     */
-    public long getRegisteredUsersCount(Long sessionId) {
-        KholleSession session = getKholleSessionById(sessionId)
-                .orElseThrow(() ->
-                        new IllegalArgumentException("Session de khôlle avec l'ID " + sessionId + " non trouvée"));
-
-        return userPreferenceRepository.countDistinctUsersBySession(session);
-    }
-
-    /**
-     * Récupère toutes les préférences des utilisateurs pour une session, organisées par utilisateur
+     * Récupère les préférences de chaque étudiant pour une session, telles qu'affichées sur la page
+     * de la session, en une seule requête et sans charger les entités. Le nombre d'étudiants ayant
+     * enregistré leurs préférences est la taille de la liste.
      *
      * @param sessionId L'ID de la session de khôlle
-     * @return Map avec en clé l'utilisateur et en valeur la liste de ses préférences triées par
-     *     rang
+     * @return Les préférences de chaque étudiant, par identifiant d'étudiant croissant
      */
-    public Map<User, List<UserPreference>> getAllUserPreferencesForSession(Long sessionId) {
-        KholleSession session = getKholleSessionById(sessionId)
-                .orElseThrow(() ->
-                        new IllegalArgumentException("Session de khôlle avec l'ID " + sessionId + " non trouvée"));
-
-        // Récupérer toutes les préférences pour cette session
-        List<UserPreference> allPreferences =
-                userPreferenceRepository.findBySessionOrderByUserIdAscPreferenceRankAsc(session);
-
-        // Organiser par utilisateur
-        Map<User, List<UserPreference>> preferencesByUser = new LinkedHashMap<>();
-        for (UserPreference preference : allPreferences) {
+    public List<StudentPreferencesView> getStudentPreferences(Long sessionId) {
+        // Les lignes arrivent triées par étudiant puis par rang
+        Map<Long, List<PreferenceView>> preferencesByUser = new LinkedHashMap<>();
+        for (PreferenceView preference : userPreferenceRepository.findViewsBySessionId(sessionId)) {
             preferencesByUser
-                    .computeIfAbsent(preference.user(), k -> new ArrayList<>())
+                    .computeIfAbsent(preference.userId(), k -> new ArrayList<>())
                     .add(preference);
         }
 
-        return preferencesByUser;
-    }
-
-    /**
-     * Récupère les créneaux indisponibles pour un utilisateur et une session (créneaux marqués
-     * explicitement comme indisponibles avec isUnavailable = true)
-     *
-     * @param userId L'ID de l'utilisateur
-     * @param sessionId L'ID de la session de khôlle
-     * @return Liste des créneaux indisponibles
-     */
-    public List<KholleSlot> getUnavailableSlots(Long userId, Long sessionId) {
-        User user = userService
-                .getUserById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("Utilisateur avec l'ID " + userId + " non trouvé"));
-
-        KholleSession session = getKholleSessionById(sessionId)
-                .orElseThrow(() ->
-                        new IllegalArgumentException("Session de khôlle avec l'ID " + sessionId + " non trouvée"));
-
-        // Récupérer les préférences de l'utilisateur
-        List<UserPreference> userPreferences =
-                userPreferenceRepository.findByUserAndSessionOrderByPreferenceRankAsc(user, session);
-
-        // Retourner uniquement les créneaux marqués comme indisponibles
-        return userPreferences.stream()
-                .filter(UserPreference::isUnavailable)
-                .map(UserPreference::slot)
-                .sorted(Comparator.comparing(KholleSlot::dateTime))
+        return preferencesByUser.values().stream()
+                .map(preferences -> new StudentPreferencesView(
+                        preferences.getFirst().username(),
+                        preferences.stream()
+                                .filter(preference -> !preference.isUnavailable())
+                                .toList(),
+                        preferences.stream()
+                                .filter(PreferenceView::isUnavailable)
+                                .map(PreferenceView::slotDateTime)
+                                .sorted()
+                                .toList()))
                 .toList();
     }
 
@@ -312,29 +358,105 @@ public class KholleService {
      */
     @Transactional
     public void deleteKholleSession(Long sessionId) {
-        KholleSession session = getKholleSessionById(sessionId)
+        KholleSession session = kholleSessionRepository
+                .findKholleSessionById(sessionId)
                 .orElseThrow(() ->
                         new IllegalArgumentException("Session de khôlle avec l'ID " + sessionId + " non trouvée"));
 
         // Les préférences et les slots seront supprimés en cascade grâce aux relations JPA
         kholleSessionRepository.delete(session);
+        kholleSessionCache.evict(sessionId);
     }
 
     /**
-     * Modifie une session de khôlle en appliquant un patch
+     * Modifie une session de khôlle en appliquant un patch. Si le patch porte une version, elle doit
+     * correspondre à celle de la session. Un changement de statut vers l'étape suivante passe par
+     * {@link #transitionStatus} ; un retour aux inscriptions ouvertes passe par
+     * {@link #reopenRegistrations} et exige la version. Renvoyer le statut actuel ne fait rien.
      *
      * @param sessionId L'ID de la session à modifier
      * @param patch Le patch contenant les modifications
      *
      * @return La session mise à jour
+     * @throws OptimisticLockingFailureException Si la session a été modifiée entre-temps
+     * @throws IllegalStateException Si la transition de statut demandée est interdite, ou si une
+     *     réouverture est demandée sans version
      */
     @Transactional
     public KholleSession edit(Long sessionId, @Validated KhollePatchDto patch) {
-        KholleSession session = getKholleSessionById(sessionId)
+        // Lue depuis la base et non depuis le cache, puisqu'elle va être modifiée
+        KholleSession session = kholleSessionRepository
+                .findKholleSessionById(sessionId)
                 .orElseThrow(() ->
                         new IllegalArgumentException("Session de khôlle avec l'ID " + sessionId + " non trouvée"));
 
-        KholleSession updatedSession = patch.apply(session);
-        return kholleSessionRepository.save(updatedSession);
+        if (patch.version() != null && !patch.version().equals(session.version())) {
+            throw new OptimisticLockingFailureException(
+                    "La session a été modifiée entre-temps, rechargez la page avant de réessayer");
+        }
+
+        KholleSessionStatus currentStatus = session.status();
+        boolean reopening = patch.status() == KholleSessionStatus.REGISTRATIONS_OPEN && currentStatus != patch.status();
+        if (reopening && patch.version() == null) {
+            throw new IllegalStateException("La réouverture des inscriptions exige la version de la session");
+        }
+
+        // Écrite tout de suite pour connaître la version sur laquelle s'appuie la réouverture
+        KholleSession saved = kholleSessionRepository.saveAndFlush(patch.apply(session));
+
+        if (reopening) {
+            reopenRegistrations(sessionId, saved.version());
+        } else if (patch.status() != null && patch.status() != currentStatus) {
+            transitionStatus(sessionId, currentStatus, patch.status());
+        }
+
+        kholleSessionCache.evict(sessionId);
+
+        return kholleSessionRepository.findKholleSessionById(sessionId).orElseThrow();
+    }
+
+    /**
+     * Fait passer une session d'un statut à un autre, uniquement si elle est toujours dans le statut
+     * attendu. La vérification et l'écriture tiennent en un seul UPDATE conditionnel.
+     *
+     * @param sessionId L'ID de la session
+     * @param expected Le statut que la session doit encore avoir
+     * @param target Le nouveau statut
+     * @throws IllegalStateException Si la transition est interdite
+     * @throws OptimisticLockingFailureException Si le statut de la session a changé entre-temps
+     */
+    @Transactional
+    public void transitionStatus(Long sessionId, KholleSessionStatus expected, KholleSessionStatus target) {
+        if (!expected.canTransitionTo(target)) {
+            throw new IllegalStateException(
+                    "Transition interdite : « " + expected.label() + " » vers « " + target.label() + " »");
+        }
+
+        if (kholleSessionRepository.compareAndSetStatus(sessionId, expected, target) == 0) {
+            throw new OptimisticLockingFailureException("Le statut de la session " + sessionId
+                    + " n'est plus « " + expected.label() + " », rechargez la page avant de réessayer");
+        }
+
+        kholleSessionCache.evict(sessionId);
+    }
+
+    /**
+     * Rouvre les inscriptions d'une session fermée ou déjà publiée, par exemple après une
+     * publication par erreur. La session doit toujours être dans la version affichée à
+     * l'administrateur. Les affectations existantes sont conservées jusqu'au prochain calcul.
+     *
+     * @param sessionId L'ID de la session
+     * @param version La version de la session sur laquelle s'appuie la réouverture
+     * @throws OptimisticLockingFailureException Si la session a été modifiée entre-temps, ou si ses
+     *     inscriptions sont déjà ouvertes
+     */
+    @Transactional
+    public void reopenRegistrations(Long sessionId, Long version) {
+        if (kholleSessionRepository.reopenRegistrations(sessionId, version) == 0) {
+            throw new OptimisticLockingFailureException("La session " + sessionId
+                    + " a été modifiée entre-temps ou est déjà ouverte, rechargez la page avant de réessayer");
+        }
+
+        kholleSessionCache.evict(sessionId);
     }
 }
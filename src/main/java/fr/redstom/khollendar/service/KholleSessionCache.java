@@ -0,0 +1,115 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.service;
+
+import fr.redstom.khollendar.entity.KholleSession;
+import fr.redstom.khollendar.repository.KholleSessionRepository;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cache applicatif des sessions de khôlle et de leurs créneaux, indexé par l'ID de la session. Les
+ * sessions changent rarement mais sont lues à chaque page : la liste, la page d'une session et
+ * chaque étape du formulaire de préférences.
+ *
+ * <p>Les sessions renvoyées sont détachées et partagées entre les requêtes : elles servent à
+ * l'affichage ou comme référence dans une nouvelle entité, jamais à une modification. Les
+ * modifications relisent la session depuis la base, puis appellent {@link #evict(Long)}. Dans une
+ * transaction, l'éviction n'a lieu qu'après le commit (voir {@code CacheConfig}) ; elle est
+ * propagée aux autres instances de l'application par {@link KholleSessionCacheListener}.
+ */
+@Component
+@RequiredArgsConstructor
+public class KholleSessionCache {
+
+    /** Nom du cache, exposé par les métriques {@code cache.gets} et {@code cache.puts} */
+    public static final String CACHE_NAME = "kholleSessions";
+
+    private final KholleSessionRepository kholleSessionRepository;
+    private final CacheManager cacheManager;
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Récupère une session avec ses créneaux, depuis le cache ou à défaut depuis la base
+     *
+     * @param sessionId L'ID de la session
+     * @return La session, si elle existe
+     */
+    @Cacheable(cacheNames = CACHE_NAME, key = "#sessionId")
+    public Optional<KholleSession> find(Long sessionId) {
+        return kholleSessionRepository.findKholleSessionById(sessionId);
+    }
+
+    /**
+     * Récupère plusieurs sessions avec leurs créneaux. Celles absentes du cache sont chargées en une
+     * seule requête, puis mises en cache.
+     *
+     * @param sessionIds Les IDs des sessions
+     * @return Les sessions trouvées, indexées par ID
+     */
+    public Map<Long, KholleSession> findAll(Collection<Long> sessionIds) {
+        Cache cache = Objects.requireNonNull(cacheManager.getCache(CACHE_NAME));
+
+        Map<Long, KholleSession> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long sessionId : sessionIds) {
+            KholleSession cached = cache.get(sessionId, KholleSession.class);
+            if (cached != null) {
+                found.put(sessionId, cached);
+            } else {
+                missing.add(sessionId);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            for (KholleSession loaded : kholleSessionRepository.findWithSlotsByIdIn(missing)) {
+                cache.put(loaded.id(), loaded);
+                found.put(loaded.id(), loaded);
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * Retire une session du cache, après sa création, sa modification ou sa suppression, et publie
+     * l'éviction pour les autres instances. Dans une transaction, la notification n'est délivrée
+     * qu'au commit.
+     *
+     * @param sessionId L'ID de la session
+     */
+    @CacheEvict(cacheNames = CACHE_NAME, key = "#sessionId")
+    public void evict(Long sessionId) {
+        // L'éviction locale est faite par l'annotation
+        jdbcTemplate.query(
+                "SELECT pg_notify(?, ?)", rs -> {}, KholleSessionCacheListener.CHANNEL, String.valueOf(sessionId));
+    }
+}
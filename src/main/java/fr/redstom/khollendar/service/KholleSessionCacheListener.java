@@ -0,0 +1,131 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Objects;
+import javax.sql.DataSource;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Propage les évictions de {@link KholleSessionCache} entre les instances de l'application. Chaque
+ * instance garde son propre cache en mémoire : une éviction publie l'ID de la session sur le canal
+ * PostgreSQL {@link #CHANNEL} ({@code NOTIFY}, délivré au commit), et chaque instance, y compris
+ * celle qui a publié, retire la session de son cache à réception.
+ *
+ * <p>L'écoute occupe une connexion du pool en permanence. Si elle est perdue, le cache est vidé à la
+ * reconnexion : les notifications émises entre-temps ne sont pas rejouées.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class KholleSessionCacheListener {
+
+    /** Canal sur lequel sont publiés les IDs des sessions à retirer des caches */
+    public static final String CHANNEL = "kholle_session_evicted";
+
+    private final DataSource dataSource;
+    private final CacheManager cacheManager;
+
+    @Value("${kholle.cache.listener.poll-millis:1000}")
+    private int pollMillis = 1000;
+
+    @Value("${kholle.cache.listener.retry-seconds:5}")
+    private long retrySeconds = 5;
+
+    private volatile boolean running;
+    private volatile boolean listening;
+    private Thread thread;
+
+    @PostConstruct
+    void start() {
+        running = true;
+        thread = Thread.ofVirtual().name("kholle-session-cache-listener").start(this::listen);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        thread.interrupt();
+    }
+
+    /** Indique si l'écoute du canal est établie */
+    boolean listening() {
+        return listening;
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                PGConnection listener = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+
+                // Les notifications émises avant l'écoute sont perdues : on repart d'un cache vide
+                cache().clear();
+                listening = true;
+                log.debug("Écoute des évictions de sessions sur le canal {}", CHANNEL);
+
+                while (running) {
+                    PGNotification[] notifications = listener.getNotifications(pollMillis);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            evict(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                listening = false;
+                log.warn("Écoute des évictions de sessions interrompue, reprise dans {} s", retrySeconds, e);
+                try {
+                    Thread.sleep(retrySeconds * 1000);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void evict(String sessionId) {
+        try {
+            cache().evict(Long.valueOf(sessionId));
+        } catch (NumberFormatException e) {
+            log.warn("Notification d'éviction ignorée, ID de session invalide : {}", sessionId);
+        }
+    }
+
+    private Cache cache() {
+        return Objects.requireNonNull(cacheManager.getCache(KholleSessionCache.CACHE_NAME));
+    }
+}
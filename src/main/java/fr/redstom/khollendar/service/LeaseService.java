@@ -0,0 +1,111 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.service;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service de baux partagés en base, pour qu'une tâche ne s'exécute que sur une seule instance de
+ * l'application à la fois. Un bail porte un nom, un propriétaire unique par acquisition et une
+ * échéance calculée par la base : une instance arrêtée en cours de tâche ne bloque donc les autres
+ * que jusqu'à l'expiration de son bail.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LeaseService {
+
+    /** Identifiant de cette instance, préfixe des propriétaires de ses baux */
+    private static final String INSTANCE_ID = UUID.randomUUID().toString();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Bail obtenu par cette instance
+     *
+     * @param name Le nom du bail
+     * @param owner Le propriétaire, propre à cette acquisition
+     */
+    public record Lease(String name, String owner) {}
+
+    /**
+     * Tente d'obtenir un bail, s'il est libre ou expiré
+     *
+     * @param name Le nom du bail
+     * @param duration La durée après laquelle le bail expire s'il n'est pas libéré
+     * @return Le bail obtenu, ou vide s'il est détenu par une autre tâche
+     */
+    public Optional<Lease> tryAcquire(String name, Duration duration) {
+        String owner = INSTANCE_ID + "/" + UUID.randomUUID();
+        int updated = jdbcTemplate.update(
+                "INSERT INTO scheduler_leases (name, owner, locked_until)"
+                        + " VALUES (?, ?, now() + make_interval(secs => ?))"
+                        + " ON CONFLICT (name) DO UPDATE"
+                        + " SET owner = EXCLUDED.owner, locked_until = EXCLUDED.locked_until"
+                        + " WHERE scheduler_leases.locked_until < now()",
+                name,
+                owner,
+                (double) duration.toSeconds());
+
+        if (updated == 0) {
+            log.debug("Bail {} déjà détenu par une autre tâche", name);
+            return Optional.empty();
+        }
+        return Optional.of(new Lease(name, owner));
+    }
+
+    /**
+     * Prolonge un bail pour qu'il dure au moins la durée donnée à partir de maintenant. Une échéance
+     * déjà plus lointaine est conservée.
+     *
+     * @param lease Le bail à prolonger
+     * @param duration La durée minimale restante du bail
+     * @return {@code true} si le bail appartient toujours à cette acquisition et a été prolongé
+     */
+    public boolean extend(Lease lease, Duration duration) {
+        int updated = jdbcTemplate.update(
+                "UPDATE scheduler_leases"
+                        + " SET locked_until = GREATEST(locked_until, now() + make_interval(secs => ?))"
+                        + " WHERE name = ? AND owner = ?",
+                (double) duration.toSeconds(),
+                lease.name(),
+                lease.owner());
+        return updated > 0;
+    }
+
+    /** Libère un bail, s'il appartient toujours à cette acquisition */
+    public void release(Lease lease) {
+        jdbcTemplate.update("DELETE FROM scheduler_leases WHERE name = ? AND owner = ?", lease.name(), lease.owner());
+    }
+
+    /**
+     * Verrouille un nom jusqu'à la fin de la transaction courante (verrou consultatif PostgreSQL).
+     * Les écritures concurrentes portant sur le même nom sont ainsi sérialisées, même si un bail a
+     * expiré entre-temps.
+     */
+    public void lockForTransaction(String name) {
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(hashtext(?))", rs -> {}, name);
+    }
+}
@@ -39,7 +39,7 @@ import org.springframework.ui.Model;
 public class PreferenceService {
 
     private final KholleService kholleService;
-    private final UserService userService;
+    private final RequestLookupService requestLookupService;
     private final UserPreferenceRepository userPreferenceRepository;
 
     /**
@@ -51,12 +51,12 @@ public class PreferenceService {
      * @param unavailableSlotIds Liste des créneaux indisponibles présélectionnés
      */
     public String prepareUnavailabilityForm(Model model, Long kholleId, Long userId, List<Long> unavailableSlotIds) {
-        User user = userService
-                .getUserById(userId)
+        User user = requestLookupService
+                .user(userId)
                 .orElseThrow(() -> new IllegalArgumentException("Utilisateur non trouvé"));
 
-        KholleSession kholleSession = kholleService
-                .getKholleSessionById(kholleId)
+        KholleSession kholleSession = requestLookupService
+                .session(kholleId)
                 .orElseThrow(() -> new IllegalArgumentException("Session de khôlle non trouvée"));
 
         List<KholleSlot> slots = new ArrayList<>(kholleSession.kholleSlots());
@@ -81,12 +81,12 @@ public class PreferenceService {
      */
     public String prepareRankingForm(
             Model model, Long kholleId, Long userId, List<Long> unavailableSlotIds, List<Long> rankedSlotIds) {
-        User user = userService
-                .getUserById(userId)
+        User user = requestLookupService
+                .user(userId)
                 .orElseThrow(() -> new IllegalArgumentException("Utilisateur non trouvé"));
 
-        KholleSession kholleSession = kholleService
-                .getKholleSessionById(kholleId)
+        KholleSession kholleSession = requestLookupService
+                .session(kholleId)
                 .orElseThrow(() -> new IllegalArgumentException("Session de khôlle non trouvée"));
 
         List<KholleSlot> slots = new ArrayList<>(kholleSession.kholleSlots());
@@ -125,12 +125,12 @@ public class PreferenceService {
      */
     public String prepareConfirmationForm(
             Long kholleId, Long userId, List<Long> unavailableSlotIds, List<Long> rankedSlotIds, Model model) {
-        User user = userService
-                .getUserById(userId)
+        User user = requestLookupService
+                .user(userId)
                 .orElseThrow(() -> new IllegalArgumentException("Utilisateur non trouvé"));
 
-        KholleSession kholleSession = kholleService
-                .getKholleSessionById(kholleId)
+        KholleSession kholleSession = requestLookupService
+                .session(kholleId)
                 .orElseThrow(() -> new IllegalArgumentException("Session de khôlle non trouvée"));
 
         List<KholleSlot> allSlots = new ArrayList<>(kholleSession.kholleSlots());
@@ -177,8 +177,8 @@ public class PreferenceService {
      * @return true si l'utilisateur a déjà soumis ses préférences, false sinon
      */
     public boolean hasSubmittedPreferences(Long userId, Long kholleId) {
-        User user = userService.getUserById(userId).orElse(null);
-        KholleSession session = kholleService.getKholleSessionById(kholleId).orElse(null);
+        User user = requestLookupService.user(userId).orElse(null);
+        KholleSession session = requestLookupService.session(kholleId).orElse(null);
 
         if (user == null || session == null) {
             return false;
@@ -189,11 +189,11 @@ public class PreferenceService {
     }
 
     public String prepareLockedPreferencesView(Model model, Long kholleId, Long userId) {
-        KholleSession kholleSession = kholleService
-                .getKholleSessionById(kholleId)
+        KholleSession kholleSession = requestLookupService
+                .session(kholleId)
                 .orElseThrow(() -> new IllegalArgumentException("Session de khôlle non trouvée"));
-        User user = userService
-                .getUserById(userId)
+        User user = requestLookupService
+                .user(userId)
                 .orElseThrow(() -> new IllegalArgumentException("Utilisateur non trouvé"));
 
         model.addAttribute("session", kholleSession);
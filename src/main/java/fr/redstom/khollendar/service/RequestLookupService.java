@@ -0,0 +1,89 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.service;
+
+import fr.redstom.khollendar.entity.KholleSession;
+import fr.redstom.khollendar.entity.User;
+import fr.redstom.khollendar.repository.UserRepository;
+import java.util.Optional;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Résout l'utilisateur courant et la session de khôlle (avec ses créneaux) manipulés par la requête
+ * HTTP en cours. Chaque entité n'est lue qu'une fois par requête : une étape du formulaire de
+ * préférences vérifie l'utilisateur et la session, prépare la vue puis enregistre les préférences
+ * sans relire l'une ou l'autre.
+ *
+ * <p>Les entités sont mémorisées dans les attributs de la requête, et ne survivent donc pas à
+ * celle-ci. Hors d'une requête HTTP (tâches planifiées, calculs en arrière-plan), rien n'est
+ * mémorisé et chaque appel interroge la base. Les entités renvoyées sont détachées : elles servent à
+ * la lecture ou comme référence dans une nouvelle entité, jamais à une modification.
+ */
+@Service
+@RequiredArgsConstructor
+public class RequestLookupService {
+
+    private static final String USER_ATTRIBUTE = RequestLookupService.class.getName() + ".user.";
+    private static final String SESSION_ATTRIBUTE = RequestLookupService.class.getName() + ".session.";
+
+    private final UserRepository userRepository;
+    private final KholleSessionCache kholleSessionCache;
+
+    /**
+     * Récupère un utilisateur, lu au plus une fois par requête
+     *
+     * @param userId L'ID de l'utilisateur
+     * @return L'utilisateur s'il existe
+     */
+    public Optional<User> user(Long userId) {
+        return lookup(USER_ATTRIBUTE + userId, () -> userRepository.findById(userId));
+    }
+
+    /**
+     * Récupère une session de khôlle avec ses créneaux, lue au plus une fois par requête depuis le
+     * cache des sessions
+     *
+     * @param sessionId L'ID de la session de khôlle
+     * @return La session si elle existe
+     */
+    public Optional<KholleSession> session(Long sessionId) {
+        return lookup(SESSION_ATTRIBUTE + sessionId, () -> kholleSessionCache.find(sessionId));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Optional<T> lookup(String attribute, Supplier<Optional<T>> loader) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return loader.get();
+        }
+
+        // Une absence est mémorisée aussi, pour ne pas relancer la même requête vaine
+        Optional<T> value = (Optional<T>) attributes.getAttribute(attribute, RequestAttributes.SCOPE_REQUEST);
+        if (value == null) {
+            value = loader.get();
+            attributes.setAttribute(attribute, value, RequestAttributes.SCOPE_REQUEST);
+        }
+
+        return value;
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.service;
+
+import fr.redstom.khollendar.dto.GroupSummary;
+import fr.redstom.khollendar.dto.ParticipantSummary;
+import fr.redstom.khollendar.entity.StudentGroup;
+import fr.redstom.khollendar.entity.User;
+import fr.redstom.khollendar.repository.SessionParticipantRepository;
+import fr.redstom.khollendar.repository.StudentGroupRepository;
+import fr.redstom.khollendar.repository.UserRepository;
+import jakarta.transaction.Transactional;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service de gestion des groupes d'étudiants. L'appartenance à un groupe détermine les sessions
+ * auxquelles un étudiant participe : rejoindre un groupe inscrit l'étudiant à ses sessions à venir,
+ * le quitter l'en désinscrit.
+ */
+@Service
+@RequiredArgsConstructor
+public class StudentGroupService {
+
+    private final StudentGroupRepository groupRepository;
+    private final SessionParticipantRepository participantRepository;
+    private final UserRepository userRepository;
+
+    /** Récupère tous les groupes, triés par nom, avec leur nombre de membres */
+    public List<GroupSummary> getGroups() {
+        return groupRepository.findSummaries();
+    }
+
+    /** Récupère un groupe par son ID */
+    public Optional<StudentGroup> getGroupById(Long id) {
+        return groupRepository.findById(id);
+    }
+
+    /** Vérifie si un groupe existe */
+    public boolean exists(Long id) {
+        return groupRepository.existsById(id);
+    }
+
+    /**
+     * Crée un nouveau groupe vide
+     *
+     * @param name Le nom unique du groupe
+     * @return Le groupe créé
+     * @throws IllegalArgumentException si le nom est vide ou déjà utilisé
+     */
+    public StudentGroup createGroup(String name) {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Le nom du groupe est obligatoire");
+        }
+
+        String trimmed = name.strip();
+        if (groupRepository.existsByName(trimmed)) {
+            throw new IllegalArgumentException("Un groupe avec ce nom existe déjà");
+        }
+
+        return groupRepository.save(StudentGroup.builder().name(trimmed).build());
+    }
+
+    /**
+     * Supprime un groupe. Ses sessions sont conservées, sans groupe, avec leurs participants actuels.
+     *
+     * @param id L'ID du groupe à supprimer
+     */
+    public void deleteGroup(Long id) {
+        groupRepository.deleteById(id);
+    }
+
+    /** Récupère les membres d'un groupe, triés par nom */
+    public List<ParticipantSummary> getMembers(Long groupId) {
+        return groupRepository.findMemberSummaries(groupId);
+    }
+
+    /**
+     * Ajoute des étudiants à un groupe et les inscrit à ses sessions à venir dont les affectations
+     * n'ont pas encore été publiées
+     *
+     * @param groupId L'ID du groupe
+     * @param usernames Les noms des étudiants à ajouter
+     * @return Le nombre d'étudiants ajoutés, hors ceux déjà membres
+     * @throws IllegalArgumentException si un des noms ne correspond à aucun utilisateur
+     */
+    @Transactional
+    public int addMembers(Long groupId, Collection<String> usernames) {
+        if (!groupRepository.existsById(groupId)) {
+            throw new IllegalArgumentException("Groupe avec l'ID " + groupId + " non trouvé");
+        }
+
+        Set<String> wanted = usernames.stream()
+                .map(String::strip)
+                .filter(username -> !username.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (wanted.isEmpty()) {
+            return 0;
+        }
+
+        List<User> users = userRepository.findByUsernameIn(wanted);
+        if (users.size() < wanted.size()) {
+            users.forEach(user -> wanted.remove(user.username()));
+            throw new IllegalArgumentException("Utilisateurs inconnus : " + String.join(", ", wanted));
+        }
+
+        Long[] userIds = users.stream().map(User::id).toArray(Long[]::new);
+        int added = groupRepository.addMembers(groupId, userIds);
+        participantRepository.enrollInPendingGroupSessions(groupId, userIds);
+
+        return added;
+    }
+
+    /**
+     * Retire un étudiant d'un groupe et le désinscrit des sessions à venir du groupe dont les
+     * affectations n'ont pas encore été publiées
+     *
+     * @param groupId L'ID du groupe
+     * @param userId L'ID de l'étudiant
+     */
+    @Transactional
+    public void removeMember(Long groupId, Long userId) {
+        if (groupRepository.removeMember(groupId, userId) > 0) {
+            participantRepository.withdrawFromPendingGroupSessions(groupId, userId);
+        }
+    }
+}
@@ -23,9 +23,10 @@ import fr.redstom.khollendar.repository.UserRepository;
 import java.util.List;
 import java.util.Optional;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -41,7 +42,8 @@ public class UserService {
     private final PasswordEncoder passwordEncoder;
 
     /**
-     * Crée un nouvel utilisateur avec le nom d'utilisateur fourni
+     * Crée un nouvel utilisateur avec le nom d'utilisateur fourni. Il ne participe à aucune session
+     * tant qu'il n'a pas rejoint un groupe (voir {@link StudentGroupService#addMembers}).
      *
      * @param username Le nom d'utilisateur unique
      * @return L'utilisateur créé
@@ -67,14 +69,14 @@ public class UserService {
     }
 
     /**
-     * Récupère une page d'utilisateurs avec pagination
+     * Récupère un lot d'utilisateurs, à la suite de la position donnée
      *
-     * @param page Le numéro de page (commençant à 0)
-     * @param size Le nombre d'éléments par page
-     * @return Page contenant les utilisateurs
+     * @param position La position du dernier utilisateur affiché, ou la position initiale
+     * @param size Le nombre d'utilisateurs par lot
+     * @return Le lot d'utilisateurs, triés par ID
      */
-    public Page<User> getPaginatedUsers(int page, int size) {
-        return userRepository.findAll(PageRequest.of(page, size, Sort.by(Sort.Direction.ASC, "id")));
+    public Window<User> getPaginatedUsers(ScrollPosition position, int size) {
+        return userRepository.findAllByOrderByIdAsc(position, Limit.of(size));
     }
 
     /**
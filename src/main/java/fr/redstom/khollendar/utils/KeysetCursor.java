@@ -0,0 +1,83 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+
+/**
+ * Curseur opaque de la pagination par clé : les valeurs des colonnes de tri du dernier élément
+ * affiché, encodées en Base64 pour être passées dans une URL. Les colonnes de tri sont l'ID (un
+ * nombre) et, pour les sessions, une date de créneau.
+ */
+public class KeysetCursor {
+
+    private static final String ID = "id";
+
+    /**
+     * Encode une position de défilement en curseur
+     *
+     * @param position La position du dernier élément affiché
+     * @return Le curseur à passer dans l'URL de la page suivante
+     */
+    public static String encode(ScrollPosition position) {
+        if (!(position instanceof KeysetScrollPosition keyset)) {
+            throw new IllegalArgumentException("Seules les positions par clé peuvent être encodées");
+        }
+
+        String keys = keyset.getKeys().entrySet().stream()
+                .map(entry -> entry.getKey() + "=" + entry.getValue())
+                .collect(Collectors.joining("&"));
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(keys.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Décode un curseur en position de défilement
+     *
+     * @param cursor Le curseur reçu, ou null pour la première page
+     * @return La position qui suit le dernier élément affiché
+     * @throws IllegalArgumentException Si le curseur est illisible
+     */
+    public static KeysetScrollPosition decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+
+        try {
+            String keys = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+
+            Map<String, Object> values = new LinkedHashMap<>();
+            for (String pair : keys.split("&")) {
+                String[] parts = pair.split("=", 2);
+                values.put(parts[0], ID.equals(parts[0]) ? Long.valueOf(parts[1]) : LocalDateTime.parse(parts[1]));
+            }
+
+            return ScrollPosition.forward(values);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Curseur de pagination invalide", e);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+-- Groupes d'étudiants (classes) gérés par l'administrateur : une session est ouverte à un groupe,
+-- et seuls ses membres y sont inscrits, à la création de la session ou à leur arrivée dans le groupe
+CREATE SEQUENCE student_group_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE student_groups (
+    id BIGINT PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    CONSTRAINT uk_student_group_name UNIQUE (name)
+);
+
+CREATE TABLE student_group_members (
+    group_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    PRIMARY KEY (group_id, user_id),
+    CONSTRAINT fk_student_group_member_group FOREIGN KEY (group_id) REFERENCES student_groups(id) ON DELETE CASCADE,
+    CONSTRAINT fk_student_group_member_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_student_group_members_user ON student_group_members(user_id);
+
+-- Groupe de la session ; la suppression d'un groupe conserve les sessions et leurs participants
+ALTER TABLE kholle_sessions ADD COLUMN group_id BIGINT;
+ALTER TABLE kholle_sessions
+    ADD CONSTRAINT fk_kholle_session_group FOREIGN KEY (group_id) REFERENCES student_groups(id) ON DELETE SET NULL;
+
+CREATE INDEX idx_kholle_sessions_group ON kholle_sessions(group_id);
+
+-- Les données existantes ne connaissent pas de groupes : tous les utilisateurs sont regroupés dans
+-- un groupe unique, auquel les sessions existantes sont rattachées. L'administrateur peut ensuite
+-- le scinder ou en retirer les anciens étudiants.
+INSERT INTO student_groups (id, name)
+SELECT nextval('student_group_seq'), 'Promotion'
+WHERE EXISTS (SELECT 1 FROM users);
+
+INSERT INTO student_group_members (group_id, user_id)
+SELECT g.id, u.id FROM student_groups g CROSS JOIN users u;
+
+UPDATE kholle_sessions SET group_id = (SELECT id FROM student_groups WHERE name = 'Promotion');
+
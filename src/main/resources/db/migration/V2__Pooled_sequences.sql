@@ -0,0 +1,7 @@
+-- Allocation des identifiants par blocs de 50 (optimiseur "pooled" d'Hibernate, allocationSize = 50)
+-- Une seule requête nextval suffit pour 50 insertions, ce qui permet le regroupement JDBC des INSERT
+ALTER SEQUENCE user_seq INCREMENT BY 50;
+ALTER SEQUENCE kholle_session_seq INCREMENT BY 50;
+ALTER SEQUENCE kholle_slot_seq INCREMENT BY 50;
+ALTER SEQUENCE user_preference_seq INCREMENT BY 50;
+ALTER SEQUENCE kholle_assignment_seq INCREMENT BY 50;
@@ -0,0 +1,3 @@
+-- Capacité propre à chaque créneau ; NULL laisse la capacité être calculée à partir du nombre d'étudiants
+ALTER TABLE kholle_slot ADD COLUMN capacity INTEGER;
+ALTER TABLE kholle_slot ADD CONSTRAINT chk_kholle_slot_capacity CHECK (capacity IS NULL OR capacity >= 0);
@@ -0,0 +1,14 @@
+-- Participants de chaque session : seuls ces étudiants sont pris en compte lors de l'affectation
+CREATE TABLE kholle_session_participants (
+    session_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    PRIMARY KEY (session_id, user_id),
+    CONSTRAINT fk_session_participant_session FOREIGN KEY (session_id) REFERENCES kholle_sessions(id) ON DELETE CASCADE,
+    CONSTRAINT fk_session_participant_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_session_participants_user ON kholle_session_participants(user_id);
+
+-- Les sessions existantes étaient affectées à tous les utilisateurs : on conserve ce comportement
+INSERT INTO kholle_session_participants (session_id, user_id)
+SELECT s.id, u.id FROM kholle_sessions s CROSS JOIN users u;
@@ -0,0 +1,7 @@
+-- Baux nommés partagés entre les instances de l'application (cron, affectation d'une session)
+-- Un bail expiré peut être repris par n'importe quelle instance
+CREATE TABLE scheduler_leases (
+    name VARCHAR(255) PRIMARY KEY,
+    owner VARCHAR(255) NOT NULL,
+    locked_until TIMESTAMP NOT NULL
+);
@@ -0,0 +1,4 @@
+-- Colonnes de version pour le verrouillage optimiste (@Version)
+-- Les transitions de statut passent par un UPDATE conditionnel qui incrémente aussi la version
+ALTER TABLE kholle_sessions ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE kholle_assignments ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
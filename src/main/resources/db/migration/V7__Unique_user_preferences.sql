@@ -0,0 +1,13 @@
+-- Une seule préférence par étudiant, session et créneau. La contrainte était décrite par l'entité
+-- UserPreference mais jamais créée ; l'enregistrement des préférences en repose désormais dessus (ON CONFLICT)
+
+-- Suppression des éventuels doublons, en conservant la ligne la plus ancienne
+DELETE FROM user_preferences p
+USING user_preferences older
+WHERE older.user_id = p.user_id
+  AND older.session_id = p.session_id
+  AND older.slot_id = p.slot_id
+  AND older.id < p.id;
+
+ALTER TABLE user_preferences
+    ADD CONSTRAINT uk_user_preference_user_session_slot UNIQUE (user_id, session_id, slot_id);
@@ -0,0 +1,24 @@
+-- Index composites calqués sur les requêtes fréquentes, qui remplacent les index sur une seule colonne
+-- dont ils reprennent la première colonne. Les colonnes INCLUDE permettent des parcours d'index seuls
+
+-- Préférences d'une session triées par étudiant puis par rang (calcul des affectations, pages d'administration)
+CREATE INDEX idx_user_preference_session_user_rank
+    ON user_preferences (session_id, user_id, preference_rank) INCLUDE (id, slot_id, is_unavailable);
+
+-- Préférences d'un étudiant pour une session, et vérification qu'il en a déjà enregistré
+CREATE INDEX idx_user_preference_user_session_rank
+    ON user_preferences (user_id, session_id, preference_rank) INCLUDE (id, slot_id, is_unavailable);
+
+DROP INDEX idx_user_preference_session;
+DROP INDEX idx_user_preference_user;
+
+-- Affectation d'un étudiant pour une session
+CREATE INDEX idx_kholle_assignment_user_session ON kholle_assignments (user_id, session_id);
+
+DROP INDEX idx_kholle_assignment_user;
+
+-- Premier et dernier créneau d'une session
+CREATE INDEX idx_kholle_slot_session_datetime ON kholle_slot (session_id, date_time);
+
+DROP INDEX idx_kholle_slot_datetime;
+DROP INDEX idx_kholle_slot_session;
@@ -0,0 +1,17 @@
+-- Dates du premier et du dernier créneau de chaque session, tenues à jour par KholleService à la création
+-- des créneaux. Les listes de sessions et le cron filtrent et trient sur ces colonnes, sans agrégation
+ALTER TABLE kholle_sessions ADD COLUMN first_slot_at TIMESTAMP;
+ALTER TABLE kholle_sessions ADD COLUMN last_slot_at TIMESTAMP;
+
+UPDATE kholle_sessions s
+SET first_slot_at = bounds.first_slot_at, last_slot_at = bounds.last_slot_at
+FROM (
+    SELECT session_id, MIN(date_time) AS first_slot_at, MAX(date_time) AS last_slot_at
+    FROM kholle_slot
+    GROUP BY session_id
+) bounds
+WHERE bounds.session_id = s.id;
+
+-- Sessions à venir, triées par premier créneau ; sessions passées, triées par dernier créneau
+CREATE INDEX idx_kholle_sessions_first_slot ON kholle_sessions (first_slot_at, id);
+CREATE INDEX idx_kholle_sessions_last_slot ON kholle_sessions (last_slot_at, id);
@@ -9,6 +9,8 @@ function addSlot() {
         <label for="slot-${slotCount}-time">Date et heure</label>
         <div class="flex gap-4">
             <input type="datetime-local" id="slot-${slotCount}-time" name="slots[${slotCount}].time" required class="flex-1">
+            <input type="number" id="slot-${slotCount}-capacity" name="slots[${slotCount}].capacity" min="0"
+                   placeholder="Capacité (auto)" title="Laisser vide pour une capacité calculée automatiquement" class="w-40">
             <button type="button" 
                     onclick="deleteSlot(this)"
                     class="delete-slot button danger">
@@ -47,6 +49,9 @@ function renumberSlots() {
         const input = slot.querySelector('input[type="datetime-local"]');
         input.name = `slots[${index}].time`;
         input.id = `slot-${index}-time`;
+        const capacity = slot.querySelector('input[type="number"]');
+        capacity.name = `slots[${index}].capacity`;
+        capacity.id = `slot-${index}-capacity`;
         const label = slot.querySelector('label');
         if (label) {
             label.setAttribute('for', `slot-${index}-time`);
@@ -0,0 +1,109 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.assignment;
+
+import static fr.redstom.khollendar.assignment.CapacityPolicy.AUTOMATIC;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+
+class CapacityPolicyTest {
+
+    @Test
+    void testCeiling_SameCapacityForAllSlots() {
+        // When
+        int[] capacities = CapacityPolicy.CEILING.capacities(10, new int[] {AUTOMATIC, AUTOMATIC, AUTOMATIC});
+
+        // Then
+        assertArrayEquals(new int[] {4, 4, 4}, capacities);
+    }
+
+    @Test
+    void testBalanced_CapacitiesSumToStudentCount() {
+        // When
+        int[] capacities = CapacityPolicy.BALANCED.capacities(10, new int[] {AUTOMATIC, AUTOMATIC, AUTOMATIC});
+
+        // Then
+        assertArrayEquals(new int[] {4, 3, 3}, capacities);
+    }
+
+    @Test
+    void testBalanced_OverridesAreKeptAndRemainderIsShared() {
+        // When
+        int[] capacities = CapacityPolicy.BALANCED.capacities(20, new int[] {AUTOMATIC, 8, AUTOMATIC, 0, AUTOMATIC});
+
+        // Then
+        assertArrayEquals(new int[] {4, 8, 4, 0, 4}, capacities);
+    }
+
+    @Test
+    void testBalanced_OversizedOverridesLeaveAutomaticSlotsEmpty() {
+        // When
+        int[] capacities = CapacityPolicy.BALANCED.capacities(5, new int[] {6, AUTOMATIC});
+
+        // Then
+        assertArrayEquals(new int[] {6, 0}, capacities);
+    }
+
+    @Test
+    void testCapacities_RejectsNegativeOverride() {
+        assertThrows(IllegalArgumentException.class, () -> CapacityPolicy.BALANCED.capacities(5, new int[] {-2}));
+    }
+
+    @Test
+    void testBalanced_LoadsStayWithinOne() {
+        for (long seed = 0; seed < 20; seed++) {
+            // Given : tout le monde convoite les premiers créneaux
+            Random random = new Random(seed);
+            int users = 103;
+            int slots = 9;
+            int[] automatic = new int[slots];
+            Arrays.fill(automatic, AUTOMATIC);
+            int[] capacities = CapacityPolicy.BALANCED.capacities(users, automatic);
+
+            AssignmentProblem.Builder builder = AssignmentProblem.builder(
+                    LongStream.rangeClosed(1, users).toArray(),
+                    LongStream.rangeClosed(1, slots).toArray());
+            for (int slot = 0; slot < slots; slot++) {
+                builder.capacity(slot, capacities[slot]);
+            }
+            for (int user = 0; user < users; user++) {
+                for (int rank = 1; rank <= 3; rank++) {
+                    builder.preference(user, random.nextInt(3), rank);
+                }
+            }
+            AssignmentProblem problem = builder.build();
+
+            // When
+            AssignmentResult result = new MinCostFlowStrategy().solve(problem, random);
+
+            // Then
+            int[] load = new int[slots];
+            for (int user = 0; user < users; user++) {
+                load[result.slotOf(user)]++;
+            }
+            int min = Arrays.stream(load).min().orElseThrow();
+            int max = Arrays.stream(load).max().orElseThrow();
+            assertTrue(max - min <= 1, "Les charges doivent rester à ±1 : " + Arrays.toString(load));
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.assignment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+
+class IncrementalRepairTest {
+
+    private AssignmentProblem.Builder builder(int users, int slots, int capacity) {
+        return AssignmentProblem.builder(
+                        LongStream.rangeClosed(1, users).toArray(),
+                        LongStream.rangeClosed(1, slots).toArray())
+                .capacity(capacity);
+    }
+
+    @Test
+    void testRepair_KeepsUnaffectedStudentsInPlace() {
+        // Given
+        AssignmentProblem problem = builder(4, 2, 2)
+                .preference(0, 0, 1)
+                .preference(1, 1, 1)
+                .preference(2, 0, 1)
+                .preference(3, 0, 1)
+                .build();
+        int[] current = {0, 1, 0, -1};
+
+        // When
+        AssignmentResult result = new IncrementalRepair(0).repair(problem, current);
+
+        // Then
+        assertEquals(0, result.slotOf(0), "Les étudiants non concernés ne doivent pas bouger");
+        assertEquals(1, result.slotOf(1));
+        assertEquals(0, result.slotOf(2));
+        assertEquals(1, result.slotOf(3), "Le seul créneau libre doit être attribué sans chaîne");
+    }
+
+    @Test
+    void testRepair_UsesChainToGrantFirstChoice() {
+        // Given : l'étudiant 0 est indifférent, l'étudiant 2 veut absolument le créneau 0
+        AssignmentProblem problem = builder(3, 2, 1)
+                .preference(0, 0, 1)
+                .preference(0, 1, 1)
+                .preference(2, 0, 1)
+                .preference(2, 1, 2)
+                .capacity(1, 2)
+                .build();
+        int[] current = {0, 1, -1};
+
+        // When
+        AssignmentResult result = new IncrementalRepair(1).repair(problem, current);
+
+        // Then
+        assertEquals(0, result.slotOf(2), "L'étudiant replacé doit obtenir son premier choix");
+        assertEquals(1, result.slotOf(0), "L'étudiant indifférent doit être déplacé");
+        assertEquals(1, result.slotOf(1));
+    }
+
+    @Test
+    void testRepair_ChainLengthIsBounded() {
+        // Given : obtenir le premier choix demanderait deux déplacements
+        AssignmentProblem problem = builder(3, 3, 1)
+                .preference(0, 0, 1)
+                .preference(0, 1, 1)
+                .preference(1, 1, 1)
+                .preference(1, 2, 1)
+                .preference(2, 0, 1)
+                .preference(2, 2, 2)
+                .unavailable(0, 2)
+                .unavailable(2, 1)
+                .capacity(2, 1)
+                .build();
+        int[] current = {0, 1, -1};
+
+        // When
+        AssignmentResult shortChain = new IncrementalRepair(1).repair(problem, current);
+        AssignmentResult longChain = new IncrementalRepair(2).repair(problem, current);
+
+        // Then
+        assertEquals(2, shortChain.slotOf(2), "Sans chaîne assez longue, le second choix est attribué");
+        assertEquals(0, shortChain.slotOf(0));
+        assertEquals(0, longChain.slotOf(2), "Avec deux déplacements, le premier choix devient accessible");
+        assertEquals(1, longChain.slotOf(0));
+        assertEquals(2, longChain.slotOf(1));
+    }
+
+    @Test
+    void testRepair_RespectsUnavailabilitiesAndCapacities() {
+        for (long seed = 0; seed < 50; seed++) {
+            // Given
+            Random random = new Random(seed);
+            int users = 60;
+            int slots = 8;
+            AssignmentProblem.Builder builder = builder(users, slots, 8);
+            for (int user = 0; user < users; user++) {
+                int rank = 1;
+                for (int slot = 0; slot < slots; slot++) {
+                    int draw = random.nextInt(5);
+                    if (draw == 0 && slot > 0) {
+                        builder.unavailable(user, slot);
+                    } else if (draw > 1) {
+                        builder.preference(user, slot, rank++);
+                    }
+                }
+            }
+            AssignmentProblem problem = builder.build();
+
+            int[] current = new int[users];
+            AssignmentResult initial = new MinCostFlowStrategy().solve(problem, new Random(seed));
+            for (int user = 0; user < users; user++) {
+                current[user] = random.nextInt(4) == 0 ? -1 : initial.slotOf(user);
+            }
+
+            // When
+            AssignmentResult result = new IncrementalRepair(3).repair(problem, current);
+
+            // Then
+            int[] load = new int[slots];
+            for (int user = 0; user < users; user++) {
+                assertFalse(problem.isUnavailable(user, result.slotOf(user)), "Créneau indisponible attribué");
+                load[result.slotOf(user)]++;
+            }
+            for (int slot = 0; slot < slots; slot++) {
+                assertTrue(load[slot] <= problem.capacity(slot), "Capacité dépassée sur le créneau " + slot);
+            }
+        }
+    }
+
+    @Test
+    void testRepair_RejectsNegativeChainLength() {
+        assertThrows(IllegalArgumentException.class, () -> new IncrementalRepair(-1));
+    }
+}
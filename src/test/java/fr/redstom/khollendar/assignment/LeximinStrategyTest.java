@@ -0,0 +1,153 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.assignment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+
+class LeximinStrategyTest {
+
+    private final LeximinStrategy strategy = new LeximinStrategy();
+
+    /** Génère un problème aléatoire : classements partiels et indisponibilités éparses */
+    private AssignmentProblem randomProblem(int users, int slots, long seed) {
+        Random random = new Random(seed);
+        AssignmentProblem.Builder builder = AssignmentProblem.builder(
+                        LongStream.rangeClosed(1, users).toArray(),
+                        LongStream.rangeClosed(1, slots).toArray())
+                .capacity((int) Math.ceil((double) users / slots));
+
+        for (int user = 0; user < users; user++) {
+            int rank = 1;
+            for (int slot = 0; slot < slots; slot++) {
+                int draw = random.nextInt(6);
+                if (draw == 0) {
+                    builder.unavailable(user, slot);
+                } else if (draw > 2) {
+                    builder.preference(user, slot, rank++);
+                }
+            }
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Profil leximin d'une affectation : dépassements de capacité, puis nombre d'étudiants par coût,
+     * du pire au meilleur
+     */
+    private long[] profile(AssignmentProblem problem, int[] slotByUser) {
+        int maxCost = problem.maxRank() + 1;
+        long[] profile = new long[maxCost + 1];
+        int[] load = new int[problem.slotCount()];
+        for (int user = 0; user < slotByUser.length; user++) {
+            load[slotByUser[user]]++;
+            profile[maxCost + 1 - problem.cost(user, slotByUser[user])]++;
+        }
+        for (int slot = 0; slot < load.length; slot++) {
+            profile[0] += Math.max(0, load[slot] - problem.capacity(slot));
+        }
+        return profile;
+    }
+
+    /** Recherche exhaustive du meilleur profil, pour de petits problèmes */
+    private long[] bruteForce(AssignmentProblem problem, int user, int[] slotByUser) {
+        if (user == problem.userCount()) {
+            return profile(problem, slotByUser);
+        }
+
+        long[] best = null;
+        for (int slot = 0; slot < problem.slotCount(); slot++) {
+            if (!problem.isUnavailable(user, slot)) {
+                slotByUser[user] = slot;
+                long[] candidate = bruteForce(problem, user + 1, slotByUser);
+                if (best == null || Arrays.compare(candidate, best) < 0) {
+                    best = candidate;
+                }
+            }
+        }
+        return best;
+    }
+
+    @Test
+    void testSolve_MatchesExhaustiveSearch() {
+        for (long seed = 0; seed < 40; seed++) {
+            // Given
+            AssignmentProblem problem = randomProblem(7, 3, seed);
+            if (problem.firstUnassignableUser() >= 0) {
+                continue;
+            }
+
+            // When
+            AssignmentResult result = strategy.solve(problem, new Random(seed));
+
+            // Then
+            int[] slotByUser = new int[problem.userCount()];
+            for (int user = 0; user < slotByUser.length; user++) {
+                slotByUser[user] = result.slotOf(user);
+                assertFalse(problem.isUnavailable(user, slotByUser[user]));
+            }
+            assertArrayEquals(
+                    bruteForce(problem, 0, new int[problem.userCount()]),
+                    profile(problem, slotByUser),
+                    "L'affectation doit être leximin-optimale (graine " + seed + ")");
+        }
+    }
+
+    @Test
+    void testSolve_PrefersFairnessOverRankSum() {
+        // Given: le coût minimal donne les rangs (1, 1, 4), le leximin préfère (2, 2, 3)
+        AssignmentProblem problem = AssignmentProblem.builder(new long[] {1, 2, 3}, new long[] {1, 2, 3})
+                .capacity(1)
+                .preference(0, 0, 1)
+                .preference(0, 1, 2)
+                .unavailable(0, 2)
+                .preference(1, 1, 1)
+                .preference(1, 2, 2)
+                .unavailable(1, 0)
+                .preference(2, 0, 3)
+                .preference(2, 2, 4)
+                .unavailable(2, 1)
+                .build();
+
+        // When
+        AssignmentResult result = strategy.solve(problem, new Random(0));
+
+        // Then
+        assertEquals(1, result.slotOf(0));
+        assertEquals(2, result.slotOf(1));
+        assertEquals(0, result.slotOf(2));
+        assertEquals(3, result.worstRank());
+        assertArrayEquals(new int[] {0, 0, 2, 1, 0}, result.rankHistogram());
+    }
+
+    @Test
+    void testSolve_LargeCohortIsFast() {
+        // Given
+        AssignmentProblem problem = randomProblem(500, 60, 11);
+
+        // When & Then
+        assertTimeoutPreemptively(Duration.ofSeconds(1), () -> strategy.solve(problem, new Random(5)));
+    }
+}
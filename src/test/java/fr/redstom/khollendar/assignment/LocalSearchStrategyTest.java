@@ -0,0 +1,130 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.assignment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+
+class LocalSearchStrategyTest {
+
+    private final MaxMinFairnessStrategy greedy = new MaxMinFairnessStrategy();
+
+    /** Génère un problème aléatoire où tout le monde convoite les mêmes créneaux */
+    private AssignmentProblem randomProblem(int users, int slots, long seed) {
+        Random random = new Random(seed);
+        AssignmentProblem.Builder builder = AssignmentProblem.builder(
+                        LongStream.rangeClosed(1, users).toArray(),
+                        LongStream.rangeClosed(1, slots).toArray())
+                .capacity((int) Math.ceil((double) users / slots));
+
+        for (int user = 0; user < users; user++) {
+            int rank = 1;
+            for (int slot = 0; slot < slots; slot++) {
+                int draw = random.nextInt(6);
+                if (draw == 0) {
+                    builder.unavailable(user, slot);
+                } else if (draw > 2) {
+                    builder.preference(user, slot, rank++);
+                }
+            }
+        }
+
+        return builder.build();
+    }
+
+    @Test
+    void testSolve_NeverWorseThanInitialAssignment() {
+        for (long seed = 0; seed < 20; seed++) {
+            // Given
+            AssignmentProblem problem = randomProblem(200, 15, seed);
+            LocalSearchStrategy strategy = new LocalSearchStrategy(greedy, Duration.ofSeconds(5));
+
+            // When
+            AssignmentResult initial = greedy.solve(problem, new Random(seed));
+            AssignmentResult improved = strategy.solve(problem, new Random(seed));
+
+            // Then
+            AssignmentScore before = AssignmentScore.of(initial);
+            AssignmentScore after = AssignmentScore.of(improved);
+            assertTrue(after.rankSum() <= before.rankSum(), "La somme des rangs ne doit pas augmenter");
+            assertTrue(after.worstCost() <= before.worstCost(), "Le pire rang ne doit pas augmenter");
+            assertEquals(before.overflow(), after.overflow());
+
+            // Un créneau déjà en dépassement peut le rester, mais aucun ne doit se remplir davantage
+            int[] initialLoad = new int[problem.slotCount()];
+            int[] load = new int[problem.slotCount()];
+            for (int user = 0; user < problem.userCount(); user++) {
+                assertFalse(problem.isUnavailable(user, improved.slotOf(user)));
+                initialLoad[initial.slotOf(user)]++;
+                load[improved.slotOf(user)]++;
+            }
+            for (int slot = 0; slot < load.length; slot++) {
+                assertTrue(
+                        load[slot] <= Math.max(problem.capacity(slot), initialLoad[slot]),
+                        "Le créneau " + slot + " déborde");
+            }
+        }
+    }
+
+    @Test
+    void testSolve_FindsImprovingRotation() {
+        // Given: chacun occupe son deuxième choix, seule une rotation à trois donne à tous le premier
+        AssignmentProblem problem = AssignmentProblem.builder(new long[] {1, 2, 3}, new long[] {1, 2, 3})
+                .capacity(1)
+                .preference(0, 1, 1)
+                .preference(0, 0, 2)
+                .unavailable(0, 2)
+                .preference(1, 2, 1)
+                .preference(1, 1, 2)
+                .unavailable(1, 0)
+                .preference(2, 0, 1)
+                .preference(2, 2, 2)
+                .unavailable(2, 1)
+                .build();
+        AssignmentStrategy secondChoices = (p, random) -> new AssignmentResult(p, new int[] {0, 1, 2});
+
+        // When
+        AssignmentResult result =
+                new LocalSearchStrategy(secondChoices, Duration.ofSeconds(1)).solve(problem, new Random(0));
+
+        // Then
+        assertEquals(1, result.slotOf(0));
+        assertEquals(2, result.slotOf(1));
+        assertEquals(0, result.slotOf(2));
+    }
+
+    @Test
+    void testSolve_ZeroBudget_KeepsInitialAssignment() {
+        // Given
+        AssignmentProblem problem = randomProblem(200, 15, 1);
+
+        // When
+        AssignmentResult initial = greedy.solve(problem, new Random(1));
+        AssignmentResult result = new LocalSearchStrategy(greedy, Duration.ZERO).solve(problem, new Random(1));
+
+        // Then
+        for (int user = 0; user < problem.userCount(); user++) {
+            assertEquals(initial.slotOf(user), result.slotOf(user));
+        }
+    }
+}
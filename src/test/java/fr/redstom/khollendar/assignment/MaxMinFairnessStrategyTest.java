@@ -0,0 +1,143 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.assignment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+
+class MaxMinFairnessStrategyTest {
+
+    private final MaxMinFairnessStrategy strategy = new MaxMinFairnessStrategy();
+
+    /** Génère un problème où chaque étudiant classe tous les créneaux, hors quelques indisponibilités */
+    private AssignmentProblem randomProblem(int users, int slots, long seed) {
+        Random random = new Random(seed);
+        AssignmentProblem.Builder builder = AssignmentProblem.builder(
+                        LongStream.rangeClosed(1, users).toArray(),
+                        LongStream.rangeClosed(1, slots).toArray())
+                .capacity((int) Math.ceil((double) users / slots));
+
+        for (int user = 0; user < users; user++) {
+            int rank = 1;
+            for (int slot = 0; slot < slots; slot++) {
+                if (random.nextInt(5) == 0) {
+                    builder.unavailable(user, slot);
+                } else {
+                    builder.preference(user, slot, rank++);
+                }
+            }
+        }
+
+        return builder.build();
+    }
+
+    @Test
+    void testSolve_SameSeed_SameResult() {
+        // Given
+        AssignmentProblem problem = randomProblem(200, 12, 42);
+
+        // When
+        AssignmentResult first = strategy.solve(problem, new Random(7));
+        AssignmentResult second = strategy.solve(problem, new Random(7));
+
+        // Then
+        for (int user = 0; user < problem.userCount(); user++) {
+            assertEquals(first.slotOf(user), second.slotOf(user), "Une même graine doit donner la même affectation");
+        }
+    }
+
+    @Test
+    void testSolve_NeverAssignsUnavailableSlot() {
+        // Given
+        AssignmentProblem problem = randomProblem(500, 20, 1);
+
+        // When
+        AssignmentResult result = strategy.solve(problem, new Random(3));
+
+        // Then
+        for (int user = 0; user < problem.userCount(); user++) {
+            assertFalse(problem.isUnavailable(user, result.slotOf(user)));
+        }
+    }
+
+    @Test
+    void testSolve_DenseUnavailabilities_LargeCohort() {
+        // Given: 2000 étudiants sans préférence, chacun indisponible sur environ 90 % des créneaux
+        int users = 2000;
+        int slots = 120;
+        Random random = new Random(9);
+        AssignmentProblem.Builder builder = AssignmentProblem.builder(
+                        LongStream.rangeClosed(1, users).toArray(),
+                        LongStream.rangeClosed(1, slots).toArray())
+                .capacity((int) Math.ceil((double) users / slots));
+        for (int user = 0; user < users; user++) {
+            int available = random.nextInt(slots);
+            for (int slot = 0; slot < slots; slot++) {
+                if (slot != available && random.nextInt(10) != 0) {
+                    builder.unavailable(user, slot);
+                }
+            }
+        }
+        AssignmentProblem problem = builder.build();
+
+        // When
+        AssignmentResult result =
+                assertTimeoutPreemptively(Duration.ofSeconds(1), () -> strategy.solve(problem, new Random(4)));
+
+        // Then
+        int[] load = new int[slots];
+        for (int user = 0; user < users; user++) {
+            assertFalse(problem.isUnavailable(user, result.slotOf(user)));
+            load[result.slotOf(user)]++;
+        }
+
+        // Un créneau resté sous sa capacité l'était aussi quand chacun a été placé : aucun étudiant
+        // disponible sur ce créneau ne doit se retrouver en dépassement ailleurs
+        for (int user = 0; user < users; user++) {
+            if (load[result.slotOf(user)] <= problem.capacity(result.slotOf(user))) {
+                continue;
+            }
+            for (int slot = 0; slot < slots; slot++) {
+                assertFalse(
+                        !problem.isUnavailable(user, slot) && load[slot] < problem.capacity(slot),
+                        "L'étudiant " + user + " déborde alors que le créneau " + slot + " a de la place");
+            }
+        }
+    }
+
+    @Test
+    void testBuild_UnavailabilityOverridesRanking() {
+        // Given
+        AssignmentProblem problem = AssignmentProblem.builder(new long[] {10}, new long[] {20, 21})
+                .capacity(1)
+                .preference(0, 0, 1)
+                .preference(0, 1, 2)
+                .unavailable(0, 0)
+                .build();
+
+        // Then
+        assertEquals(0, problem.rank(0, 0));
+        assertEquals(1, problem.choiceCount(0));
+        assertEquals(1, problem.choice(0, 0));
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.assignment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+
+class MinCostFlowStrategyTest {
+
+    private final MinCostFlowStrategy strategy = new MinCostFlowStrategy();
+
+    /** Génère un problème aléatoire : classements partiels et indisponibilités éparses */
+    private AssignmentProblem randomProblem(int users, int slots, long seed) {
+        Random random = new Random(seed);
+        AssignmentProblem.Builder builder = AssignmentProblem.builder(
+                        LongStream.rangeClosed(1, users).toArray(),
+                        LongStream.rangeClosed(1, slots).toArray())
+                .capacity((int) Math.ceil((double) users / slots));
+
+        for (int user = 0; user < users; user++) {
+            int rank = 1;
+            for (int slot = 0; slot < slots; slot++) {
+                int draw = random.nextInt(6);
+                if (draw == 0) {
+                    builder.unavailable(user, slot);
+                } else if (draw > 2) {
+                    builder.preference(user, slot, rank++);
+                }
+            }
+        }
+
+        return builder.build();
+    }
+
+    /** Coût (dépassements, somme des rangs) d'une affectation, encodé pour comparaison */
+    private long cost(AssignmentProblem problem, int[] slotByUser) {
+        int[] load = new int[problem.slotCount()];
+        long rankSum = 0;
+        for (int user = 0; user < slotByUser.length; user++) {
+            load[slotByUser[user]]++;
+            rankSum += problem.cost(user, slotByUser[user]);
+        }
+
+        long overflow = 0;
+        for (int slot = 0; slot < load.length; slot++) {
+            overflow += Math.max(0, load[slot] - problem.capacity(slot));
+        }
+        return overflow * 1_000_000 + rankSum;
+    }
+
+    /** Recherche exhaustive du coût optimal, pour de petits problèmes */
+    private long bruteForce(AssignmentProblem problem, int user, int[] slotByUser) {
+        if (user == problem.userCount()) {
+            return cost(problem, slotByUser);
+        }
+
+        long best = Long.MAX_VALUE;
+        for (int slot = 0; slot < problem.slotCount(); slot++) {
+            if (!problem.isUnavailable(user, slot)) {
+                slotByUser[user] = slot;
+                best = Math.min(best, bruteForce(problem, user + 1, slotByUser));
+            }
+        }
+        return best;
+    }
+
+    @Test
+    void testSolve_MatchesExhaustiveSearch() {
+        for (long seed = 0; seed < 40; seed++) {
+            // Given
+            AssignmentProblem problem = randomProblem(7, 3, seed);
+            if (problem.firstUnassignableUser() >= 0) {
+                continue;
+            }
+
+            // When
+            AssignmentResult result = strategy.solve(problem, new Random(seed));
+
+            // Then
+            int[] slotByUser = new int[problem.userCount()];
+            for (int user = 0; user < slotByUser.length; user++) {
+                slotByUser[user] = result.slotOf(user);
+                assertFalse(problem.isUnavailable(user, slotByUser[user]));
+            }
+            assertEquals(
+                    bruteForce(problem, 0, new int[problem.userCount()]),
+                    cost(problem, slotByUser),
+                    "L'affectation doit être optimale (graine " + seed + ")");
+        }
+    }
+
+    /**
+     * Problème où le glouton rang par rang échoue : les étudiants 0 et 1 veulent tous deux le
+     * créneau 0, puis le créneau 1 ; les premiers choix des étudiants 2, 3 et 4 (créneaux 1, 3 et 4)
+     * sont aussi les 2e, 3e et 4e choix des deux premiers. Le perdant du créneau 0 finit sur son
+     * 5e choix, alors qu'en laissant le créneau 1 au perdant et le créneau 2 (son 2e choix) à
+     * l'étudiant 2, personne ne descend sous son 2e choix.
+     */
+    private AssignmentProblem greedyTrap() {
+        AssignmentProblem.Builder builder = AssignmentProblem.builder(
+                        new long[] {1, 2, 3, 4, 5}, new long[] {1, 2, 3, 4, 5, 6})
+                .capacity(1);
+        for (int user = 0; user < 2; user++) {
+            builder.preference(user, 0, 1)
+                    .preference(user, 1, 2)
+                    .preference(user, 3, 3)
+                    .preference(user, 4, 4)
+                    .preference(user, 5, 5)
+                    .unavailable(user, 2);
+        }
+        return builder.preference(2, 1, 1)
+                .preference(2, 2, 2)
+                .preference(3, 3, 1)
+                .preference(4, 4, 1)
+                .build();
+    }
+
+    @Test
+    void testSolve_BeatsGreedyWhenFirstChoicesBlockSecondChoices() {
+        // Given
+        AssignmentProblem problem = greedyTrap();
+
+        // When
+        AssignmentResult result = strategy.solve(problem, new Random(0));
+
+        // Then : chacun obtient au pire son 2e choix
+        int[] slotByUser = new int[problem.userCount()];
+        for (int user = 0; user < slotByUser.length; user++) {
+            slotByUser[user] = result.slotOf(user);
+        }
+        assertEquals(2, result.worstRank(), "Personne ne doit descendre sous son 2e choix");
+        assertEquals(2, result.obtainedRank(2), "L'étudiant 2 doit céder son 1er choix");
+        assertEquals(7, cost(problem, slotByUser));
+        assertEquals(bruteForce(problem, 0, new int[problem.userCount()]), cost(problem, slotByUser));
+    }
+
+    @Test
+    void testSolve_GreedyEndsWorseOnTheSameProblem() {
+        // Given
+        AssignmentProblem problem = greedyTrap();
+        AssignmentStrategy greedy = new MaxMinFairnessStrategy();
+
+        for (long seed = 0; seed < 10; seed++) {
+            // When : quel que soit le tirage entre les étudiants 0 et 1
+            AssignmentResult result = greedy.solve(problem, new Random(seed));
+
+            // Then
+            int[] slotByUser = new int[problem.userCount()];
+            for (int user = 0; user < slotByUser.length; user++) {
+                slotByUser[user] = result.slotOf(user);
+            }
+            assertEquals(
+                    5, result.worstRank(), "Le glouton relègue le perdant sur son 5e choix (graine " + seed + ")");
+            assertEquals(9, cost(problem, slotByUser), "Le glouton coûte plus cher (graine " + seed + ")");
+        }
+    }
+
+    @Test
+    void testSolve_LargeCohortIsFast() {
+        // Given
+        AssignmentProblem problem = randomProblem(500, 60, 11);
+
+        // When & Then
+        assertTimeoutPreemptively(Duration.ofSeconds(1), () -> strategy.solve(problem, new Random(5)));
+    }
+}
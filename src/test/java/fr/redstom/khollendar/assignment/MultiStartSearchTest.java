@@ -0,0 +1,99 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.assignment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+
+class MultiStartSearchTest {
+
+    private final MaxMinFairnessStrategy strategy = new MaxMinFairnessStrategy();
+
+    /** Génère un problème aléatoire où tout le monde convoite les mêmes créneaux */
+    private AssignmentProblem randomProblem(int users, int slots, long seed) {
+        Random random = new Random(seed);
+        AssignmentProblem.Builder builder = AssignmentProblem.builder(
+                        LongStream.rangeClosed(1, users).toArray(),
+                        LongStream.rangeClosed(1, slots).toArray())
+                .capacity((int) Math.ceil((double) users / slots));
+
+        for (int user = 0; user < users; user++) {
+            int rank = 1;
+            for (int slot = 0; slot < slots; slot++) {
+                int draw = random.nextInt(6);
+                if (draw == 0) {
+                    builder.unavailable(user, slot);
+                } else if (draw > 2) {
+                    builder.preference(user, slot, rank++);
+                }
+            }
+        }
+
+        return builder.build();
+    }
+
+    private int[] slots(AssignmentResult result) {
+        int[] slotByUser = new int[result.problem().userCount()];
+        for (int user = 0; user < slotByUser.length; user++) {
+            slotByUser[user] = result.slotOf(user);
+        }
+        return slotByUser;
+    }
+
+    @Test
+    void testSolve_SameSeed_SameResult() {
+        // Given
+        AssignmentProblem problem = randomProblem(120, 12, 3);
+        MultiStartSearch search = new MultiStartSearch(strategy, 16);
+
+        // When
+        AssignmentResult first = search.solve(problem, new SplittableRandom(42));
+        AssignmentResult second = search.solve(problem, new SplittableRandom(42));
+
+        // Then: le parallélisme ne doit pas rendre le résultat dépendant de l'ordonnancement
+        assertArrayEquals(slots(first), slots(second));
+    }
+
+    @Test
+    void testSolve_KeepsBestAttempt() {
+        // Given
+        AssignmentProblem problem = randomProblem(120, 12, 3);
+        int attempts = 16;
+
+        // When
+        AssignmentResult best = new MultiStartSearch(strategy, attempts).solve(problem, new SplittableRandom(42));
+
+        // Then: aucune des tentatives, rejouées une à une, ne fait mieux
+        SplittableRandom root = new SplittableRandom(new SplittableRandom(42).nextLong());
+        AssignmentScore bestScore = AssignmentScore.of(best);
+        for (int attempt = 0; attempt < attempts; attempt++) {
+            AssignmentScore score = AssignmentScore.of(strategy.solve(problem, root.split()));
+            assertTrue(bestScore.compareTo(score) <= 0, "La tentative " + attempt + " est meilleure");
+        }
+    }
+
+    @Test
+    void testConstructor_RejectsNonPositiveAttempts() {
+        assertThrows(IllegalArgumentException.class, () -> new MultiStartSearch(strategy, 0));
+    }
+}
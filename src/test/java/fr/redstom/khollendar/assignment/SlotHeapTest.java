@@ -0,0 +1,96 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.assignment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+
+class SlotHeapTest {
+
+    /** Référence : parcours linéaire de tous les créneaux */
+    private int linearBestAvailable(AssignmentProblem problem, int user, int[] remaining) {
+        int withCapacity = -1;
+        int leastLoaded = -1;
+
+        for (int slot = 0; slot < problem.slotCount(); slot++) {
+            if (problem.isUnavailable(user, slot)) {
+                continue;
+            }
+
+            if (remaining[slot] > 0 && (withCapacity < 0 || remaining[slot] > remaining[withCapacity])) {
+                withCapacity = slot;
+            }
+
+            int load = problem.capacity(slot) - remaining[slot];
+            if (leastLoaded < 0 || load < problem.capacity(leastLoaded) - remaining[leastLoaded]) {
+                leastLoaded = slot;
+            }
+        }
+
+        return withCapacity >= 0 ? withCapacity : leastLoaded;
+    }
+
+    @Test
+    void testBestAvailable_MatchesLinearScan() {
+        for (long seed = 0; seed < 20; seed++) {
+            // Given: capacités hétérogènes et indisponibilités denses
+            Random random = new Random(seed);
+            int users = 300;
+            int slots = 1 + random.nextInt(40);
+            AssignmentProblem.Builder builder = AssignmentProblem.builder(
+                    LongStream.rangeClosed(1, users).toArray(),
+                    LongStream.rangeClosed(1, slots).toArray());
+            int[] remaining = new int[slots];
+            for (int slot = 0; slot < slots; slot++) {
+                builder.capacity(slot, random.nextInt(8));
+                remaining[slot] = random.nextInt(8);
+            }
+            for (int user = 0; user < users; user++) {
+                for (int slot = 0; slot < slots; slot++) {
+                    if (random.nextInt(4) != 0) {
+                        builder.unavailable(user, slot);
+                    }
+                }
+            }
+            AssignmentProblem problem = builder.build();
+            int[] reference = remaining.clone();
+            for (int slot = 0; slot < slots; slot++) {
+                reference[slot] = Math.min(reference[slot], problem.capacity(slot));
+            }
+
+            SlotHeap heap = new SlotHeap(problem, reference);
+
+            for (int user = 0; user < users; user++) {
+                // When
+                int expected = linearBestAvailable(problem, user, reference);
+                int actual = heap.bestAvailable(user);
+
+                // Then
+                assertEquals(expected, actual, "Graine " + seed + ", étudiant " + user);
+                if (actual >= 0) {
+                    heap.take(actual);
+                    reference[actual]--;
+                }
+            }
+        }
+    }
+}
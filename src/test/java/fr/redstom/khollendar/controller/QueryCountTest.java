@@ -0,0 +1,189 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.controller;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import fr.redstom.khollendar.dto.KholleCreationDto;
+import fr.redstom.khollendar.dto.KholleSessionCreationDto;
+import fr.redstom.khollendar.entity.KholleSession;
+import fr.redstom.khollendar.entity.KholleSlot;
+import fr.redstom.khollendar.entity.StudentGroup;
+import fr.redstom.khollendar.entity.User;
+import fr.redstom.khollendar.service.KholleAssignmentService;
+import fr.redstom.khollendar.service.KholleService;
+import fr.redstom.khollendar.service.SessionService;
+import fr.redstom.khollendar.service.StudentGroupService;
+import fr.redstom.khollendar.service.UserService;
+import fr.redstom.khollendar.support.DatabaseTest;
+import fr.redstom.khollendar.support.QueryCounter;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Nombre maximal de requêtes SQL par page, rendu du template compris. Les maximums ne dépendent pas
+ * du nombre d'étudiants : une requête de plus par étudiant ferait échouer le test.
+ */
+@DatabaseTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryCountTest {
+
+    private static final int STUDENTS = 20;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private QueryCounter queryCounter;
+
+    @Autowired
+    private KholleService kholleService;
+
+    @Autowired
+    private KholleAssignmentService assignmentService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private StudentGroupService groupService;
+
+    /** Session dont les affectations sont publiées */
+    private KholleSession published;
+
+    /** Session ouverte aux inscriptions, pour le formulaire de préférences */
+    private KholleSession open;
+
+    private User student;
+
+    @BeforeAll
+    void seed() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            users.add(userService.createUser("query-count-" + i));
+        }
+        student = userService.createUser("query-count-wizard");
+
+        // Les sessions inscrivent les membres de leur groupe, seuls autorisés à donner leurs préférences
+        StudentGroup group = groupService.createGroup("query-count-groupe");
+        List<String> usernames = new ArrayList<>(users.stream().map(User::username).toList());
+        usernames.add(student.username());
+        groupService.addMembers(group.id(), usernames);
+
+        LocalDateTime start = LocalDateTime.now().plusDays(2);
+        published = kholleService.createKholle(new KholleSessionCreationDto(
+                "Mathématiques",
+                group.id(),
+                new KholleCreationDto(start, null),
+                new KholleCreationDto(start.plusHours(1), null),
+                new KholleCreationDto(start.plusHours(2), null)));
+        List<Long> slotIds = slotIds(published);
+        for (User user : users) {
+            kholleService.savePreferences(
+                    user.id(), published.id(), List.of(slotIds.get(2)), List.of(slotIds.get(0), slotIds.get(1)));
+        }
+        assignmentService.assignStudentsToSlots(published.id());
+
+        open = kholleService.createKholle(new KholleSessionCreationDto(
+                "Anglais",
+                group.id(),
+                new KholleCreationDto(start.plusDays(1), null),
+                new KholleCreationDto(start.plusDays(1).plusHours(1), null),
+                new KholleCreationDto(start.plusDays(1).plusHours(2), null)));
+    }
+
+    private static List<Long> slotIds(KholleSession session) {
+        return session.kholleSlots().stream().map(KholleSlot::id).toList();
+    }
+
+    @Test
+    void testSessionList() throws Exception {
+        queryCounter.assertAtMost(0, "GET /kholles", () -> mockMvc.perform(get("/kholles"))
+                .andExpect(status().isOk()));
+
+        for (int type = 0; type <= 2; type++) {
+            String url = "/kholles/paginated?type=" + type;
+            queryCounter.assertAtMost(3, "GET " + url, () -> mockMvc.perform(get(url))
+                    .andExpect(status().isOk()));
+        }
+
+        // Un curseur illisible est refusé sans requête, plutôt que de renvoyer la liste complète
+        queryCounter.assertAtMost(0, "GET /kholles/paginated (curseur illisible)", () -> mockMvc.perform(
+                        get("/kholles/paginated").param("cursor", "illisible"))
+                .andExpect(status().isBadRequest()));
+    }
+
+    @Test
+    void testSessionPage() throws Exception {
+        String url = "/kholles/" + published.id();
+        queryCounter.assertAtMost(3, "GET " + url, () -> mockMvc.perform(get(url))
+                .andExpect(status().isOk()));
+    }
+
+    @Test
+    void testPreferenceWizard() throws Exception {
+        MockHttpSession httpSession = new MockHttpSession();
+        httpSession.setAttribute(SessionService.SESSION_USER_ID, student.id());
+        String base = "/kholles/" + open.id() + "/preferences";
+        List<Long> slotIds = slotIds(open);
+
+        queryCounter.assertAtMost(3, "Page du formulaire", () -> mockMvc.perform(get(base).session(httpSession))
+                .andExpect(status().isOk()));
+
+        queryCounter.assertAtMost(3, "Étape 1 : indisponibilités", () -> mockMvc.perform(get(base + "/current-step")
+                        .header("HX-Request", "true")
+                        .session(httpSession))
+                .andExpect(status().isOk()));
+
+        queryCounter.assertAtMost(3, "Étape 2 : classement", () -> mockMvc.perform(post(base + "/unavailabilities")
+                        .param("unavailable-slots", String.valueOf(slotIds.get(2)))
+                        .session(httpSession)
+                        .with(csrf()))
+                .andExpect(status().isOk()));
+
+        queryCounter.assertAtMost(3, "Étape 3 : confirmation", () -> mockMvc.perform(post(base + "/ranking")
+                        .param("ranked-slots", String.valueOf(slotIds.get(0)), String.valueOf(slotIds.get(1)))
+                        .session(httpSession)
+                        .with(csrf()))
+                .andExpect(status().isOk()));
+
+        queryCounter.assertAtMost(6, "Enregistrement des préférences", () -> mockMvc.perform(post(base + "/confirm")
+                        .session(httpSession)
+                        .with(csrf()))
+                .andExpect(status().is3xxRedirection()));
+    }
+
+    @Test
+    void testAdminAssignmentsPage() throws Exception {
+        String url = "/admin/kholles/" + published.id() + "/assignments";
+        queryCounter.assertAtMost(2, "GET " + url, () -> mockMvc.perform(get(url).with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk()));
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.crons;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import fr.redstom.khollendar.assignment.AssignmentMode;
+import fr.redstom.khollendar.entity.KholleSessionStatus;
+import fr.redstom.khollendar.repository.KholleSessionRepository;
+import fr.redstom.khollendar.service.AssignmentPhase;
+import fr.redstom.khollendar.service.AssignmentProgressListener;
+import fr.redstom.khollendar.service.KholleAssignmentService;
+import fr.redstom.khollendar.service.LeaseService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+class AffectationCronTest {
+
+    @Mock
+    private KholleSessionRepository sessionRepository;
+
+    @Mock
+    private KholleAssignmentService assignmentService;
+
+    @Mock
+    private LeaseService leaseService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AffectationCron cron;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cron = new AffectationCron(sessionRepository, assignmentService, meterRegistry, leaseService);
+        lenient().when(assignmentService.defaultMode()).thenReturn(AssignmentMode.MIN_COST);
+        lenient()
+                .when(leaseService.tryAcquire(eq("affectation-cron"), any()))
+                .thenReturn(Optional.of(new LeaseService.Lease("affectation-cron", "test")));
+        lenient().when(leaseService.extend(any(), any())).thenReturn(true);
+    }
+
+    private double sessions(String outcome) {
+        return meterRegistry.counter("kholle.assignment.cron.sessions", "outcome", outcome).count();
+    }
+
+    @Test
+    void testAssignUpcomingSessions_RunsSessionsConcurrently() {
+        // Given : chaque affectation attend que l'autre ait commencé
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        when(sessionRepository.findSessionIdsToAssign(any(), any(), eq(KholleSessionStatus.RESULTS_AVAILABLE)))
+                .thenReturn(List.of(1L, 2L));
+        when(assignmentService.assignPendingSession(any(), eq(AssignmentMode.MIN_COST), any()))
+                .thenAnswer(invocation -> {
+                    bothStarted.countDown();
+                    assertTrue(
+                            bothStarted.await(5, TimeUnit.SECONDS), "Les sessions doivent être traitées en parallèle");
+                    return Map.of();
+                });
+
+        // When
+        cron.assignUpcomingSessions();
+
+        // Then
+        assertEquals(2, sessions("assigned"));
+        assertEquals(0, sessions("failed"));
+    }
+
+    @Test
+    void testAssignUpcomingSessions_IsolatesFailures() {
+        // Given
+        when(sessionRepository.findSessionIdsToAssign(any(), any(), any())).thenReturn(List.of(1L, 2L, 3L));
+        when(assignmentService.assignPendingSession(eq(2L), any(), any()))
+                .thenThrow(new IllegalStateException("Aucun créneau disponible pour cette session"));
+        when(assignmentService.assignPendingSession(eq(1L), any(), any())).thenReturn(Map.of());
+        when(assignmentService.assignPendingSession(eq(3L), any(), any())).thenReturn(Map.of());
+
+        // When
+        cron.assignUpcomingSessions();
+
+        // Then
+        assertEquals(2, sessions("assigned"), "Une session en échec ne doit pas bloquer les autres");
+        assertEquals(1, sessions("failed"));
+    }
+
+    @Test
+    void testAssignSession_AbandonsAfterTimeout() {
+        // Given : l'étape d'enregistrement n'est atteinte qu'une fois le délai dépassé
+        when(assignmentService.assignPendingSession(eq(1L), any(), any())).thenAnswer(invocation -> {
+            AssignmentProgressListener listener = invocation.getArgument(2);
+            listener.onPhase(AssignmentPhase.LOADING);
+            Thread.sleep(1100);
+            listener.onPhase(AssignmentPhase.PERSISTING);
+            return Map.of();
+        });
+        ReflectionTestUtils.setField(cron, "sessionTimeoutSeconds", 1L);
+
+        // When
+        AffectationCron.Outcome outcome = cron.assignSession(1L);
+
+        // Then
+        assertEquals(AffectationCron.Outcome.TIMED_OUT, outcome);
+    }
+
+    @Test
+    void testAssignUpcomingSessions_InterruptsSessionStuckPastTheDeadline() throws Exception {
+        // Given : une affectation bloquée sans jamais atteindre une étape où le délai est vérifié
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(sessionRepository.findSessionIdsToAssign(any(), any(), any())).thenReturn(List.of(1L));
+        when(assignmentService.assignPendingSession(eq(1L), any(), any())).thenAnswer(invocation -> {
+            try {
+                new CountDownLatch(1).await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+            return Map.of();
+        });
+        ReflectionTestUtils.setField(cron, "sessionTimeoutSeconds", 1L);
+
+        // When
+        long start = System.nanoTime();
+        cron.assignUpcomingSessions();
+        long elapsedSeconds = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start);
+
+        // Then
+        assertTrue(elapsedSeconds < 5, "La tâche ne doit pas attendre la fin du calcul bloqué");
+        assertEquals(1, sessions("timed_out"));
+        assertEquals(0, sessions("failed"));
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS), "Le calcul abandonné doit être interrompu");
+    }
+
+    @Test
+    void testAssignSession_ReportsConflictWhenAlreadyPublished() {
+        // Given : un administrateur a publié les résultats entre la sélection et le calcul
+        when(assignmentService.assignPendingSession(eq(1L), any(), any()))
+                .thenThrow(new OptimisticLockingFailureException("Les résultats sont déjà publiés"));
+
+        // When
+        AffectationCron.Outcome outcome = cron.assignSession(1L);
+
+        // Then
+        assertEquals(AffectationCron.Outcome.CONFLICT, outcome, "Un conflit n'est pas une erreur");
+    }
+
+    @Test
+    void testAssignUpcomingSessions_SkipsWhenAnotherInstanceHoldsTheLease() {
+        // Given
+        when(leaseService.tryAcquire(eq("affectation-cron"), any())).thenReturn(Optional.empty());
+
+        // When
+        cron.assignUpcomingSessions();
+
+        // Then
+        verifyNoInteractions(sessionRepository);
+        verify(assignmentService, never()).assignPendingSession(any(), any(), any());
+        verify(leaseService, never()).release(any());
+    }
+
+    @Test
+    void testAssignUpcomingSessions_ExtendsLeaseToTheRunDeadline() {
+        // Given : neuf sessions sur quatre threads, soit trois vagues de dix minutes
+        when(sessionRepository.findSessionIdsToAssign(any(), any(), any()))
+                .thenReturn(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L));
+        when(assignmentService.assignPendingSession(any(), any(), any())).thenReturn(Map.of());
+
+        // When
+        cron.assignUpcomingSessions();
+
+        // Then : le bail de 60 minutes ne doit pas expirer avant l'échéance de 30 minutes, marge comprise
+        verify(leaseService)
+                .extend(
+                        argThat(lease -> lease.name().equals("affectation-cron")),
+                        argThat(duration -> duration.compareTo(Duration.ofMinutes(89)) > 0
+                                && duration.compareTo(Duration.ofMinutes(90)) <= 0));
+        assertEquals(9, sessions("assigned"));
+    }
+
+    @Test
+    void testAssignUpcomingSessions_AbortsWhenLeaseIsLost() {
+        // Given : le bail a expiré et été repris par une autre instance avant le calcul
+        when(sessionRepository.findSessionIdsToAssign(any(), any(), any())).thenReturn(List.of(1L));
+        when(leaseService.extend(any(), any())).thenReturn(false);
+
+        // When
+        cron.assignUpcomingSessions();
+
+        // Then
+        verify(assignmentService, never()).assignPendingSession(any(), any(), any());
+        verify(leaseService).release(any());
+    }
+}
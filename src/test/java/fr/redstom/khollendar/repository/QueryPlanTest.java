@@ -0,0 +1,202 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import fr.redstom.khollendar.dto.KholleCreationDto;
+import fr.redstom.khollendar.dto.KholleSessionCreationDto;
+import fr.redstom.khollendar.entity.KholleSession;
+import fr.redstom.khollendar.entity.KholleSlot;
+import fr.redstom.khollendar.entity.StudentGroup;
+import fr.redstom.khollendar.entity.User;
+import fr.redstom.khollendar.service.KholleService;
+import fr.redstom.khollendar.service.StudentGroupService;
+import fr.redstom.khollendar.service.UserService;
+import fr.redstom.khollendar.support.DatabaseTest;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Vérifie, avec EXPLAIN, que les requêtes fréquentes sont servies par les index composites
+ * (V8__Composite_indexes.sql) et par les bornes de créneaux des sessions
+ * (V9__Session_slot_bounds.sql). Le jeu de données est trop petit pour que le planificateur préfère
+ * un index de lui-même : les parcours séquentiels sont désactivés pendant l'EXPLAIN, ce qui vérifie
+ * qu'un index correspond à la forme de la requête, sans dépendre du volume.
+ */
+@DatabaseTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanTest {
+
+    private static final int STUDENTS = 30;
+    private static final int SESSIONS = 3;
+
+    @Autowired
+    private KholleService kholleService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private StudentGroupService groupService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User student;
+    private KholleSession session;
+
+    @BeforeAll
+    void seed() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            users.add(userService.createUser("query-plan-" + i));
+        }
+        StudentGroup group = groupService.createGroup("query-plan-groupe");
+        groupService.addMembers(group.id(), users.stream().map(User::username).toList());
+
+        LocalDateTime start = LocalDateTime.now().plusDays(5);
+        for (int s = 0; s < SESSIONS; s++) {
+            LocalDateTime day = start.plusDays(s);
+            session = kholleService.createKholle(new KholleSessionCreationDto(
+                    "Sciences de l'ingénieur " + s,
+                    group.id(),
+                    new KholleCreationDto(day, null),
+                    new KholleCreationDto(day.plusHours(1), null),
+                    new KholleCreationDto(day.plusHours(2), null),
+                    new KholleCreationDto(day.plusHours(3), null)));
+            List<Long> slotIds = session.kholleSlots().stream().map(KholleSlot::id).toList();
+            for (User user : users) {
+                kholleService.savePreferences(
+                        user.id(),
+                        session.id(),
+                        List.of(slotIds.get(3)),
+                        List.of(slotIds.get(0), slotIds.get(1), slotIds.get(2)));
+            }
+        }
+        student = users.getFirst();
+
+        // Statistiques et carte de visibilité à jour, nécessaires aux parcours d'index seuls
+        jdbcTemplate.execute("VACUUM ANALYZE user_preferences");
+        jdbcTemplate.execute("VACUUM ANALYZE kholle_assignments");
+        jdbcTemplate.execute("VACUUM ANALYZE kholle_slot");
+        jdbcTemplate.execute("VACUUM ANALYZE kholle_sessions");
+    }
+
+    /** Plan d'exécution d'une requête, calculé sans parcours séquentiel ni parcours bitmap */
+    private String explain(String sql) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+            jdbcTemplate.execute("SET LOCAL enable_bitmapscan = off");
+            return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+        });
+    }
+
+    @Test
+    void testPreferencesOfSession_IndexOnlyWithoutSort() {
+        // When : forme de findBySessionOrderByUserIdAscPreferenceRankAsc
+        String plan = explain("SELECT id, user_id, slot_id, preference_rank, is_unavailable FROM user_preferences"
+                + " WHERE session_id = " + session.id() + " ORDER BY user_id, preference_rank");
+
+        // Then
+        assertTrue(plan.contains("Index Only Scan using idx_user_preference_session_user_rank"), plan);
+        assertFalse(plan.contains("Sort"), "L'ordre doit être donné par l'index :\n" + plan);
+    }
+
+    @Test
+    void testPreferencesOfUser_IndexOnlyWithoutSort() {
+        // When : forme de findByUserAndSessionOrderByPreferenceRankAsc
+        String plan = explain("SELECT id, slot_id, preference_rank, is_unavailable FROM user_preferences"
+                + " WHERE user_id = " + student.id() + " AND session_id = " + session.id()
+                + " ORDER BY preference_rank");
+
+        // Then
+        assertTrue(plan.contains("Index Only Scan using idx_user_preference_user_session_rank"), plan);
+        assertFalse(plan.contains("Sort"), "L'ordre doit être donné par l'index :\n" + plan);
+    }
+
+    @Test
+    void testHasSubmittedPreferences_IndexOnly() {
+        // When : forme de existsByUserAndSession
+        String plan = explain("SELECT id FROM user_preferences"
+                + " WHERE user_id = " + student.id() + " AND session_id = " + session.id() + " LIMIT 1");
+
+        // Then
+        assertTrue(plan.contains("Index Only Scan using idx_user_preference_user_session_rank"), plan);
+    }
+
+    @Test
+    void testAssignmentOfUser_UsesCompositeIndex() {
+        // When : forme de KholleAssignmentRepository.findByUserAndSession
+        String plan = explain("SELECT id FROM kholle_assignments"
+                + " WHERE user_id = " + student.id() + " AND session_id = " + session.id());
+
+        // Then
+        assertTrue(plan.contains("idx_kholle_assignment_user_session"), plan);
+    }
+
+    @Test
+    void testUpcomingSessions_RangeScanWithoutAggregate() {
+        // When : forme de findByLastSlotAtAfterOrderByFirstSlotAtAscIdAsc, reprise après un curseur
+        String plan = explain("SELECT id, subject, status FROM kholle_sessions"
+                + " WHERE last_slot_at > LOCALTIMESTAMP"
+                + " AND (first_slot_at > LOCALTIMESTAMP OR (first_slot_at = LOCALTIMESTAMP AND id > 0))"
+                + " ORDER BY first_slot_at, id LIMIT 11");
+
+        // Then
+        assertTrue(plan.contains("using idx_kholle_sessions_"), plan);
+        assertFalse(plan.contains("Aggregate"), "Les créneaux ne doivent plus être regroupés :\n" + plan);
+    }
+
+    @Test
+    void testPreviousSessions_RangeScanWithoutAggregate() {
+        // When : forme de findByFirstSlotAtBeforeOrderByLastSlotAtDescIdDesc, reprise après un curseur
+        String plan = explain("SELECT id, subject, status FROM kholle_sessions"
+                + " WHERE first_slot_at < LOCALTIMESTAMP"
+                + " AND (last_slot_at < LOCALTIMESTAMP OR (last_slot_at = LOCALTIMESTAMP AND id < 0))"
+                + " ORDER BY last_slot_at DESC, id DESC LIMIT 11");
+
+        // Then
+        assertTrue(plan.contains("using idx_kholle_sessions_"), plan);
+        assertFalse(plan.contains("Aggregate"), "Les créneaux ne doivent plus être regroupés :\n" + plan);
+    }
+
+    @Test
+    void testSessionsToAssign_RangeScanWithoutAggregate() {
+        // When : forme de findSessionIdsToAssign
+        String plan = explain("SELECT id FROM kholle_sessions WHERE status <> 'RESULTS_AVAILABLE'"
+                + " AND last_slot_at > LOCALTIMESTAMP AND first_slot_at <= LOCALTIMESTAMP + INTERVAL '72 hours'"
+                + " ORDER BY first_slot_at");
+
+        // Then
+        assertTrue(plan.contains("using idx_kholle_sessions_"), plan);
+        assertFalse(plan.contains("Aggregate"), "Les créneaux ne doivent plus être regroupés :\n" + plan);
+    }
+}
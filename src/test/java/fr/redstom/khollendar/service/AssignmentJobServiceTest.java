@@ -0,0 +1,170 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import fr.redstom.khollendar.assignment.AssignmentMode;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class AssignmentJobServiceTest {
+
+    @Mock
+    private KholleAssignmentService assignmentService;
+
+    private AssignmentJobService jobService;
+
+    @BeforeEach
+    void setUp() {
+        jobService = new AssignmentJobService(assignmentService);
+        jobService.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jobService.stop();
+    }
+
+    /** Attend la fin d'un calcul, sans bloquer indéfiniment si le test échoue */
+    private void awaitFinished(AssignmentJob job) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!job.finished() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(job.finished(), "Le calcul doit se terminer");
+    }
+
+    @Test
+    void testSubmit_CoalescesJobsForSameSession() throws InterruptedException {
+        // Given : le premier calcul reste bloqué tant que le test ne le libère pas
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(assignmentService.assignStudentsToSlots(eq(1L), eq(AssignmentMode.MIN_COST), any()))
+                .thenAnswer(invocation -> {
+                    AssignmentProgressListener listener = invocation.getArgument(2);
+                    listener.onPhase(AssignmentPhase.SOLVING);
+                    started.countDown();
+                    release.await();
+                    return Map.of();
+                });
+
+        // When
+        AssignmentJob first = jobService.submit(1L, AssignmentMode.MIN_COST);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        AssignmentJob second = jobService.submit(1L, AssignmentMode.LEXIMIN);
+
+        // Then
+        assertSame(first, second, "Une seconde demande pour la même session doit rejoindre la première");
+        assertEquals(AssignmentPhase.SOLVING, first.phase());
+
+        release.countDown();
+        awaitFinished(first);
+        assertEquals(AssignmentPhase.DONE, first.phase());
+        assertEquals(first, jobService.getJob(first.id()).orElseThrow());
+        verify(assignmentService, times(1)).assignStudentsToSlots(any(), any(), any());
+    }
+
+    @Test
+    void testSubmit_NewJobOnceFinished() throws InterruptedException {
+        // Given
+        when(assignmentService.defaultMode()).thenReturn(AssignmentMode.MAX_MIN_FAIRNESS);
+        when(assignmentService.assignStudentsToSlots(eq(1L), eq(AssignmentMode.MAX_MIN_FAIRNESS), any()))
+                .thenReturn(Map.of());
+
+        // When
+        AssignmentJob first = jobService.submit(1L, null);
+        awaitFinished(first);
+        AssignmentJob second = jobService.submit(1L, null);
+        awaitFinished(second);
+
+        // Then
+        assertNotSame(first, second, "Un calcul terminé ne doit pas être réutilisé");
+        assertEquals(AssignmentMode.MAX_MIN_FAIRNESS, first.mode());
+        verify(assignmentService, times(2)).assignStudentsToSlots(any(), any(), any());
+    }
+
+    @Test
+    void testSubmitUpdate_RunsIncrementalRepairInBackground() throws InterruptedException {
+        // Given
+        when(assignmentService.reassignAffectedStudents(eq(1L), any())).thenReturn(Map.of());
+
+        // When
+        AssignmentJob job = jobService.submitUpdate(1L);
+        awaitFinished(job);
+
+        // Then
+        assertTrue(job.incremental());
+        assertEquals(AssignmentPhase.DONE, job.phase());
+        verify(assignmentService).reassignAffectedStudents(eq(1L), same(job));
+        verify(assignmentService, never()).assignStudentsToSlots(any(), any(), any());
+    }
+
+    @Test
+    void testSubmitUpdate_CoalescesWithRunningJob() throws InterruptedException {
+        // Given : un recalcul complet de la session est déjà en cours
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(assignmentService.assignStudentsToSlots(eq(1L), eq(AssignmentMode.MIN_COST), any()))
+                .thenAnswer(invocation -> {
+                    started.countDown();
+                    release.await();
+                    return Map.of();
+                });
+
+        // When
+        AssignmentJob first = jobService.submit(1L, AssignmentMode.MIN_COST);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        AssignmentJob update = jobService.submitUpdate(1L);
+
+        // Then
+        assertSame(first, update, "Une mise à jour pendant un calcul doit rejoindre le calcul en cours");
+
+        release.countDown();
+        awaitFinished(first);
+        verify(assignmentService, never()).reassignAffectedStudents(any(), any());
+    }
+
+    @Test
+    void testSubmit_RecordsFailure() throws InterruptedException {
+        // Given
+        when(assignmentService.assignStudentsToSlots(eq(1L), eq(AssignmentMode.MIN_COST), any()))
+                .thenThrow(new IllegalStateException("Aucun créneau disponible pour cette session"));
+
+        // When
+        AssignmentJob job = jobService.submit(1L, AssignmentMode.MIN_COST);
+        awaitFinished(job);
+
+        // Then
+        assertEquals(AssignmentPhase.FAILED, job.phase());
+        assertEquals("Aucun créneau disponible pour cette session", job.error());
+    }
+}
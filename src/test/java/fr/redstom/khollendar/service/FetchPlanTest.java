@@ -0,0 +1,185 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import fr.redstom.khollendar.dto.AssignmentView;
+import fr.redstom.khollendar.dto.KholleCreationDto;
+import fr.redstom.khollendar.dto.KholleSessionCreationDto;
+import fr.redstom.khollendar.dto.StudentPreferencesView;
+import fr.redstom.khollendar.entity.*;
+import fr.redstom.khollendar.repository.KholleAssignmentRepository;
+import fr.redstom.khollendar.repository.UserPreferenceRepository;
+import fr.redstom.khollendar.support.DatabaseTest;
+import fr.redstom.khollendar.support.QueryCounter;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+
+/**
+ * Vérifie que chaque page charge ce qu'elle affiche en un nombre borné de requêtes. Les données
+ * sont lues hors transaction, comme lors du rendu des templates (open-in-view désactivé) : une
+ * association non chargée lèverait une LazyInitializationException.
+ */
+@DatabaseTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class FetchPlanTest {
+
+    private static final int STUDENTS = 12;
+
+    @Autowired
+    private KholleService kholleService;
+
+    @Autowired
+    private KholleAssignmentService assignmentService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private StudentGroupService groupService;
+
+    @Autowired
+    private KholleAssignmentRepository assignmentRepository;
+
+    @Autowired
+    private UserPreferenceRepository preferenceRepository;
+
+    @Autowired
+    private QueryCounter queryCounter;
+
+    private KholleSession session;
+
+    @BeforeAll
+    void seed() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            users.add(userService.createUser("fetch-plan-" + i));
+        }
+        StudentGroup group = groupService.createGroup("fetch-plan-groupe");
+        groupService.addMembers(group.id(), users.stream().map(User::username).toList());
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        session = kholleService.createKholle(new KholleSessionCreationDto(
+                "Physique",
+                group.id(),
+                new KholleCreationDto(start, null),
+                new KholleCreationDto(start.plusHours(1), null),
+                new KholleCreationDto(start.plusHours(2), null)));
+        List<Long> slotIds = session.kholleSlots().stream().map(KholleSlot::id).toList();
+
+        for (User user : users) {
+            kholleService.savePreferences(
+                    user.id(), session.id(), List.of(slotIds.get(2)), List.of(slotIds.get(0), slotIds.get(1)));
+        }
+        assignmentService.assignStudentsToSlots(session.id());
+
+        // Quelques sessions supplémentaires pour la liste
+        for (int i = 0; i < 4; i++) {
+            kholleService.createKholle(new KholleSessionCreationDto(
+                    "Chimie " + i, null, new KholleCreationDto(start.plusDays(i + 1), null)));
+        }
+    }
+
+    @Test
+    void testSessionListPage_LoadsSlotsOnceForThePage() throws Exception {
+        // When : chargement de la page puis accès faits par KholleSession.jte
+        long statements = queryCounter.count(() -> {
+            Window<KholleSession> window = kholleService.getUpcomingKholleSessions(ScrollPosition.keyset(), 10);
+            assertFalse(window.isEmpty());
+            window.forEach(listed -> {
+                assertTrue(listed.calculateDateRange().isPresent());
+                assertFalse(listed.kholleSlots().isEmpty());
+            });
+        });
+
+        // Then : les sessions (sans requête de comptage), puis leurs créneaux en une seule requête
+        assertTrue(statements <= 2, "Page des sessions chargée en " + statements + " requêtes");
+    }
+
+    @Test
+    void testShowPage_DoesNotDependOnTheNumberOfStudents() throws Exception {
+        // When : mêmes appels que KholleSessionController.show, puis accès faits par show.jte
+        long statements = queryCounter.count(() -> {
+            KholleSession shown = kholleService.getKholleSessionById(session.id()).orElseThrow();
+            List<StudentPreferencesView> preferences = kholleService.getStudentPreferences(session.id());
+            List<AssignmentView> assignments = assignmentService.getSessionAssignments(session.id());
+
+            assertEquals(3, shown.kholleSlots().size());
+            assertEquals(STUDENTS, preferences.size());
+            preferences.forEach(student -> {
+                assertEquals(2, student.ranked().size(), "Deux créneaux classés par étudiant");
+                assertEquals(1, student.unavailableSlots().size(), "Une indisponibilité par étudiant");
+            });
+            // Sans groupe, seuls les étudiants ayant donné leurs préférences participent à la session
+            assertEquals(STUDENTS, assignments.size());
+            assignments.forEach(assignment -> assertNotNull(assignment.username()));
+        });
+
+        // Then : la session (en cache), puis une requête de projection pour les préférences et une
+        // pour les affectations
+        assertTrue(statements <= 3, "Page de la session chargée en " + statements + " requêtes");
+    }
+
+    @Test
+    void testAdminAssignmentsPage_LoadsUsersAndSlotsWithAssignments() throws Exception {
+        // When : mêmes appels que AdminKholleController.assignments, puis accès faits par le tableau
+        long statements = queryCounter.count(() -> {
+            KholleSession shown = kholleService.getKholleSessionById(session.id()).orElseThrow();
+            List<KholleAssignment> assignments = assignmentRepository.findBySessionOrderByIdAsc(shown);
+
+            assertTrue(assignments.size() >= STUDENTS);
+            assignments.forEach(assignment -> {
+                assertNotNull(assignment.user().username());
+                assertNotNull(assignment.slot().dateTime());
+            });
+        });
+
+        // Then
+        assertEquals(2, statements, "Page des affectations chargée en " + statements + " requêtes");
+    }
+
+    @Test
+    void testEditAssignmentModal_LoadsAssignmentWithUserAndSlot() throws Exception {
+        // Given
+        Long assignmentId = assignmentRepository.findBySessionOrderByIdAsc(session).getFirst().id();
+
+        // When : mêmes appels que AdminKholleController.getEditAssignmentModal
+        long statements = queryCounter.count(() -> {
+            KholleSession shown = kholleService.getKholleSessionById(session.id()).orElseThrow();
+            KholleAssignment assignment = assignmentRepository.findWithUserAndSlotById(assignmentId).orElseThrow();
+            List<UserPreference> preferences =
+                    preferenceRepository.findByUserAndSessionOrderByPreferenceRankAsc(assignment.user(), shown);
+
+            assertNotNull(assignment.user().username());
+            assertNotNull(assignment.slot().dateTime());
+            preferences.forEach(preference -> assertNotNull(preference.slot().dateTime()));
+        });
+
+        // Then
+        assertEquals(3, statements, "Modale d'édition chargée en " + statements + " requêtes");
+    }
+}
@@ -22,9 +22,12 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
+import fr.redstom.khollendar.assignment.AssignmentMode;
+import fr.redstom.khollendar.dto.ParticipantSummary;
 import fr.redstom.khollendar.entity.*;
 import fr.redstom.khollendar.repository.KholleAssignmentRepository;
 import fr.redstom.khollendar.repository.KholleSessionRepository;
+import fr.redstom.khollendar.repository.SessionParticipantRepository;
 import fr.redstom.khollendar.repository.UserPreferenceRepository;
 import fr.redstom.khollendar.repository.UserRepository;
 import java.time.LocalDateTime;
@@ -33,9 +36,14 @@ import java.util.stream.Collectors;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 
 @ExtendWith(MockitoExtension.class)
 class KholleAssignmentServiceTest {
@@ -52,6 +60,18 @@ class KholleAssignmentServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private SessionParticipantRepository participantRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private LeaseService leaseService;
+
+    @Mock
+    private KholleSessionCache sessionCache;
+
     @InjectMocks
     private KholleAssignmentService assignmentService;
 
@@ -62,6 +82,13 @@ class KholleAssignmentServiceTest {
 
     @BeforeEach
     void setUp() {
+        // Aucune autre affectation n'est en cours : le bail de la session est toujours obtenu
+        lenient()
+                .when(leaseService.tryAcquire(any(), any()))
+                .thenAnswer(invocation -> Optional.of(new LeaseService.Lease(invocation.getArgument(0), "test")));
+        // Personne ne modifie le statut de la session pendant le calcul
+        lenient().when(sessionRepository.compareAndSetStatus(any(), any(), any())).thenReturn(1);
+
         // Création d'une session de test
         session = KholleSession.builder()
                 .id(1L)
@@ -132,13 +159,20 @@ class KholleAssignmentServiceTest {
         }
     }
 
+    /** Projection des participants telle que renvoyée par le dépôt */
+    private static List<ParticipantSummary> participants(List<User> users) {
+        return users.stream()
+                .map(user -> new ParticipantSummary(user.id(), user.username()))
+                .toList();
+    }
+
     @Test
     void testAssignStudentsToSlots_Success() {
         // Given
-        when(sessionRepository.findById(1L)).thenReturn(Optional.of(session));
+        when(sessionRepository.findKholleSessionById(1L)).thenReturn(Optional.of(session));
         when(preferenceRepository.findBySessionOrderByUserIdAscPreferenceRankAsc(session))
                 .thenReturn(preferences);
-        when(userRepository.findAll()).thenReturn(users);
+        when(participantRepository.findSummariesBySessionId(1L)).thenReturn(participants(users));
         when(assignmentRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
 
         // When
@@ -216,10 +250,10 @@ class KholleAssignmentServiceTest {
                     .build());
         }
 
-        when(sessionRepository.findById(1L)).thenReturn(Optional.of(session));
+        when(sessionRepository.findKholleSessionById(1L)).thenReturn(Optional.of(session));
         when(preferenceRepository.findBySessionOrderByUserIdAscPreferenceRankAsc(session))
                 .thenReturn(preferencesWithUnavailability);
-        when(userRepository.findAll()).thenReturn(users);
+        when(participantRepository.findSummariesBySessionId(1L)).thenReturn(participants(users));
         when(assignmentRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
 
         // When
@@ -340,10 +374,10 @@ class KholleAssignmentServiceTest {
                     .build());
         }
 
-        when(sessionRepository.findById(1L)).thenReturn(Optional.of(session));
+        when(sessionRepository.findKholleSessionById(1L)).thenReturn(Optional.of(session));
         when(preferenceRepository.findBySessionOrderByUserIdAscPreferenceRankAsc(session))
                 .thenReturn(complexPreferences);
-        when(userRepository.findAll()).thenReturn(users);
+        when(participantRepository.findSummariesBySessionId(1L)).thenReturn(participants(users));
         when(assignmentRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
 
         // When
@@ -397,10 +431,10 @@ class KholleAssignmentServiceTest {
                     .build());
         }
 
-        when(sessionRepository.findById(1L)).thenReturn(Optional.of(session));
+        when(sessionRepository.findKholleSessionById(1L)).thenReturn(Optional.of(session));
         when(preferenceRepository.findBySessionOrderByUserIdAscPreferenceRankAsc(session))
                 .thenReturn(impossiblePreferences);
-        when(userRepository.findAll()).thenReturn(users);
+        when(participantRepository.findSummariesBySessionId(1L)).thenReturn(participants(users));
 
         // When & Then: Doit lever une exception car impossible d'affecter l'utilisateur
         IllegalStateException exception = assertThrows(IllegalStateException.class, () -> {
@@ -428,10 +462,10 @@ class KholleAssignmentServiceTest {
                     .build());
         }
 
-        when(sessionRepository.findById(1L)).thenReturn(Optional.of(session));
+        when(sessionRepository.findKholleSessionById(1L)).thenReturn(Optional.of(session));
         when(preferenceRepository.findBySessionOrderByUserIdAscPreferenceRankAsc(session))
                 .thenReturn(partialPreferences);
-        when(userRepository.findAll()).thenReturn(users);
+        when(participantRepository.findSummariesBySessionId(1L)).thenReturn(participants(users));
         when(assignmentRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
 
         // When
@@ -496,10 +530,10 @@ class KholleAssignmentServiceTest {
             }
         }
 
-        when(sessionRepository.findById(1L)).thenReturn(Optional.of(session));
+        when(sessionRepository.findKholleSessionById(1L)).thenReturn(Optional.of(session));
         when(preferenceRepository.findBySessionOrderByUserIdAscPreferenceRankAsc(session))
                 .thenReturn(saturatedPreferences);
-        when(userRepository.findAll()).thenReturn(manyUsers);
+        when(participantRepository.findSummariesBySessionId(1L)).thenReturn(participants(manyUsers));
         when(assignmentRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
 
         // When
@@ -524,10 +558,54 @@ class KholleAssignmentServiceTest {
         assertEquals(slots.get(2).id(), user0Assignment.id(), "User0 doit être affecté au slot 3 (seul disponible)");
     }
 
+    @Test
+    void testAssignStudentsToSlots_RespectsSlotCapacityOverride() {
+        // Given : le créneau préféré de tous n'accueille qu'un étudiant
+        List<KholleSlot> limitedSlots = new ArrayList<>(slots);
+        limitedSlots.set(0, slots.get(0).toBuilder().capacity(1).build());
+        KholleSession limitedSession = session.toBuilder().kholleSlots(limitedSlots).build();
+
+        when(sessionRepository.findKholleSessionById(1L)).thenReturn(Optional.of(limitedSession));
+        when(preferenceRepository.findBySessionOrderByUserIdAscPreferenceRankAsc(limitedSession))
+                .thenReturn(preferences);
+        when(participantRepository.findSummariesBySessionId(1L)).thenReturn(participants(users));
+        when(assignmentRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        Map<User, KholleSlot> assignments = assignmentService.assignStudentsToSlots(1L, AssignmentMode.MIN_COST);
+
+        // Then : les cinq autres étudiants se répartissent entre les deux créneaux restants (3 et 2)
+        Map<Long, Long> loadBySlot = assignments.values().stream()
+                .collect(Collectors.groupingBy(KholleSlot::id, Collectors.counting()));
+        assertEquals(1L, loadBySlot.get(1L), "La capacité fixée du créneau 1 doit être respectée");
+        assertEquals(3L, loadBySlot.get(2L));
+        assertEquals(2L, loadBySlot.get(3L));
+    }
+
+    @Test
+    void testAssignStudentsToSlots_OnlyAssignsParticipants() {
+        // Given : seuls les quatre premiers étudiants participent à la session
+        List<User> enrolled = users.subList(0, 4);
+
+        when(sessionRepository.findKholleSessionById(1L)).thenReturn(Optional.of(session));
+        when(preferenceRepository.findBySessionOrderByUserIdAscPreferenceRankAsc(session))
+                .thenReturn(preferences);
+        when(participantRepository.findSummariesBySessionId(1L)).thenReturn(participants(enrolled));
+        when(assignmentRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        Map<User, KholleSlot> assignments = assignmentService.assignStudentsToSlots(1L);
+
+        // Then
+        assertEquals(4, assignments.size(), "Seuls les participants doivent être affectés");
+        assertTrue(assignments.keySet().containsAll(enrolled));
+        verify(userRepository, never()).findAll();
+    }
+
     @Test
     void testAssignStudentsToSlots_SessionNotFound() {
         // Given
-        when(sessionRepository.findById(999L)).thenReturn(Optional.empty());
+        when(sessionRepository.findKholleSessionById(999L)).thenReturn(Optional.empty());
 
         // When & Then
         assertThrows(IllegalArgumentException.class, () -> {
@@ -540,7 +618,7 @@ class KholleAssignmentServiceTest {
         // Given
         KholleSession emptySession =
                 session.toBuilder().kholleSlots(Collections.emptyList()).build();
-        when(sessionRepository.findById(1L)).thenReturn(Optional.of(emptySession));
+        when(sessionRepository.findKholleSessionById(1L)).thenReturn(Optional.of(emptySession));
 
         // When & Then
         assertThrows(IllegalStateException.class, () -> {
@@ -551,10 +629,10 @@ class KholleAssignmentServiceTest {
     @Test
     void testAssignStudentsToSlots_UpdatesSessionStatus() {
         // Given
-        when(sessionRepository.findById(1L)).thenReturn(Optional.of(session));
+        when(sessionRepository.findKholleSessionById(1L)).thenReturn(Optional.of(session));
         when(preferenceRepository.findBySessionOrderByUserIdAscPreferenceRankAsc(session))
                 .thenReturn(preferences);
-        when(userRepository.findAll()).thenReturn(users);
+        when(participantRepository.findSummariesBySessionId(1L)).thenReturn(participants(users));
         when(assignmentRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
 
         // When
@@ -562,7 +640,245 @@ class KholleAssignmentServiceTest {
 
         // Then
         verify(sessionRepository)
-                .save(argThat(savedSession -> savedSession.status() == KholleSessionStatus.RESULTS_AVAILABLE));
+                .compareAndSetStatus(
+                        1L, KholleSessionStatus.REGISTRATIONS_CLOSED, KholleSessionStatus.RESULTS_AVAILABLE);
+        verify(sessionRepository, never()).save(any());
+        verify(sessionCache).evict(1L);
+    }
+
+    @Test
+    void testAssignStudentsToSlots_ClosesOpenSessionInTheWriteTransaction() {
+        // Given : la session a encore ses inscriptions ouvertes au moment du calcul
+        KholleSession open =
+                session.toBuilder().status(KholleSessionStatus.REGISTRATIONS_OPEN).build();
+        when(sessionRepository.findKholleSessionById(1L)).thenReturn(Optional.of(open));
+        when(preferenceRepository.findBySessionOrderByUserIdAscPreferenceRankAsc(open))
+                .thenReturn(preferences);
+        when(participantRepository.findSummariesBySessionId(1L)).thenReturn(participants(users));
+        when(assignmentRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        assignmentService.assignStudentsToSlots(1L);
+
+        // Then : fermeture puis publication, toutes deux après le calcul et avec les affectations
+        verify(transactionManager, times(2)).getTransaction(any());
+        InOrder inOrder = inOrder(transactionManager, sessionRepository, assignmentRepository);
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(sessionRepository)
+                .compareAndSetStatus(
+                        1L, KholleSessionStatus.REGISTRATIONS_OPEN, KholleSessionStatus.REGISTRATIONS_CLOSED);
+        inOrder.verify(sessionRepository)
+                .compareAndSetStatus(
+                        1L, KholleSessionStatus.REGISTRATIONS_CLOSED, KholleSessionStatus.RESULTS_AVAILABLE);
+        inOrder.verify(assignmentRepository).saveAll(any());
+        verify(sessionRepository, never())
+                .compareAndSetStatus(1L, KholleSessionStatus.REGISTRATIONS_OPEN, KholleSessionStatus.RESULTS_AVAILABLE);
+    }
+
+    @Test
+    void testAssignStudentsToSlots_LeavesOpenSessionOpenWhenSolvingFails() {
+        // Given : une session ouverte dont un étudiant n'a aucun créneau disponible
+        KholleSession open =
+                session.toBuilder().status(KholleSessionStatus.REGISTRATIONS_OPEN).build();
+        List<UserPreference> blocked = new ArrayList<>();
+        for (KholleSlot slot : slots) {
+            blocked.add(UserPreference.builder()
+                    .user(users.get(0))
+                    .session(open)
+                    .slot(slot)
+                    .preferenceRank(-1)
+                    .isUnavailable(true)
+                    .build());
+        }
+        when(sessionRepository.findKholleSessionById(1L)).thenReturn(Optional.of(open));
+        when(preferenceRepository.findBySessionOrderByUserIdAscPreferenceRankAsc(open))
+                .thenReturn(blocked);
+        when(participantRepository.findSummariesBySessionId(1L)).thenReturn(participants(users));
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> assignmentService.assignStudentsToSlots(1L));
+        verify(sessionRepository, never()).compareAndSetStatus(any(), any(), any());
+        verify(sessionCache, never()).evict(any());
+    }
+
+    @Test
+    void testAssignStudentsToSlots_DiscardsResultWhenStatusChangedMeanwhile() {
+        // Given : le statut de la session a changé pendant le calcul
+        when(sessionRepository.findKholleSessionById(1L)).thenReturn(Optional.of(session));
+        when(preferenceRepository.findBySessionOrderByUserIdAscPreferenceRankAsc(session))
+                .thenReturn(preferences);
+        when(participantRepository.findSummariesBySessionId(1L)).thenReturn(participants(users));
+        when(sessionRepository.compareAndSetStatus(any(), any(), any())).thenReturn(0);
+
+        // When & Then
+        assertThrows(
+                OptimisticLockingFailureException.class,
+                () -> assignmentService.assignStudentsToSlots(1L),
+                "Un changement de statut concurrent doit être signalé comme un conflit");
+        verify(assignmentRepository, never()).deleteBySession(any());
+        verify(assignmentRepository, never()).saveAll(any());
+        verify(sessionCache, never()).evict(any());
+    }
+
+    @Test
+    void testAssignPendingSession_RejectsPublishedSessionBeforeSolving() {
+        // Given
+        KholleSession published = session.toBuilder()
+                .status(KholleSessionStatus.RESULTS_AVAILABLE)
+                .build();
+        when(sessionRepository.findKholleSessionById(1L)).thenReturn(Optional.of(published));
+        when(preferenceRepository.findBySessionOrderByUserIdAscPreferenceRankAsc(published))
+                .thenReturn(preferences);
+        when(participantRepository.findSummariesBySessionId(1L)).thenReturn(participants(users));
+        List<AssignmentPhase> phases = new ArrayList<>();
+
+        // When & Then
+        assertThrows(
+                OptimisticLockingFailureException.class,
+                () -> assignmentService.assignPendingSession(1L, AssignmentMode.MIN_COST, phases::add));
+        assertEquals(List.of(AssignmentPhase.LOADING), phases, "Aucun calcul ne doit être lancé");
+        verify(sessionRepository, never()).compareAndSetStatus(any(), any(), any());
+        verifyNoInteractions(assignmentRepository);
+    }
+
+    @Test
+    void testAssignStudentsToSlots_LoadsAndWritesInSeparateShortTransactions() {
+        // Given
+        when(sessionRepository.findKholleSessionById(1L)).thenReturn(Optional.of(session));
+        when(preferenceRepository.findBySessionOrderByUserIdAscPreferenceRankAsc(session))
+                .thenReturn(preferences);
+        when(participantRepository.findSummariesBySessionId(1L)).thenReturn(participants(users));
+        when(assignmentRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        assignmentService.assignStudentsToSlots(1L);
+
+        // Then: une transaction en lecture seule pour le chargement, une autre pour l'écriture
+        ArgumentCaptor<TransactionDefinition> definitions = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager, times(2)).getTransaction(definitions.capture());
+        verify(transactionManager, times(2)).commit(any());
+        assertTrue(definitions.getAllValues().get(0).isReadOnly());
+        assertFalse(definitions.getAllValues().get(1).isReadOnly());
+
+        // Les anciennes affectations ne sont supprimées qu'une fois le calcul terminé
+        InOrder inOrder = inOrder(participantRepository, transactionManager, assignmentRepository);
+        inOrder.verify(participantRepository).findSummariesBySessionId(1L);
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(assignmentRepository).deleteBySession(session);
+        inOrder.verify(assignmentRepository).saveAll(any());
+    }
+
+    @Test
+    void testReassignAffectedStudents_WritesOnlyChangedRows() {
+        // Given : cinq étudiants déjà affectés, le sixième n'a pas encore d'affectation
+        int[] assignedSlots = {0, 0, 1, 1, 2};
+        List<KholleAssignment> existing = new ArrayList<>();
+        for (int i = 0; i < assignedSlots.length; i++) {
+            existing.add(KholleAssignment.builder()
+                    .id((long) (i + 1))
+                    .user(users.get(i))
+                    .session(session)
+                    .slot(slots.get(assignedSlots[i]))
+                    .obtainedPreferenceRank(assignedSlots[i] + 1)
+                    .build());
+        }
+
+        when(sessionRepository.findKholleSessionById(1L)).thenReturn(Optional.of(session));
+        when(preferenceRepository.findBySessionOrderByUserIdAscPreferenceRankAsc(session))
+                .thenReturn(preferences);
+        when(participantRepository.findSummariesBySessionId(1L)).thenReturn(participants(users));
+        when(assignmentRepository.findBySession(session)).thenReturn(existing);
+        when(assignmentRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        Map<User, KholleSlot> result = assignmentService.reassignAffectedStudents(1L);
+
+        // Then
+        for (int i = 0; i < assignedSlots.length; i++) {
+            assertEquals(
+                    slots.get(assignedSlots[i]), result.get(users.get(i)), "Les affectations à jour ne bougent pas");
+        }
+        assertEquals(slots.get(2), result.get(users.get(5)), "Le nouvel étudiant prend la place restante");
+
+        ArgumentCaptor<List<KholleAssignment>> saved = ArgumentCaptor.forClass(List.class);
+        verify(assignmentRepository).saveAll(saved.capture());
+        assertEquals(1, saved.getValue().size(), "Seule l'affectation modifiée doit être écrite");
+        assertEquals(users.get(5), saved.getValue().get(0).user());
+        verify(assignmentRepository, never()).deleteBySession(any());
+    }
+
+    @Test
+    void testReassignAffectedStudents_DeletesAssignmentsOfWithdrawnParticipants() {
+        // Given : les six étudiants sont affectés, puis le dernier quitte la session
+        int[] assignedSlots = {0, 0, 1, 1, 2, 2};
+        List<KholleAssignment> existing = new ArrayList<>();
+        for (int i = 0; i < assignedSlots.length; i++) {
+            existing.add(KholleAssignment.builder()
+                    .id((long) (i + 1))
+                    .user(users.get(i))
+                    .session(session)
+                    .slot(slots.get(assignedSlots[i]))
+                    .obtainedPreferenceRank(assignedSlots[i] + 1)
+                    .build());
+        }
+        List<User> remaining = users.subList(0, 5);
+
+        when(sessionRepository.findKholleSessionById(1L)).thenReturn(Optional.of(session));
+        when(preferenceRepository.findBySessionOrderByUserIdAscPreferenceRankAsc(session))
+                .thenReturn(preferences.stream()
+                        .filter(preference -> remaining.contains(preference.user()))
+                        .toList());
+        when(participantRepository.findSummariesBySessionId(1L)).thenReturn(participants(remaining));
+        when(assignmentRepository.findBySession(session)).thenReturn(existing);
+        when(assignmentRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        Map<User, KholleSlot> result = assignmentService.reassignAffectedStudents(1L);
+
+        // Then : l'affectation de l'étudiant retiré est supprimée dans la transaction d'écriture
+        assertEquals(5, result.size(), "Seuls les participants restants sont affectés");
+        assertFalse(result.containsKey(users.get(5)), "L'étudiant retiré ne doit plus être affecté");
+
+        InOrder inOrder = inOrder(leaseService, transactionManager, assignmentRepository);
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(leaseService).lockForTransaction("assignment-session-1");
+        inOrder.verify(assignmentRepository).deleteAllInBatch(List.of(existing.get(5)));
+        inOrder.verify(assignmentRepository).saveAll(any());
+        inOrder.verify(transactionManager).commit(any());
+        verify(assignmentRepository, never()).deleteBySession(any());
+    }
+
+    @Test
+    void testAssignStudentsToSlots_RejectedWhileSessionLeaseIsHeld() {
+        // Given : une autre instance calcule déjà cette session
+        when(leaseService.tryAcquire(eq("assignment-session-1"), any())).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> assignmentService.assignStudentsToSlots(1L));
+        verifyNoInteractions(sessionRepository, assignmentRepository);
+    }
+
+    @Test
+    void testAssignStudentsToSlots_ReleasesSessionLease() {
+        // Given
+        when(sessionRepository.findKholleSessionById(1L)).thenReturn(Optional.of(session));
+        when(preferenceRepository.findBySessionOrderByUserIdAscPreferenceRankAsc(session))
+                .thenReturn(preferences);
+        when(participantRepository.findSummariesBySessionId(1L)).thenReturn(participants(users));
+        when(assignmentRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        assignmentService.assignStudentsToSlots(1L);
+
+        // Then : l'écriture est sérialisée par un verrou de transaction, puis le bail est libéré
+        InOrder inOrder = inOrder(leaseService, assignmentRepository);
+        inOrder.verify(leaseService).tryAcquire(eq("assignment-session-1"), any());
+        inOrder.verify(leaseService).lockForTransaction("assignment-session-1");
+        inOrder.verify(assignmentRepository).deleteBySession(session);
+        inOrder.verify(leaseService).release(argThat(lease -> lease.name().equals("assignment-session-1")));
     }
 
     @Test
@@ -622,10 +938,10 @@ class KholleAssignmentServiceTest {
     @Test
     void testAssignStudentsToSlots_PreferencesAreBalanced() {
         // Given: Test que l'algorithme max-min fairness équilibre bien les affectations
-        when(sessionRepository.findById(1L)).thenReturn(Optional.of(session));
+        when(sessionRepository.findKholleSessionById(1L)).thenReturn(Optional.of(session));
         when(preferenceRepository.findBySessionOrderByUserIdAscPreferenceRankAsc(session))
                 .thenReturn(preferences);
-        when(userRepository.findAll()).thenReturn(users);
+        when(participantRepository.findSummariesBySessionId(1L)).thenReturn(participants(users));
         when(assignmentRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
 
         // When
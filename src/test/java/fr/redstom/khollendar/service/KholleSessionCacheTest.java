@@ -0,0 +1,234 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import fr.redstom.khollendar.dto.KholleCreationDto;
+import fr.redstom.khollendar.dto.KhollePatchDto;
+import fr.redstom.khollendar.dto.KholleSessionCreationDto;
+import fr.redstom.khollendar.entity.KholleSession;
+import fr.redstom.khollendar.entity.KholleSessionStatus;
+import fr.redstom.khollendar.support.DatabaseTest;
+import fr.redstom.khollendar.support.QueryCounter;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+/**
+ * Vérifie que les sessions sont servies par le cache, et qu'elles en sont retirées à chaque
+ * modification
+ */
+@DatabaseTest
+class KholleSessionCacheTest {
+
+    @Autowired
+    private KholleService kholleService;
+
+    @Autowired
+    private KholleSessionCache sessionCache;
+
+    @Autowired
+    private QueryCounter queryCounter;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private KholleSession createSession(String subject) {
+        LocalDateTime start = LocalDateTime.now().plusDays(3);
+        return kholleService.createKholle(new KholleSessionCreationDto(
+                subject, null, new KholleCreationDto(start, null), new KholleCreationDto(start.plusHours(1), null)));
+    }
+
+    @Test
+    void testFind_ServesSecondReadFromCache() throws Exception {
+        // Given
+        KholleSession session = createSession("Histoire");
+        kholleService.getKholleSessionById(session.id()).orElseThrow();
+
+        // When
+        long statements = queryCounter.count(() -> {
+            KholleSession cached = kholleService.getKholleSessionById(session.id()).orElseThrow();
+            assertEquals(2, cached.kholleSlots().size());
+        });
+
+        // Then
+        assertEquals(0, statements, "Une session déjà lue doit être servie par le cache");
+    }
+
+    @Test
+    void testFindAll_LoadsOnlyMissingSessions() throws Exception {
+        // Given : une session déjà en cache, l'autre non
+        KholleSession cached = createSession("Géographie");
+        KholleSession missing = createSession("Philosophie");
+        sessionCache.find(cached.id());
+
+        // When
+        long statements = queryCounter.count(() -> {
+            Map<Long, KholleSession> found = sessionCache.findAll(List.of(cached.id(), missing.id()));
+            assertEquals(2, found.size());
+        });
+        long again = queryCounter.count(() -> sessionCache.findAll(List.of(cached.id(), missing.id())));
+
+        // Then
+        assertEquals(1, statements, "Les sessions absentes du cache doivent être chargées en une requête");
+        assertEquals(0, again, "Les sessions chargées doivent ensuite être servies par le cache");
+    }
+
+    @Test
+    void testEdit_EvictsSession() {
+        // Given
+        KholleSession session = createSession("Économie");
+        KholleSession before = kholleService.getKholleSessionById(session.id()).orElseThrow();
+
+        // When
+        KhollePatchDto patch =
+                new KhollePatchDto("Économie approfondie", KholleSessionStatus.REGISTRATIONS_CLOSED, null);
+        kholleService.edit(session.id(), patch);
+
+        // Then
+        KholleSession after = kholleService.getKholleSessionById(session.id()).orElseThrow();
+        assertEquals("Économie approfondie", after.subject(), "Le nouveau sujet doit être relu");
+        assertEquals(KholleSessionStatus.REGISTRATIONS_CLOSED, after.status(), "Le nouveau statut doit être relu");
+        assertNotEquals(before.version(), after.version());
+    }
+
+    @Test
+    void testEdit_ReopensPublishedSessionWithItsVersion() {
+        // Given : une session publiée, affichée à l'administrateur dans sa version courante
+        KholleSession session = createSession("Anglais");
+        kholleService.transitionStatus(
+                session.id(), KholleSessionStatus.REGISTRATIONS_OPEN, KholleSessionStatus.REGISTRATIONS_CLOSED);
+        kholleService.transitionStatus(
+                session.id(), KholleSessionStatus.REGISTRATIONS_CLOSED, KholleSessionStatus.RESULTS_AVAILABLE);
+        KholleSession published = kholleService.getKholleSessionById(session.id()).orElseThrow();
+
+        // When
+        kholleService.edit(
+                session.id(), new KhollePatchDto(null, KholleSessionStatus.REGISTRATIONS_OPEN, published.version()));
+
+        // Then
+        KholleSession after = kholleService.getKholleSessionById(session.id()).orElseThrow();
+        assertEquals(
+                KholleSessionStatus.REGISTRATIONS_OPEN, after.status(), "Les inscriptions doivent être rouvertes");
+        assertThrows(
+                OptimisticLockingFailureException.class,
+                () -> kholleService.edit(
+                        session.id(),
+                        new KhollePatchDto(null, KholleSessionStatus.REGISTRATIONS_OPEN, published.version())),
+                "Une réouverture fondée sur une version périmée doit être refusée");
+    }
+
+    @Test
+    void testEdit_RejectsReopenWithoutVersionAndBackwardClose() {
+        // Given
+        KholleSession session = createSession("Espagnol");
+        kholleService.transitionStatus(
+                session.id(), KholleSessionStatus.REGISTRATIONS_OPEN, KholleSessionStatus.REGISTRATIONS_CLOSED);
+
+        // When & Then
+        assertThrows(
+                IllegalStateException.class,
+                () -> kholleService.edit(
+                        session.id(), new KhollePatchDto(null, KholleSessionStatus.REGISTRATIONS_OPEN, null)),
+                "La réouverture doit exiger la version de la session");
+
+        kholleService.transitionStatus(
+                session.id(), KholleSessionStatus.REGISTRATIONS_CLOSED, KholleSessionStatus.RESULTS_AVAILABLE);
+        assertThrows(
+                IllegalStateException.class,
+                () -> kholleService.edit(
+                        session.id(), new KhollePatchDto(null, KholleSessionStatus.REGISTRATIONS_CLOSED, null)),
+                "Une session publiée ne doit pas revenir au statut fermé");
+        assertEquals(
+                KholleSessionStatus.RESULTS_AVAILABLE,
+                kholleService.getKholleSessionById(session.id()).orElseThrow().status());
+    }
+
+    @Test
+    void testEdit_EvictsSessionFromOtherInstances() throws Exception {
+        // Given : une deuxième instance de l'application, avec son propre cache et son propre écouteur
+        CaffeineCacheManager otherCacheManager = new CaffeineCacheManager(KholleSessionCache.CACHE_NAME);
+        KholleSessionCacheListener otherListener = new KholleSessionCacheListener(dataSource, otherCacheManager);
+        otherListener.start();
+        try {
+            awaitUntil(otherListener::listening, "L'écoute des évictions doit s'établir");
+            KholleSession session = createSession("Russe");
+            Cache otherCache = otherCacheManager.getCache(KholleSessionCache.CACHE_NAME);
+            otherCache.put(session.id(), session);
+
+            // When
+            kholleService.edit(session.id(), new KhollePatchDto("Russe approfondi", null, null));
+
+            // Then
+            awaitUntil(
+                    () -> otherCache.get(session.id()) == null,
+                    "La session modifiée doit être retirée du cache de l'autre instance");
+        } finally {
+            otherListener.stop();
+        }
+    }
+
+    /** Attend qu'une condition soit vraie, au plus cinq secondes */
+    private static void awaitUntil(BooleanSupplier condition, String message) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, message);
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    void testCreate_EvictsRememberedAbsence() {
+        // Given : l'ID suivant a été consulté avant la création de la session
+        Long nextId = createSession("Latin").id() + 1;
+        assertTrue(sessionCache.find(nextId).isEmpty());
+
+        // When
+        KholleSession created = createSession("Grec");
+
+        // Then
+        assumeTrue(nextId.equals(created.id()), "Les identifiants doivent être alloués à la suite");
+        assertTrue(kholleService.getKholleSessionById(nextId).isPresent(), "La session créée doit être trouvée");
+    }
+
+    @Test
+    void testDelete_EvictsSession() {
+        // Given
+        KholleSession session = createSession("Allemand");
+        kholleService.getKholleSessionById(session.id()).orElseThrow();
+
+        // When
+        kholleService.deleteKholleSession(session.id());
+
+        // Then
+        assertTrue(
+                kholleService.getKholleSessionById(session.id()).isEmpty(),
+                "La session supprimée ne doit plus être trouvée");
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import fr.redstom.khollendar.entity.KholleSession;
+import fr.redstom.khollendar.entity.User;
+import fr.redstom.khollendar.repository.UserRepository;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+@ExtendWith(MockitoExtension.class)
+class RequestLookupServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private KholleSessionCache kholleSessionCache;
+
+    private RequestLookupService lookupService;
+
+    @BeforeEach
+    void setUp() {
+        lookupService = new RequestLookupService(userRepository, kholleSessionCache);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void testLookup_LoadsOncePerRequest() {
+        // Given
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        User user = User.builder().id(1L).username("alice").build();
+        KholleSession session = KholleSession.builder().id(2L).subject("Maths").build();
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(kholleSessionCache.find(2L)).thenReturn(Optional.of(session));
+
+        // When
+        lookupService.user(1L);
+        lookupService.session(2L);
+        Optional<User> cachedUser = lookupService.user(1L);
+        Optional<KholleSession> cachedSession = lookupService.session(2L);
+
+        // Then
+        assertSame(user, cachedUser.orElseThrow(), "L'utilisateur doit être réutilisé");
+        assertSame(session, cachedSession.orElseThrow(), "La session doit être réutilisée");
+        verify(userRepository, times(1)).findById(1L);
+        verify(kholleSessionCache, times(1)).find(2L);
+    }
+
+    @Test
+    void testLookup_RemembersMissingEntity() {
+        // Given
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        when(kholleSessionCache.find(3L)).thenReturn(Optional.empty());
+
+        // When
+        lookupService.session(3L);
+        Optional<KholleSession> result = lookupService.session(3L);
+
+        // Then
+        assertTrue(result.isEmpty(), "Une session inexistante doit rester absente");
+        verify(kholleSessionCache, times(1)).find(3L);
+    }
+
+    @Test
+    void testLookup_DoesNotCacheOutsideRequest() {
+        // Given : aucune requête HTTP en cours (tâche planifiée, par exemple)
+        User user = User.builder().id(1L).username("alice").build();
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        // When
+        lookupService.user(1L);
+        lookupService.user(1L);
+
+        // Then
+        verify(userRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void testLookup_IsolatesRequests() {
+        // Given
+        User user = User.builder().id(1L).username("alice").build();
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        // When
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        lookupService.user(1L);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        lookupService.user(1L);
+
+        // Then
+        verify(userRepository, times(2)).findById(1L);
+    }
+}
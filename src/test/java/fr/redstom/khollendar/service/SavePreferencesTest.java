@@ -0,0 +1,223 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import fr.redstom.khollendar.dto.KholleCreationDto;
+import fr.redstom.khollendar.dto.KholleSessionCreationDto;
+import fr.redstom.khollendar.entity.KholleSession;
+import fr.redstom.khollendar.entity.KholleSessionStatus;
+import fr.redstom.khollendar.entity.KholleSlot;
+import fr.redstom.khollendar.entity.StudentGroup;
+import fr.redstom.khollendar.entity.User;
+import fr.redstom.khollendar.entity.UserPreference;
+import fr.redstom.khollendar.repository.KholleSessionRepository;
+import fr.redstom.khollendar.repository.UserPreferenceRepository;
+import fr.redstom.khollendar.support.DatabaseTest;
+import fr.redstom.khollendar.support.QueryCounter;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/** Vérifie l'enregistrement des préférences en une requête, qui n'écrit que les différences */
+@DatabaseTest
+class SavePreferencesTest {
+
+    private static int users = 0;
+
+    @Autowired
+    private KholleService kholleService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private StudentGroupService groupService;
+
+    @Autowired
+    private UserPreferenceRepository preferenceRepository;
+
+    @Autowired
+    private KholleSessionRepository sessionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private QueryCounter queryCounter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private KholleSession session;
+    private List<Long> slotIds;
+
+    @BeforeEach
+    void setUp() {
+        String prefix = "save-preferences-" + users++;
+        user = userService.createUser(prefix);
+        StudentGroup group = groupService.createGroup(prefix + "-groupe");
+        groupService.addMembers(group.id(), List.of(user.username()));
+
+        LocalDateTime start = LocalDateTime.now().plusDays(4);
+        session = kholleService.createKholle(new KholleSessionCreationDto(
+                "Informatique",
+                group.id(),
+                new KholleCreationDto(start, null),
+                new KholleCreationDto(start.plusHours(1), null),
+                new KholleCreationDto(start.plusHours(2), null),
+                new KholleCreationDto(start.plusHours(3), null)));
+        slotIds = session.kholleSlots().stream().map(KholleSlot::id).toList();
+    }
+
+    /** Préférences enregistrées, indexées par créneau */
+    private Map<Long, UserPreference> storedPreferences() {
+        return preferenceRepository.findByUserAndSessionOrderByPreferenceRankAsc(user, session).stream()
+                .collect(Collectors.toMap(preference -> preference.slot().id(), preference -> preference));
+    }
+
+    @Test
+    void testSavePreferences_StoresRanksAndUnavailabilities() throws Exception {
+        // When
+        long statements = queryCounter.count(() -> kholleService.savePreferences(
+                user.id(), session.id(), List.of(slotIds.get(3)), List.of(slotIds.get(1), slotIds.get(0))));
+
+        // Then
+        Map<Long, UserPreference> stored = storedPreferences();
+        assertEquals(3, stored.size());
+        assertEquals(1, stored.get(slotIds.get(1)).preferenceRank(), "Premier choix");
+        assertEquals(2, stored.get(slotIds.get(0)).preferenceRank(), "Deuxième choix");
+        assertTrue(stored.get(slotIds.get(3)).isUnavailable(), "Créneau indisponible");
+        assertEquals(-1, stored.get(slotIds.get(3)).preferenceRank());
+        // Utilisateur, session, statut verrouillé, participation et préférences
+        assertTrue(statements <= 5, "Préférences enregistrées en " + statements + " requêtes");
+    }
+
+    @Test
+    void testSavePreferences_WritesOnlyTheDifferences() {
+        // Given
+        kholleService.savePreferences(
+                user.id(), session.id(), List.of(slotIds.get(3)), List.of(slotIds.get(0), slotIds.get(1)));
+        Map<Long, UserPreference> before = storedPreferences();
+
+        // When : le premier choix reste, le deuxième change de rang, l'indisponibilité disparaît
+        kholleService.savePreferences(
+                user.id(), session.id(), List.of(), List.of(slotIds.get(0), slotIds.get(2), slotIds.get(1)));
+
+        // Then
+        Map<Long, UserPreference> after = storedPreferences();
+        assertEquals(3, after.size());
+        assertFalse(after.containsKey(slotIds.get(3)), "L'indisponibilité retirée doit être supprimée");
+        assertEquals(
+                before.get(slotIds.get(0)).id(),
+                after.get(slotIds.get(0)).id(),
+                "Une préférence inchangée doit garder sa ligne");
+        assertEquals(
+                before.get(slotIds.get(1)).id(),
+                after.get(slotIds.get(1)).id(),
+                "Une préférence modifiée doit être mise à jour sur place");
+        assertEquals(3, after.get(slotIds.get(1)).preferenceRank());
+        assertEquals(2, after.get(slotIds.get(2)).preferenceRank());
+    }
+
+    @Test
+    void testSavePreferences_ReservesOneSequenceBlock() {
+        // When
+        kholleService.savePreferences(
+                user.id(),
+                session.id(),
+                List.of(slotIds.get(3)),
+                List.of(slotIds.get(0), slotIds.get(1), slotIds.get(2)));
+
+        // Then : un seul nextval, dont la valeur est la borne haute de la tranche comme pour Hibernate
+        long high = jdbcTemplate.queryForObject("SELECT last_value FROM user_preference_seq", Long.class);
+        for (UserPreference preference : storedPreferences().values()) {
+            assertTrue(
+                    preference.id() > high - 50 && preference.id() <= high,
+                    "L'identifiant " + preference.id() + " doit appartenir à la tranche terminée par " + high);
+        }
+    }
+
+    @Test
+    void testSavePreferences_KeepsUnavailabilityOverRanking() {
+        // When : un même créneau est à la fois indisponible et classé
+        kholleService.savePreferences(
+                user.id(), session.id(), List.of(slotIds.get(0)), List.of(slotIds.get(0), slotIds.get(1)));
+
+        // Then
+        Map<Long, UserPreference> stored = storedPreferences();
+        assertEquals(2, stored.size(), "Un créneau ne doit être enregistré qu'une fois");
+        assertTrue(stored.get(slotIds.get(0)).isUnavailable());
+    }
+
+    @Test
+    void testSavePreferences_ChecksStatusInDatabaseRatherThanCache() {
+        // Given : la session est en cache avec ses inscriptions ouvertes, puis fermée sans éviction
+        kholleService.getKholleSessionById(session.id()).orElseThrow();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> sessionRepository.compareAndSetStatus(
+                session.id(), KholleSessionStatus.REGISTRATIONS_OPEN, KholleSessionStatus.REGISTRATIONS_CLOSED));
+        assertEquals(
+                KholleSessionStatus.REGISTRATIONS_OPEN,
+                kholleService.getKholleSessionById(session.id()).orElseThrow().status(),
+                "Le cache doit encore servir l'ancien statut");
+
+        // When & Then
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> kholleService.savePreferences(user.id(), session.id(), List.of(), List.of(slotIds.get(0))),
+                "Une session fermée en base doit refuser les préférences");
+        assertTrue(storedPreferences().isEmpty(), "Rien ne doit être enregistré");
+    }
+
+    @Test
+    void testSavePreferences_RejectsStudentOutsideTheSessionGroup() {
+        // Given : un étudiant qui n'appartient pas au groupe de la session
+        User outsider = userService.createUser("save-preferences-" + users++ + "-hors-groupe");
+
+        // When & Then
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> kholleService.savePreferences(outsider.id(), session.id(), List.of(), List.of(slotIds.get(0))),
+                "Un étudiant hors du groupe ne doit pas pouvoir donner ses préférences");
+        assertFalse(kholleService.isParticipant(session.id(), outsider.id()), "Il ne doit pas être inscrit");
+        assertTrue(
+                preferenceRepository.findByUserAndSessionOrderByPreferenceRankAsc(outsider, session).isEmpty(),
+                "Rien ne doit être enregistré");
+    }
+
+    @Test
+    void testSavePreferences_RejectsSlotFromAnotherSession() {
+        // When & Then
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> kholleService.savePreferences(user.id(), session.id(), List.of(), List.of(-1L)),
+                "Un créneau étranger à la session doit être refusé");
+        assertTrue(storedPreferences().isEmpty(), "Rien ne doit être enregistré");
+    }
+}
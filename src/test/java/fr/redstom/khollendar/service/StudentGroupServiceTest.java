@@ -0,0 +1,156 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import fr.redstom.khollendar.dto.KholleCreationDto;
+import fr.redstom.khollendar.dto.KholleSessionCreationDto;
+import fr.redstom.khollendar.dto.ParticipantSummary;
+import fr.redstom.khollendar.entity.KholleSession;
+import fr.redstom.khollendar.entity.StudentGroup;
+import fr.redstom.khollendar.entity.User;
+import fr.redstom.khollendar.repository.SessionParticipantRepository;
+import fr.redstom.khollendar.support.DatabaseTest;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/** Vérifie que les sessions n'inscrivent que les membres de leur groupe, au fil des arrivées et départs */
+@DatabaseTest
+class StudentGroupServiceTest {
+
+    private static int runs = 0;
+
+    @Autowired
+    private StudentGroupService groupService;
+
+    @Autowired
+    private KholleService kholleService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private SessionParticipantRepository participantRepository;
+
+    private String prefix;
+    private StudentGroup group;
+    private User alice;
+    private User bob;
+
+    @BeforeEach
+    void setUp() {
+        prefix = "student-group-" + runs++ + "-";
+        group = groupService.createGroup(prefix + "groupe");
+        alice = userService.createUser(prefix + "alice");
+        bob = userService.createUser(prefix + "bob");
+        userService.createUser(prefix + "hors-groupe");
+    }
+
+    private KholleSession createSession(Long groupId, LocalDateTime start) {
+        return kholleService.createKholle(new KholleSessionCreationDto(
+                "Histoire",
+                groupId,
+                new KholleCreationDto(start, null),
+                new KholleCreationDto(start.plusHours(1), null)));
+    }
+
+    private List<String> participants(KholleSession session) {
+        return participantRepository.findSummariesBySessionId(session.id()).stream()
+                .map(ParticipantSummary::username)
+                .toList();
+    }
+
+    @Test
+    void testCreateKholle_EnrollsOnlyGroupMembers() {
+        // Given
+        groupService.addMembers(group.id(), List.of(alice.username(), bob.username()));
+
+        // When
+        KholleSession session = createSession(group.id(), LocalDateTime.now().plusDays(5));
+
+        // Then
+        assertEquals(List.of(alice.username(), bob.username()), participants(session));
+    }
+
+    @Test
+    void testCreateUser_DoesNotEnrollInAnySession() {
+        // Given
+        KholleSession session = createSession(group.id(), LocalDateTime.now().plusDays(5));
+
+        // When
+        User newcomer = userService.createUser(prefix + "newcomer");
+
+        // Then
+        assertFalse(participants(session).contains(newcomer.username()), "Un nouvel utilisateur n'a pas de groupe");
+    }
+
+    @Test
+    void testAddMembers_EnrollsInUpcomingGroupSessionsOnly() {
+        // Given
+        KholleSession upcoming = createSession(group.id(), LocalDateTime.now().plusDays(5));
+        KholleSession past = createSession(group.id(), LocalDateTime.now().minusDays(5));
+        KholleSession otherGroup = createSession(null, LocalDateTime.now().plusDays(5));
+
+        // When
+        int added = groupService.addMembers(group.id(), List.of(alice.username(), " " + bob.username() + " ", ""));
+
+        // Then
+        assertEquals(2, added);
+        assertEquals(List.of(alice.username(), bob.username()), participants(upcoming));
+        assertTrue(participants(past).isEmpty(), "Une session passée n'accueille plus de participants");
+        assertTrue(participants(otherGroup).isEmpty(), "Seules les sessions du groupe sont concernées");
+    }
+
+    @Test
+    void testRemoveMember_WithdrawsFromUpcomingGroupSessions() {
+        // Given
+        groupService.addMembers(group.id(), List.of(alice.username(), bob.username()));
+        KholleSession upcoming = createSession(group.id(), LocalDateTime.now().plusDays(5));
+        KholleSession past = createSession(group.id(), LocalDateTime.now().minusDays(5));
+
+        // When
+        groupService.removeMember(group.id(), alice.id());
+
+        // Then
+        assertEquals(List.of(bob.username()), participants(upcoming));
+        assertEquals(
+                List.of(alice.username(), bob.username()),
+                participants(past),
+                "Les sessions passées gardent leurs participants");
+        assertEquals(
+                List.of(bob.username()),
+                groupService.getMembers(group.id()).stream()
+                        .map(ParticipantSummary::username)
+                        .toList());
+    }
+
+    @Test
+    void testAddMembers_WithUnknownUsername_ThrowsIllegalArgumentException() {
+        // When / Then
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> groupService.addMembers(group.id(), List.of(alice.username(), prefix + "inconnu")));
+        assertTrue(exception.getMessage().contains(prefix + "inconnu"));
+        assertTrue(groupService.getMembers(group.id()).isEmpty(), "Aucun étudiant ne doit être ajouté");
+    }
+}
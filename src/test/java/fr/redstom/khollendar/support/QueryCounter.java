@@ -0,0 +1,77 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.support;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.test.context.TestComponent;
+
+/**
+ * Compte les requêtes SQL exécutées par un bloc de code, à partir des statistiques Hibernate. Sert à
+ * détecter les régressions de performance, qui se traduisent presque toujours par des requêtes en
+ * plus (N+1, collection chargée pendant le rendu, entité relue plusieurs fois).
+ *
+ * <p>Les statistiques sont globales : le bloc mesuré ne doit pas s'exécuter en même temps qu'un
+ * autre accès à la base.
+ */
+@TestComponent
+public class QueryCounter {
+
+    private final Statistics statistics;
+
+    public QueryCounter(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (!statistics.isStatisticsEnabled()) {
+            throw new IllegalStateException("Statistiques Hibernate désactivées (hibernate.generate_statistics)");
+        }
+    }
+
+    /** Bloc de code mesuré */
+    @FunctionalInterface
+    public interface Action {
+        void run() throws Exception;
+    }
+
+    /**
+     * Exécute le bloc et compte les requêtes préparées pendant son exécution
+     *
+     * @param action Le bloc à mesurer
+     * @return Le nombre de requêtes SQL préparées
+     */
+    public long count(Action action) throws Exception {
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    /**
+     * Exécute le bloc et échoue s'il a préparé plus de requêtes que le maximum donné
+     *
+     * @param max Le nombre maximal de requêtes
+     * @param label Le nom du bloc mesuré, repris dans le message d'échec
+     * @param action Le bloc à mesurer
+     */
+    public void assertAtMost(long max, String label, Action action) throws Exception {
+        long statements = count(action);
+        assertTrue(statements <= max, label + " : " + statements + " requêtes (maximum " + max + ")");
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Kholle'n'dar is a web application to manage oral interrogations planning
+ * for French students.
+ * Copyright (C) 2025 Tom BUTIN
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+  * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.redstom.khollendar.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+
+class KeysetCursorTest {
+
+    @Test
+    void testEncodeDecode_RoundTripsSortKeys() {
+        // Given
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("firstSlotAt", LocalDateTime.of(2025, 10, 6, 14, 30));
+        keys.put("id", 42L);
+
+        // When
+        KeysetScrollPosition decoded = KeysetCursor.decode(KeysetCursor.encode(ScrollPosition.forward(keys)));
+
+        // Then
+        assertEquals(keys, decoded.getKeys(), "Les clés de tri doivent survivre à l'aller-retour");
+        assertFalse(decoded.isInitial(), "Une position décodée ne doit pas être la première page");
+    }
+
+    @Test
+    void testDecode_WithoutCursor_ReturnsInitialPosition() {
+        // When / Then
+        assertTrue(KeysetCursor.decode(null).isInitial(), "Sans curseur, on repart du début");
+        assertTrue(KeysetCursor.decode("").isInitial(), "Un curseur vide équivaut au début");
+    }
+
+    @Test
+    void testDecode_WithGarbage_ThrowsIllegalArgumentException() {
+        // When / Then
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("pas un curseur!"));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("aWQ9YWJj")); // "id=abc"
+    }
+}